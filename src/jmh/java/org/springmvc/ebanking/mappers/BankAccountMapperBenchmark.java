@@ -0,0 +1,150 @@
+package org.springmvc.ebanking.mappers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+import org.springmvc.ebanking.dtos.AccountOperationDTO;
+import org.springmvc.ebanking.dtos.BankAccountDTO;
+import org.springmvc.ebanking.dtos.CurrentBankAccountDTO;
+import org.springmvc.ebanking.dtos.CustomerDTO;
+import org.springmvc.ebanking.dtos.SavingBankAccountDTO;
+import org.springmvc.ebanking.dtos.UserProfileDTO;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.entities.AccountOperation;
+import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.CurrentAccount;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.entities.SavingAccount;
+import org.springmvc.ebanking.entities.User;
+import org.springmvc.ebanking.enums.AccountStatus;
+import org.springmvc.ebanking.enums.OperationType;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity -> DTO conversions done for every account, customer, operation and profile returned by
+ * the API. The beanUtils* methods keep the former BeanUtils.copyProperties account mappings as a
+ * baseline; run with -Djmh.args="Mapper -prof gc" to see the allocation per mapped row next to the
+ * latency.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BankAccountMapperBenchmark {
+
+    private final BankAccountMapperImpl mapper = new BankAccountMapperImpl();
+    private final UserMapper userMapper = new UserMapper();
+    private User user;
+    private Customer customer;
+    private CurrentAccount currentAccount;
+    private SavingAccount savingAccount;
+    private AccountOperation operation;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setUsername("admin1");
+        user.setEmail("admin1@gmail.com");
+        user.setFirstName("Meryem");
+        user.setLastName("Admin");
+
+        customer = new Customer();
+        customer.setId(1L);
+        customer.setName("Meryem");
+        customer.setEmail("meryem@gmail.com");
+        customer.setCreatedBy(user);
+        customer.setUpdatedBy(user);
+
+        currentAccount = new CurrentAccount();
+        fill(currentAccount, user);
+        currentAccount.setOverDraft(500);
+        currentAccount.setStatus(AccountStatus.ACTIVATED);
+
+        savingAccount = new SavingAccount();
+        fill(savingAccount, user);
+        savingAccount.setInterestRate(2.5);
+        savingAccount.setStatus(AccountStatus.ACTIVATED);
+
+        operation = new AccountOperation();
+        operation.setId(1L);
+        operation.setOperationDate(new Date());
+        operation.setAmount(120);
+        operation.setType(OperationType.CREDIT);
+        operation.setDescription("Deposit");
+        operation.setBankAccount(currentAccount);
+        operation.setPerformedBy(user);
+    }
+
+    @Benchmark
+    public CustomerDTO fromCustomer() {
+        return mapper.fromCustomer(customer);
+    }
+
+    @Benchmark
+    public CurrentBankAccountDTO fromCurrentBankAccount() {
+        return mapper.fromCurrentBankAccount(currentAccount);
+    }
+
+    @Benchmark
+    public SavingBankAccountDTO fromSavingBankAccount() {
+        return mapper.fromSavingBankAccount(savingAccount);
+    }
+
+    @Benchmark
+    public AccountOperationDTO fromAccountOperation() {
+        return mapper.fromAccountOperation(operation);
+    }
+
+    @Benchmark
+    public UserProfileDTO toProfileDTO() {
+        return userMapper.toProfileDTO(user);
+    }
+
+    @Benchmark
+    public CurrentBankAccountDTO beanUtilsCurrentBankAccount() {
+        CurrentBankAccountDTO dto = new CurrentBankAccountDTO();
+        BeanUtils.copyProperties(currentAccount, dto);
+        fillReferences(currentAccount, dto);
+        dto.setType(currentAccount.getClass().getSimpleName());
+        return dto;
+    }
+
+    @Benchmark
+    public SavingBankAccountDTO beanUtilsSavingBankAccount() {
+        SavingBankAccountDTO dto = new SavingBankAccountDTO();
+        BeanUtils.copyProperties(savingAccount, dto);
+        fillReferences(savingAccount, dto);
+        dto.setType(savingAccount.getClass().getSimpleName());
+        return dto;
+    }
+
+    private static void fillReferences(BankAccount account, BankAccountDTO dto) {
+        dto.setCustomerId(account.getCustomer().getId());
+        dto.setCustomerName(account.getCustomer().getName());
+        dto.setCreatedBy(account.getCreatedBy().getUsername());
+        dto.setUpdatedBy(account.getUpdatedBy().getUsername());
+    }
+
+    private void fill(BankAccount account, User user) {
+        account.setId(AccountIds.newId());
+        account.setBalance(1000);
+        account.setCreatedAt(new Date());
+        account.setUpdatedAt(new Date());
+        account.setCustomer(customer);
+        account.setCreatedBy(user);
+        account.setUpdatedBy(user);
+    }
+}
@@ -0,0 +1,74 @@
+package org.springmvc.ebanking.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token sign/verify cost.
+ * sign: what login pays per issued token.
+ * before: key and parser rebuilt per call, token parsed twice (validateToken + getUsernameFromJWT).
+ * singleParse: one parse with the reused parser (a claims cache miss).
+ * cachedClaims: JwtTokenProvider steady state, a repeated token served from the claims cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthBenchmark {
+
+    private Authentication login;
+    private String token;
+    private JwtParser parser;
+    private JwtTokenProvider provider;
+
+    @Setup
+    public void setUp() {
+        provider = SecurityBenchmarks.jwtTokenProvider(SecurityBenchmarks.tokenVersionRegistry());
+        login = new UsernamePasswordAuthenticationToken("john", null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        token = provider.generateToken(login);
+        parser = Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SecurityBenchmarks.SECRET.getBytes())).build();
+    }
+
+    @Benchmark
+    public String sign() {
+        return provider.generateToken(login);
+    }
+
+    @Benchmark
+    public String before() {
+        Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SecurityBenchmarks.SECRET.getBytes())).build().parse(token);
+        return Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SecurityBenchmarks.SECRET.getBytes())).build()
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return parser.parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String cachedClaims() {
+        Claims claims = provider.parseValidClaims(token);
+        return claims.getSubject();
+    }
+}
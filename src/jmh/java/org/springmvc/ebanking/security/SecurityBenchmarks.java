@@ -0,0 +1,32 @@
+package org.springmvc.ebanking.security;
+
+import org.springmvc.ebanking.repositories.UserRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Security components wired without a Spring context; the user table is a stub
+final class SecurityBenchmarks {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-0123456789";
+    static final long EXPIRATION_MS = TimeUnit.HOURS.toMillis(1);
+
+    private SecurityBenchmarks() {
+    }
+
+    static TokenVersionRegistry tokenVersionRegistry() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenState(anyString())).thenAnswer(invocation ->
+                List.<Object[]>of(new Object[]{invocation.getArgument(0), 0, true}));
+        return new TokenVersionRegistry(userRepository, Duration.ofMinutes(1));
+    }
+
+    static JwtTokenProvider jwtTokenProvider(TokenVersionRegistry registry) {
+        return new JwtTokenProvider(SECRET, EXPIRATION_MS, 10_000, registry);
+    }
+}
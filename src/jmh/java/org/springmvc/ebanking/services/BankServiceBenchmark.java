@@ -0,0 +1,81 @@
+package org.springmvc.ebanking.services;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springmvc.ebanking.EbankingApplication;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debit, credit and transfer through BankAccountsService against an embedded H2 database,
+ * i.e. the full transactional path: row lock, operation insert, balance update, summary update.
+ * Balances start high enough that debits never run dry during a run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BankServiceBenchmark {
+
+    private static final String USER = "admin1";
+
+    private ConfigurableApplicationContext context;
+    private BankAccountsService bankAccountsService;
+    private String source;
+    private String destination;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        context = new SpringApplicationBuilder(EbankingApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.root=WARN")
+                .run();
+        bankAccountsService = context.getBean(BankAccountsService.class);
+        Customer customer = new Customer();
+        customer.setName("Benchmark");
+        customer.setEmail("benchmark@example.com");
+        Long customerId = context.getBean(CustomerRepository.class).save(customer).getId();
+        source = bankAccountsService.saveCurrentBankAccount(1e12, 0, customerId, USER).getId();
+        destination = bankAccountsService.saveCurrentBankAccount(1e12, 0, customerId, USER).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public void debit() throws Exception {
+        bankAccountsService.debit(source, 1, "Benchmark debit", USER);
+    }
+
+    @Benchmark
+    public void credit() throws Exception {
+        bankAccountsService.credit(source, 1, "Benchmark credit", USER);
+    }
+
+    @Benchmark
+    public void transfer() throws Exception {
+        bankAccountsService.transfer(source, destination, 1, USER);
+    }
+}
@@ -0,0 +1,224 @@
+package org.springmvc.ebanking.web;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springmvc.ebanking.EbankingApplication;
+import org.springmvc.ebanking.config.VirtualThreadPinningMonitor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load on a blocking endpoint (GET /api/customers) with JDBC latency injected into
+ * every statement, run once on Tomcat's platform thread pool and once on virtual threads (Java 21+
+ * only). Each client sends its next request as soon as the previous one is answered; throughput and
+ * latency percentiles are measured after a warm-up. The connection pool is larger than the Tomcat
+ * pool, so with platform threads the request threads run out first, as under a JDBC latency spike.
+ *
+ *   mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=org.springmvc.ebanking.web.BlockingJdbcLoad \
+ *       -Dbenchmark.args="clients seconds jdbc-latency-ms pool-size"      (defaults: 1000 30 20 400)
+ */
+public class BlockingJdbcLoad {
+
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    record Result(String mode, int clients, long requests, long errors, double throughput,
+                  double p50Millis, double p99Millis, double maxMillis, Object pinned) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Devtools would restart main() without its arguments
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        int clients = arg(args, 0, 1000);
+        int seconds = arg(args, 1, 30);
+        int latencyMillis = arg(args, 2, 20);
+        int poolSize = arg(args, 3, 400);
+
+        List<Result> results = new ArrayList<>();
+        results.add(run(false, clients, seconds, latencyMillis, poolSize));
+        if (Runtime.version().feature() >= 21) {
+            results.add(run(true, clients, seconds, latencyMillis, poolSize));
+        } else {
+            System.out.println("Java " + Runtime.version().feature() + ": virtual threads need Java 21+, only the platform pool was measured");
+        }
+
+        System.out.printf("%n%d clients, %d s, %d ms per JDBC statement, %d connections%n", clients, seconds, latencyMillis, poolSize);
+        System.out.printf("%-9s %10s %8s %10s %9s %9s %9s  %s%n", "mode", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms", "pinned");
+        for (Result result : results) {
+            System.out.printf("%-9s %10d %8d %10.0f %9.1f %9.1f %9.1f  %s%n", result.mode(), result.requests(), result.errors(),
+                    result.throughput(), result.p50Millis(), result.p99Millis(), result.maxMillis(), result.pinned());
+        }
+    }
+
+    private static Result run(boolean virtual, int clients, int seconds, int latencyMillis, int poolSize) throws Exception {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EbankingApplication.class, JdbcLatency.class)
+                .properties("spring.datasource.url=jdbc:h2:mem:load-" + virtual + ";MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "spring.threads.virtual.enabled=" + virtual,
+                        "server.port=0",
+                        "server.tomcat.threads.max=200",
+                        "server.tomcat.accept-count=" + clients,
+                        "ebanking.load.jdbc-latency-ms=" + latencyMillis,
+                        "logging.level.root=WARN")
+                .run();
+        try {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+            HttpResponse<String> login = client.send(HttpRequest.newBuilder(URI.create(base + "/api/auth/login"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"usernameOrEmail\":\"admin1\",\"password\":\"1234\"}"))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            Matcher token = TOKEN.matcher(login.body());
+            if (!token.find()) {
+                throw new IllegalStateException("Login failed: " + login.statusCode() + " " + login.body());
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/customers"))
+                    .header("Authorization", "Bearer " + token.group(1))
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build();
+
+            long start = System.nanoTime();
+            long measureFrom = start + Duration.ofSeconds(Math.max(1, seconds / 5)).toNanos();
+            long end = measureFrom + Duration.ofSeconds(seconds).toNanos();
+            LongAdder errors = new LongAdder();
+            List<Client> loops = new ArrayList<>(clients);
+            for (int i = 0; i < clients; i++) {
+                Client loop = new Client(client, request, measureFrom, end, errors);
+                loop.next();
+                loops.add(loop);
+            }
+            CompletableFuture.allOf(loops.stream().map(loop -> loop.done).toArray(CompletableFuture[]::new)).join();
+
+            long[] all = loops.stream().flatMapToLong(loop -> Arrays.stream(loop.latencies, 0, loop.count)).toArray();
+            Arrays.sort(all);
+            VirtualThreadPinningMonitor monitor = context.getBeanProvider(VirtualThreadPinningMonitor.class).getIfAvailable();
+            return new Result(virtual ? "virtual" : "platform", clients, all.length, errors.sum(),
+                    all.length / ((end - measureFrom) / 1e9), percentile(all, 0.50), percentile(all, 0.99),
+                    all.length == 0 ? 0 : all[all.length - 1] / 1e6, monitor != null ? monitor.stats().get("pinnedEvents") : "-");
+        } finally {
+            context.close();
+        }
+    }
+
+    // One client: the next request leaves when the previous answer arrives
+    private static final class Client {
+        final HttpClient client;
+        final HttpRequest request;
+        final long measureFrom;
+        final long end;
+        final LongAdder errors;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        long[] latencies = new long[256];
+        int count;
+
+        Client(HttpClient client, HttpRequest request, long measureFrom, long end, LongAdder errors) {
+            this.client = client;
+            this.request = request;
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.errors = errors;
+        }
+
+        void next() {
+            long sent = System.nanoTime();
+            if (sent >= end) {
+                done.complete(null);
+                return;
+            }
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                long now = System.nanoTime();
+                if (sent >= measureFrom && now < end) {
+                    if (failure != null || response.statusCode() != 200) {
+                        errors.increment();
+                    } else {
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = now - sent;
+                    }
+                }
+                next();
+            });
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted.length == 0 ? 0 : sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    private static int arg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    // Every statement execution first sleeps, standing in for a slow database or network
+    @Configuration
+    static class JdbcLatency {
+
+        @Bean
+        static BeanPostProcessor slowJdbc(org.springframework.core.env.Environment environment) {
+            long latency = environment.getProperty("ebanking.load.jdbc-latency-ms", Long.class, 0L);
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource) || latency == 0) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return slow(super.getConnection(), Connection.class, latency);
+                        }
+                    };
+                }
+            };
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T slow(T target, Class<T> type, long latency) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                String name = method.getName();
+                if (target instanceof Statement && name.startsWith("execute")) {
+                    Thread.sleep(latency);
+                }
+                try {
+                    Object result = method.invoke(target, args);
+                    if (result instanceof java.sql.PreparedStatement statement && name.equals("prepareStatement")) {
+                        return slow(statement, java.sql.PreparedStatement.class, latency);
+                    }
+                    if (result instanceof Statement statement && name.equals("createStatement")) {
+                        return slow(statement, Statement.class, latency);
+                    }
+                    return result;
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# Time to first request of each startup mode: launches the application, sends a login request every 20 ms
+# until one is answered (any status), and reports milliseconds from launch. Build first with
+#   mvn -Pfast-startup package -DskipTests
+# and run against the database configured for the application (application.properties / .env); the fast-startup
+# modes do not create tables, so it needs the current schema (src/main/resources/db/schema.sql):
+#   src/jmh/startup-benchmark.sh [runs] [port]
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${2:-8085}
+APP_DIR=${APP_DIR:-target/application}
+JAR=$(cd "$APP_DIR" && ls ebanking-*.jar | head -1)
+
+declare -A MODES=(
+  [1-default]=""
+  [2-fast-startup]="-Dspring.profiles.active=fast-startup"
+  [3-fast-startup+aot]="-Dspring.profiles.active=fast-startup -Dspring.aot.enabled=true"
+  [4-fast-startup+aot+cds]="-Dspring.profiles.active=fast-startup -Dspring.aot.enabled=true -XX:SharedArchiveFile=application.jsa"
+)
+
+now_ms() { date +%s%3N; }
+
+first_request_ms() {
+  local options=$1 start pid status
+  start=$(now_ms)
+  # shellcheck disable=SC2086
+  (cd "$APP_DIR" && exec java $options -Dserver.port="$PORT" -jar "$JAR" >/dev/null 2>&1) &
+  pid=$!
+  while true; do
+    status=$(curl -s -o /dev/null -w '%{http_code}' -X POST -H 'Content-Type: application/json' \
+      -d '{"usernameOrEmail":"startup-probe","password":"startup-probe"}' "http://localhost:$PORT/api/auth/login" || true)
+    if [[ "$status" != "000" ]]; then
+      break
+    fi
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "application exited before answering" >&2
+      return 1
+    fi
+    sleep 0.02
+  done
+  echo $(( $(now_ms) - start ))
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+}
+
+printf '%-26s %8s %8s %8s\n' mode min median max
+for mode in $(printf '%s\n' "${!MODES[@]}" | sort); do
+  times=()
+  for ((run = 0; run < RUNS; run++)); do
+    times+=("$(first_request_ms "${MODES[$mode]}")")
+  done
+  sorted=($(printf '%s\n' "${times[@]}" | sort -n))
+  printf '%-26s %8s %8s %8s\n' "${mode#*-}" "${sorted[0]}" "${sorted[$((RUNS / 2))]}" "${sorted[$((RUNS - 1))]}"
+done
@@ -0,0 +1,75 @@
+package org.springmvc.ebanking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Read/write split. Set ebanking.datasource.replica.jdbc-url (plus username, password and any Hikari
+ * setting under the same prefix) and read-only transactions run on the replica pool, everything else
+ * on the primary (spring.datasource.*). Startup work and a user whose own write committed recently
+ * read from the primary instead, see {@link ReadYourWrites}; so does the user lookup that checks a
+ * login, which is not read-only.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ebanking.datasource.replica.jdbc-url")
+public class ReadReplicaConfig {
+
+    enum Target { PRIMARY, REPLICA }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("ebanking.datasource.replica")
+    public HikariDataSource replicaDataSource() {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        return dataSource;
+    }
+
+    // The lazy proxy only takes a physical connection at the first statement, once the transaction
+    // manager has published whether the transaction is read-only, so the routing can pick the pool
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource, ReadYourWrites readYourWrites) {
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !readYourWrites.readsFromPrimary()
+                        ? Target.REPLICA : Target.PRIMARY;
+            }
+        };
+        routing.setTargetDataSources(Map.of(Target.PRIMARY, primaryDataSource, Target.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Hibernate otherwise holds the connection for the whole open-in-view request, so a write after a
+    // read in the same request would reuse the replica connection
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,63 @@
+package org.springmvc.ebanking.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.time.Duration;
+
+/**
+ * Pins the current user to the primary for a while after each read-write transaction they commit,
+ * so their next reads see their own write even if the replica lags behind. Work without an
+ * authenticated user (schedulers, ledger shard threads) pins nobody. Until the application is
+ * ready everything reads from the primary: startup runners check what they have just written.
+ */
+@Component
+@ConditionalOnProperty(name = "ebanking.datasource.replica.jdbc-url")
+public class ReadYourWrites implements TransactionExecutionListener {
+
+    private final Cache<String, Boolean> pinned;
+    private volatile boolean started;
+
+    public ReadYourWrites(@Value("${ebanking.datasource.replica.pin-after-write:5s}") Duration pinAfterWrite) {
+        this.pinned = Caffeine.newBuilder().expireAfterWrite(pinAfterWrite).build();
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+        String username = currentUsername();
+        if (commitFailure == null && !transaction.isReadOnly() && username != null) {
+            pinned.put(username, Boolean.TRUE);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void applicationReady() {
+        started = true;
+    }
+
+    public boolean readsFromPrimary() {
+        if (!started) {
+            return true;
+        }
+        String username = currentUsername();
+        return username != null && pinned.getIfPresent(username) != null;
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,83 @@
+package org.springmvc.ebanking.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for the reference data read on almost every request: roles, users
+ * and customers, by id and by natural id (username, customer email), plus cacheable queries.
+ * Regions are Caffeine caches behind JCache, sized and expired from
+ * ebanking.cache.regions.&lt;region&gt;.maximum-size / .ttl. A region missing here fails startup.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // Region -> defaults; the timestamps region never expires, query results are only valid against it
+    static final Map<String, Region> REGIONS = new LinkedHashMap<>();
+
+    static {
+        REGIONS.put("roles", new Region(100, Duration.ofHours(1)));
+        REGIONS.put("users", new Region(10_000, Duration.ofMinutes(30)));
+        REGIONS.put("users.roles", new Region(10_000, Duration.ofMinutes(30)));
+        REGIONS.put("users-by-username", new Region(10_000, Duration.ofMinutes(30)));
+        REGIONS.put("customers", new Region(10_000, Duration.ofMinutes(30)));
+        REGIONS.put("customers-by-email", new Region(10_000, Duration.ofMinutes(30)));
+        REGIONS.put(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, new Region(10_000, Duration.ofMinutes(10)));
+        REGIONS.put(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new Region(1_000, null));
+    }
+
+    record Region(long maximumSize, Duration ttl) {
+    }
+
+    // One manager per application context: contexts sharing a JVM (tests) must not share cached rows
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(Environment environment) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("ebanking-" + UUID.randomUUID()), getClass().getClassLoader());
+        REGIONS.forEach((name, defaults) -> {
+            String prefix = "ebanking.cache.regions." + name;
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setStoreByValue(false); // Hibernate already caches disassembled, immutable state
+            configuration.setMaximumSize(OptionalLong.of(environment.getProperty(prefix + ".maximum-size", Long.class, defaults.maximumSize())));
+            Duration ttl = environment.getProperty(prefix + ".ttl", Duration.class, defaults.ttl() != null ? defaults.ttl() : Duration.ZERO);
+            if (!ttl.isZero()) {
+                configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            }
+            cacheManager.createCache(name, configuration);
+        });
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager hibernateCacheManager,
+                                                          @Value("${ebanking.cache.enabled:true}") boolean enabled) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, enabled);
+            // Per-region hit/miss counts for /api/admin/metrics/entity-cache
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            if (enabled) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package org.springmvc.ebanking.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springmvc.ebanking.security.TokenVersionRegistry;
+import org.springmvc.ebanking.services.ledger.JournalApplier;
+import org.springmvc.ebanking.services.ledger.LedgerJournal;
+import org.springmvc.ebanking.services.ledger.ShardedLedger;
+
+@Configuration
+public class StartupConfig {
+
+    // With spring.main.lazy-initialization (fast-startup profile), beans are created on first use, except these:
+    // journal recovery and shard loading must finish before traffic, and token versions are needed by every
+    // authenticated request. @Scheduled beans are kept eager by Boot itself.
+    @Bean
+    public static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                LedgerJournal.class, JournalApplier.class, ShardedLedger.class, TokenVersionRegistry.class);
+    }
+}
@@ -0,0 +1,19 @@
+package org.springmvc.ebanking.config;
+
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+
+@Configuration
+public class TransactionConfig {
+
+    // NOT_SUPPORTED methods (transfers, sharded ledger) wait on work done in other transactions.
+    // Without this, their first repository call binds an EntityManager to the empty scope and it keeps
+    // its JDBC connection until the method returns, which starves the pool under load.
+    @Bean
+    public TransactionManagerCustomizer<AbstractPlatformTransactionManager> synchronizeOnActualTransaction() {
+        return transactionManager -> transactionManager.setTransactionSynchronization(
+                AbstractPlatformTransactionManager.SYNCHRONIZATION_ON_ACTUAL_TRANSACTION);
+    }
+}
@@ -0,0 +1,99 @@
+package org.springmvc.ebanking.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * With spring.threads.virtual.enabled (Java 21+), requests run on virtual threads that share a few
+ * carrier threads. A virtual thread that blocks while pinned (inside synchronized, or in native
+ * code such as some JDBC drivers) holds its carrier for the whole wait, and enough of them starve
+ * every other request. This listens to the JVM's own jdk.VirtualThreadPinned events and counts
+ * them by the application frame that blocked, logging each new site once.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+    private final Duration threshold;
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final Map<String, LongAdder> bySite = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(@Value("${ebanking.threads.pinned-threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", this::pinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        stream.close();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threshold", threshold.toString());
+        stats.put("pinnedEvents", pinnedEvents.sum());
+        stats.put("pinnedMillis", pinnedNanos.sum() / 1_000_000);
+        Map<String, Long> sites = new LinkedHashMap<>();
+        bySite.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> site) -> site.getValue().sum()).reversed())
+                .limit(20)
+                .forEach(site -> sites.put(site.getKey(), site.getValue().sum()));
+        stats.put("sites", sites);
+        return stats;
+    }
+
+    private void pinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        pinnedNanos.add(event.getDuration().toNanos());
+        String site = site(event);
+        LongAdder count = bySite.get(site);
+        if (count == null) {
+            LongAdder created = new LongAdder();
+            count = bySite.putIfAbsent(site, created);
+            if (count == null) {
+                count = created;
+                log.warn("Virtual thread pinned its carrier for {} ms at {}", event.getDuration().toMillis(), site);
+            }
+        }
+        count.increment();
+    }
+
+    // First frame outside the JDK: where application (or driver) code blocked while pinned
+    private static String site(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return "jdk";
+    }
+}
@@ -0,0 +1,18 @@
+package org.springmvc.ebanking.dtos;
+
+import java.util.Date;
+
+// Flat row read by the account list and search queries: exactly the DTO columns, with the customer and
+// auditing usernames joined in, so listing accounts never loads Customer/User entities or their roles
+public record BankAccountRow(String id,
+                             Class<?> accountType,
+                             double balance,
+                             Date createdAt,
+                             Date updatedAt,
+                             Long customerId,
+                             String customerName,
+                             String createdBy,
+                             String updatedBy,
+                             Double overDraft,
+                             Double interestRate) {
+}
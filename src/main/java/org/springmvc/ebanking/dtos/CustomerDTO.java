@@ -1,12 +1,16 @@
 package org.springmvc.ebanking.dtos;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Data
 @Getter
 @Setter
+@NoArgsConstructor
+@AllArgsConstructor
 public class CustomerDTO {
     private Long id;
     private String name;
@@ -4,6 +4,7 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Date;
 import java.util.List;
 
 @Data
@@ -13,9 +14,16 @@ public class DashboardDTO {
     private long totalCustomers;
     private long totalAccounts;
     private double totalBalance;
+    private Date lastActivity;
     private List<AccountOperationDTO> recentTransactions;
     private int currentPage;
     private int pageSize;
     private long totalTransactions;
     private int totalPages;
+    // Set by the cursor-based dashboard instead of the page counters
+    private boolean hasMore;
+    private String nextCursor;
+    // A part that missed the dashboard deadline is left out and named here
+    private boolean partial;
+    private List<String> timedOut;
 }
\ No newline at end of file
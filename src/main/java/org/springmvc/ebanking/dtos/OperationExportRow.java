@@ -0,0 +1,14 @@
+package org.springmvc.ebanking.dtos;
+
+import org.springmvc.ebanking.enums.OperationType;
+
+import java.util.Date;
+
+// Flat row read by the export query; a constructor projection keeps rows out of the persistence context
+public record OperationExportRow(Long id,
+                                 Date operationDate,
+                                 OperationType type,
+                                 double amount,
+                                 String description,
+                                 String performedBy) {
+}
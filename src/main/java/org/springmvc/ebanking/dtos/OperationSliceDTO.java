@@ -0,0 +1,14 @@
+package org.springmvc.ebanking.dtos;
+
+import lombok.Data;
+
+import java.util.List;
+
+// One keyset page of operations; pass nextCursor back to get the following page (null when there is none)
+@Data
+public class OperationSliceDTO {
+    private List<AccountOperationDTO> operations;
+    private int size;
+    private boolean hasMore;
+    private String nextCursor;
+}
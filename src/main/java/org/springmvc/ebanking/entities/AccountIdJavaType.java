@@ -0,0 +1,53 @@
+package org.springmvc.ebanking.entities;
+
+import org.hibernate.type.descriptor.WrapperOptions;
+import org.hibernate.type.descriptor.java.AbstractClassJavaType;
+
+// Hibernate mapping of the canonical 36-character account id onto BINARY(16); AttributeConverters do not apply to ids
+public class AccountIdJavaType extends AbstractClassJavaType<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    public AccountIdJavaType() {
+        super(String.class);
+    }
+
+    @Override
+    public String toString(String value) {
+        return value;
+    }
+
+    @Override
+    public String fromString(CharSequence string) {
+        return string != null ? string.toString() : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <X> X unwrap(String value, Class<X> type, WrapperOptions options) {
+        if (value == null) {
+            return null;
+        }
+        if (byte[].class.isAssignableFrom(type)) {
+            return (X) AccountIds.toBytes(value);
+        }
+        if (String.class.isAssignableFrom(type)) {
+            return (X) value;
+        }
+        throw unknownUnwrap(type);
+    }
+
+    @Override
+    public <X> String wrap(X value, WrapperOptions options) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof byte[] bytes) {
+            return AccountIds.fromBytes(bytes);
+        }
+        if (value instanceof String string) {
+            return string;
+        }
+        throw unknownWrap(value.getClass());
+    }
+}
@@ -0,0 +1,71 @@
+package org.springmvc.ebanking.entities;
+
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Bank account ids: time-ordered UUIDv7 strings for clients, 16 raw bytes in the database.
+ * Consecutive ids share a timestamp prefix, so new rows land at the right edge of the
+ * primary key index instead of on random pages.
+ */
+public final class AccountIds {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int COUNTER_MASK = 0xFFF;
+
+    // Never generated (RFC 9562 "Max UUID"); malformed ids map to it so lookups find nothing
+    private static final UUID UNKNOWN = new UUID(-1L, -1L);
+
+    private static long lastMillis;
+    private static int counter;
+
+    private AccountIds() {
+    }
+
+    // 48-bit unix millis, version 7, 12-bit counter seeded randomly each millisecond, variant, 62 random bits
+    public static String newId() {
+        long millis;
+        int sequence;
+        synchronized (AccountIds.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                counter = RANDOM.nextInt(COUNTER_MASK / 2);
+            } else if (++counter > COUNTER_MASK) {
+                // Counter exhausted within one millisecond: borrow the next one to stay monotonic
+                lastMillis++;
+                counter = 0;
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+        long mostSignificant = (millis << 16) | 0x7000L | sequence;
+        long leastSignificant = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSignificant, leastSignificant).toString();
+    }
+
+    public static byte[] toBytes(String id) {
+        UUID uuid = parse(id);
+        return ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+    }
+
+    public static String fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong()).toString();
+    }
+
+    private static UUID parse(String id) {
+        if (id == null || id.length() != 36) {
+            return UNKNOWN;
+        }
+        try {
+            return UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            return UNKNOWN;
+        }
+    }
+}
@@ -6,23 +6,29 @@ import org.springmvc.ebanking.enums.OperationType;
 
 import java.util.Date;
 @Entity
+@Table(indexes = @Index(name = "idx_operation_account_date_id", columnList = "bank_account_id, operation_date, id"))
 @Data @NoArgsConstructor @AllArgsConstructor
 @Getter
 @Setter
 public class AccountOperation {
+    // Pooled sequence (a table-backed emulation on MySQL) so inserts can be JDBC-batched; IDENTITY disables batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_operation_seq")
+    @SequenceGenerator(name = "account_operation_seq", sequenceName = "account_operation_seq", allocationSize = 50)
     private Long id;
     private Date operationDate;
     private double amount;
     @Enumerated(EnumType.STRING)
     private OperationType type;
-    @ManyToOne
+    // Lazy: the DTO only needs the account id, which the proxy holds without a query
+    // The constraint is named so migrations (db/*.sql) can refer to it
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "bank_account_id", foreignKey = @ForeignKey(name = "fk_account_operation_bank_account"))
     private BankAccount bankAccount;
     private String description;
 
     // Added to track which user performed the operation
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "performed_by")
     private User performedBy;
 
@@ -6,6 +6,9 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.springmvc.ebanking.enums.AccountStatus;
 
 import java.util.Date;
@@ -17,20 +20,32 @@ import java.util.Date;
 @Getter
 @Setter
 public class BankAccount {
+    // UUIDv7 string in the API, BINARY(16) in the table and in every foreign key to it
     @Id
+    @JavaType(AccountIdJavaType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
     private String id;
 
     private double balance;
 
-    @ManyToOne
+    // Balance when the account was opened: balance = openingBalance + credits - debits, checked by the reconciliation
+    private double openingBalance;
+
+    // Optimistic lock guarding balance updates that bypass the row lock
+    @Version
+    private long version;
+
+    // Lazy: queries that map accounts to DTOs fetch these through entity graphs or projections
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id")
     private Customer customer;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
     private User createdBy;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updated_by")
     private User updatedBy;
 
@@ -40,6 +55,7 @@ public class BankAccount {
 
     @PrePersist
     protected void onCreate() {
+        this.openingBalance = this.balance;
         this.createdAt = new Date();
         this.updatedAt = new Date();
     }
@@ -3,10 +3,21 @@ package org.springmvc.ebanking.entities;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.Date;
 import java.util.List;
+// Second-level cached, also by email: users are linked to their customer through it.
+// The email is unique; the constraint is named so migrations (db/*.sql) can refer to it.
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_customer_email", columnNames = "email"))
+@BatchSize(size = 50)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "customers")
+@NaturalIdCache(region = "customers-by-email")
 @Data @NoArgsConstructor @AllArgsConstructor
 @Getter
 @Setter
@@ -15,23 +26,25 @@ public class Customer {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     private String name;
+    @NaturalId(mutable = true)
     private String email;
     @OneToMany(mappedBy = "customer")
+    @BatchSize(size = 50)
     @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private List<BankAccount> bankAccounts;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by")
     private User createdBy;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "updated_by")
     private User updatedBy;
 
     private Date createdAt;
     private Date updatedAt;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
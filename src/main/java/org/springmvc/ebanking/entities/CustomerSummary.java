@@ -0,0 +1,31 @@
+package org.springmvc.ebanking.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Per-customer dashboard totals, kept current by the transactions that move money (see CustomerSummaryService)
+@Entity
+@Table(name = "customer_summary")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSummary {
+    @Id
+    private Long customerId;
+
+    private int accountCount;
+
+    private double totalBalance;
+
+    private long operationCount;
+
+    private Date lastActivity;
+
+    private Date updatedAt;
+}
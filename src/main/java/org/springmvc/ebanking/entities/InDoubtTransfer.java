@@ -0,0 +1,54 @@
+package org.springmvc.ebanking.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springmvc.ebanking.enums.InDoubtTransferStatus;
+
+import java.util.Date;
+
+// A sharded-ledger transfer whose debit committed without a definite outcome for the rest; kept once resolved
+@Entity
+@Table(name = "in_doubt_transfer")
+@Data
+@NoArgsConstructor
+public class InDoubtTransfer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @JavaType(AccountIdJavaType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private String sourceAccountId;
+
+    @JavaType(AccountIdJavaType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private String destinationAccountId;
+
+    private double amount;
+
+    private Long performedBy;
+
+    @Enumerated(EnumType.STRING)
+    private InDoubtTransferStatus status;
+
+    // Why the transfer is (or was) in doubt, and how it was settled
+    @Column(length = 1000)
+    private String detail;
+
+    private Date createdAt;
+
+    private Date resolvedAt;
+}
@@ -0,0 +1,55 @@
+package org.springmvc.ebanking.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JavaType;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+// One id range of one accrual run; lastAccountId advances in the same transaction as the credited rows
+@Entity
+@Table(name = "interest_accrual_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InterestAccrualCheckpoint {
+    // accrual date + "#" + partition
+    @Id
+    private String name;
+
+    private LocalDate accrualDate;
+
+    private int partitionIndex;
+
+    // Exclusive bounds; lastAccountId starts at lowerId
+    @JavaType(AccountIdJavaType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private String lowerId;
+
+    @JavaType(AccountIdJavaType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private String upperId;
+
+    @JavaType(AccountIdJavaType.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private String lastAccountId;
+
+    private long accountsCredited;
+
+    private double interestCredited;
+
+    private boolean completed;
+
+    private Date updatedAt;
+}
@@ -0,0 +1,25 @@
+package org.springmvc.ebanking.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+// Highest journal sequence whose effects are in the database; advanced in the same transaction as the applied rows
+@Entity
+@Table(name = "ledger_journal_checkpoint")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerJournalCheckpoint {
+    @Id
+    private String name;
+
+    private long appliedSequence;
+
+    private Date updatedAt;
+}
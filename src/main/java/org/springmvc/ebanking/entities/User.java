@@ -2,13 +2,23 @@ package org.springmvc.ebanking.entities;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 
+// Batch-loaded: lazy createdBy/updatedBy/performedBy proxies of a page are initialized together.
+// Second-level cached, also by username (UserRepository.findByUsername resolves the natural id).
 @Entity
 @Table(name = "users")
+@BatchSize(size = 50)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-username")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,6 +29,7 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId(mutable = true)
     @Column(unique = true)
     private String username;
 
@@ -40,7 +51,13 @@ public class User {
 
     private boolean enabled = true;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Bumped whenever tokens issued so far must stop working (password change, forced logout)
+    private int tokenVersion;
+
+    // Only authentication needs the roles, and reads them from the collection cache once warm
+    @ManyToMany
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users.roles")
     @JoinTable(
             name = "users_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -0,0 +1,6 @@
+package org.springmvc.ebanking.enums;
+
+// PENDING: the credit leg may or may not have been applied; REVERSAL_FAILED: the debit still has to be given back
+public enum InDoubtTransferStatus {
+    PENDING, CREDITED, REVERSED, REVERSAL_FAILED
+}
@@ -1,10 +1,14 @@
 package org.springmvc.ebanking.mappers;
 
-import org.springframework.beans.BeanUtils;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Service;
 import org.springmvc.ebanking.dtos.*;
 import org.springmvc.ebanking.entities.*;
 
+/**
+ * Entity/DTO conversions, written out field by field. List endpoints map every row through here,
+ * so no reflective property copying: each mapping is a handful of getter/setter calls.
+ */
 @Service
 public class BankAccountMapperImpl {
     public CustomerDTO fromCustomer(Customer customer) {
@@ -33,57 +37,42 @@ public class BankAccountMapperImpl {
 
     public SavingBankAccountDTO fromSavingBankAccount(SavingAccount savingAccount) {
         SavingBankAccountDTO savingBankAccountDTO = new SavingBankAccountDTO();
-        BeanUtils.copyProperties(savingAccount, savingBankAccountDTO);
-        if (savingAccount.getCustomer() != null) {
-            savingBankAccountDTO.setCustomerId(savingAccount.getCustomer().getId());
-            savingBankAccountDTO.setCustomerName(savingAccount.getCustomer().getName());
-        }
-        if (savingAccount.getCreatedBy() != null) {
-            savingBankAccountDTO.setCreatedBy(savingAccount.getCreatedBy().getUsername()); // Use username
-        }
-        if (savingAccount.getUpdatedBy() != null) {
-            savingBankAccountDTO.setUpdatedBy(savingAccount.getUpdatedBy().getUsername()); // Use username
-        }
-        savingBankAccountDTO.setType(savingAccount.getClass().getSimpleName());
+        copyAccount(savingAccount, savingBankAccountDTO);
+        savingBankAccountDTO.setInterestRate(savingAccount.getInterestRate());
+        savingBankAccountDTO.setType(SavingAccount.class.getSimpleName());
         return savingBankAccountDTO;
     }
 
     public SavingAccount fromSavingBankAccountDTO(SavingBankAccountDTO savingBankAccountDTO) {
         SavingAccount savingAccount = new SavingAccount();
-        BeanUtils.copyProperties(savingBankAccountDTO, savingAccount);
+        copyAccount(savingBankAccountDTO, savingAccount);
+        savingAccount.setInterestRate(savingBankAccountDTO.getInterestRate());
         savingAccount.setCustomer(fromCustomerDTO(savingBankAccountDTO.getCustomerDTO()));
         return savingAccount;
     }
 
     public CurrentBankAccountDTO fromCurrentBankAccount(CurrentAccount currentAccount) {
         CurrentBankAccountDTO currentBankAccountDTO = new CurrentBankAccountDTO();
-        BeanUtils.copyProperties(currentAccount, currentBankAccountDTO);
-        if (currentAccount.getCustomer() != null) {
-            currentBankAccountDTO.setCustomerId(currentAccount.getCustomer().getId());
-            currentBankAccountDTO.setCustomerName(currentAccount.getCustomer().getName());
-        }
-        if (currentAccount.getCreatedBy() != null) {
-            currentBankAccountDTO.setCreatedBy(currentAccount.getCreatedBy().getUsername()); // Use username
-        }
-        if (currentAccount.getUpdatedBy() != null) {
-            currentBankAccountDTO.setUpdatedBy(currentAccount.getUpdatedBy().getUsername()); // Use username
-        }
-        currentBankAccountDTO.setType(currentAccount.getClass().getSimpleName());
+        copyAccount(currentAccount, currentBankAccountDTO);
+        currentBankAccountDTO.setOverDraft(currentAccount.getOverDraft());
+        currentBankAccountDTO.setType(CurrentAccount.class.getSimpleName());
         return currentBankAccountDTO;
     }
 
     public CurrentAccount fromCurrentBankAccountDTO(CurrentBankAccountDTO currentBankAccountDTO) {
         CurrentAccount currentAccount = new CurrentAccount();
-        BeanUtils.copyProperties(currentBankAccountDTO, currentAccount);
+        copyAccount(currentBankAccountDTO, currentAccount);
+        currentAccount.setOverDraft(currentBankAccountDTO.getOverDraft());
         currentAccount.setCustomer(fromCustomerDTO(currentBankAccountDTO.getCustomerDTO()));
         return currentAccount;
     }
 
-
     public BankAccountDTO fromBankAccount(BankAccount bankAccount) {
         if (bankAccount == null) {
             return null;
         }
+        // A lazy reference is a BankAccount proxy; the subtype is only known once unwrapped
+        bankAccount = (BankAccount) Hibernate.unproxy(bankAccount);
 
         if (bankAccount instanceof CurrentAccount) {
             return fromCurrentBankAccount((CurrentAccount) bankAccount);
@@ -93,25 +82,35 @@ public class BankAccountMapperImpl {
 
         // Fallback for generic BankAccount mapping
         BankAccountDTO dto = new BankAccountDTO();
-        dto.setId(bankAccount.getId());
-        dto.setBalance(bankAccount.getBalance());
-        dto.setCreatedAt(bankAccount.getCreatedAt());
+        copyAccount(bankAccount, dto);
         dto.setType("Unknown");
-        if (bankAccount.getCustomer() != null) {
-            Customer customer = bankAccount.getCustomer();
-            dto.setCustomerId(customer.getId());
-            dto.setCustomerName(customer.getName());
-        }
-        if (bankAccount.getCreatedBy() != null) {
-            dto.setCreatedBy(bankAccount.getCreatedBy().getUsername()); // Use username
-        }
-        if (bankAccount.getUpdatedBy() != null) {
-            dto.setUpdatedBy(bankAccount.getUpdatedBy().getUsername()); // Use username
-        }
-        dto.setUpdatedAt(bankAccount.getUpdatedAt());
+        return dto;
+    }
 
+    // Projection row -> DTO; same output as fromBankAccount on the loaded entity
+    public BankAccountDTO fromBankAccountRow(BankAccountRow row) {
+        BankAccountDTO dto;
+        if (row.accountType() == SavingAccount.class) {
+            SavingBankAccountDTO saving = new SavingBankAccountDTO();
+            saving.setInterestRate(row.interestRate() != null ? row.interestRate() : 0);
+            dto = saving;
+        } else {
+            CurrentBankAccountDTO current = new CurrentBankAccountDTO();
+            current.setOverDraft(row.overDraft() != null ? row.overDraft() : 0);
+            dto = current;
+        }
+        dto.setId(row.id());
+        dto.setBalance(row.balance());
+        dto.setCreatedAt(row.createdAt());
+        dto.setUpdatedAt(row.updatedAt());
+        dto.setCustomerId(row.customerId());
+        dto.setCustomerName(row.customerName());
+        dto.setCreatedBy(row.createdBy());
+        dto.setUpdatedBy(row.updatedBy());
+        dto.setType(row.accountType().getSimpleName());
         return dto;
     }
+
     public AccountOperationDTO fromAccountOperation(AccountOperation accountOperation) {
         if (accountOperation == null) {
             return null;
@@ -127,4 +126,29 @@ public class BankAccountMapperImpl {
         return dto;
     }
 
-}
\ No newline at end of file
+    // Fields shared by every account type; status is not copied as the entities expose no getter for it
+    private void copyAccount(BankAccount bankAccount, BankAccountDTO dto) {
+        dto.setId(bankAccount.getId());
+        dto.setBalance(bankAccount.getBalance());
+        dto.setCreatedAt(bankAccount.getCreatedAt());
+        dto.setUpdatedAt(bankAccount.getUpdatedAt());
+        Customer customer = bankAccount.getCustomer();
+        if (customer != null) {
+            dto.setCustomerId(customer.getId());
+            dto.setCustomerName(customer.getName());
+        }
+        if (bankAccount.getCreatedBy() != null) {
+            dto.setCreatedBy(bankAccount.getCreatedBy().getUsername()); // Use username
+        }
+        if (bankAccount.getUpdatedBy() != null) {
+            dto.setUpdatedBy(bankAccount.getUpdatedBy().getUsername()); // Use username
+        }
+    }
+
+    private void copyAccount(BankAccountDTO dto, BankAccount bankAccount) {
+        bankAccount.setId(dto.getId());
+        bankAccount.setBalance(dto.getBalance());
+        bankAccount.setCreatedAt(dto.getCreatedAt());
+        bankAccount.setUpdatedAt(dto.getUpdatedAt());
+    }
+}
@@ -8,13 +8,11 @@ import org.springframework.stereotype.Component;
 public class UserMapper {
 
     public UserProfileDTO toProfileDTO(User user) {
-        String fullName = (user.getFirstName() != null ? user.getFirstName() : "") +
-                (user.getLastName() != null ? " " + user.getLastName() : "");
         return new UserProfileDTO(
                 user.getId(),
                 user.getUsername(),
                 user.getEmail(),
-                fullName.trim(),
+                fullName(user.getFirstName(), user.getLastName()),
                 null,
                 null,
                 user.getCreatedAt(),
@@ -32,4 +30,14 @@ public class UserMapper {
 
 
     }
-}
\ No newline at end of file
+
+    // "first last" with missing or blank parts dropped
+    static String fullName(String firstName, String lastName) {
+        String first = firstName != null ? firstName.trim() : "";
+        String last = lastName != null ? lastName.trim() : "";
+        if (last.isEmpty()) {
+            return first;
+        }
+        return first.isEmpty() ? last : first + " " + last;
+    }
+}
@@ -1,15 +1,29 @@
 package org.springmvc.ebanking.repositories;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springmvc.ebanking.dtos.OperationExportRow;
 import org.springmvc.ebanking.entities.AccountOperation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
+import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
+// Queries whose rows are mapped to AccountOperationDTO fetch performedBy with the page (the DTO shows its username)
 public interface AccountOperationRepository extends JpaRepository<AccountOperation,Long> {
+    @EntityGraph(attributePaths = "performedBy")
     List<AccountOperation> findByBankAccountId(String accountId);
+    @EntityGraph(attributePaths = "performedBy")
     Page<AccountOperation> findByBankAccountIdOrderByOperationDateDesc(String accountId, Pageable pageable);
 
     Page<AccountOperation> findByBankAccountIdInOrderByOperationDateDesc(List<String> accountIds, Pageable pageable);
@@ -18,5 +32,43 @@ public interface AccountOperationRepository extends JpaRepository<AccountOperati
 
     Page<AccountOperation> findByBankAccountIdIn(List<String> bankAccountIds, Pageable pageable);
 
+    // Slice instead of Page: no COUNT query, totals come from the customer summary
+    @EntityGraph(attributePaths = "performedBy")
+    Slice<AccountOperation> findSliceByBankAccountIdInOrderByOperationDateDescIdDesc(List<String> bankAccountIds, Pageable pageable);
+
     Page<AccountOperation> findByBankAccountId(String accountId, PageRequest of);
+
+    // Keyset pagination, newest first; served by idx_operation_account_date_id without OFFSET or COUNT
+    @EntityGraph(attributePaths = "performedBy")
+    @Query("SELECT o FROM AccountOperation o WHERE o.bankAccount.id = :accountId ORDER BY o.operationDate DESC, o.id DESC")
+    List<AccountOperation> findLatestByAccount(@Param("accountId") String accountId, Limit limit);
+
+    @EntityGraph(attributePaths = "performedBy")
+    @Query("SELECT o FROM AccountOperation o WHERE o.bankAccount.id = :accountId"
+            + " AND (o.operationDate < :date OR (o.operationDate = :date AND o.id < :id))"
+            + " ORDER BY o.operationDate DESC, o.id DESC")
+    List<AccountOperation> findByAccountBefore(@Param("accountId") String accountId, @Param("date") Date date,
+                                               @Param("id") Long id, Limit limit);
+
+    @EntityGraph(attributePaths = "performedBy")
+    @Query("SELECT o FROM AccountOperation o WHERE o.bankAccount.id IN :accountIds ORDER BY o.operationDate DESC, o.id DESC")
+    List<AccountOperation> findLatestByAccounts(@Param("accountIds") List<String> accountIds, Limit limit);
+
+    @EntityGraph(attributePaths = "performedBy")
+    @Query("SELECT o FROM AccountOperation o WHERE o.bankAccount.id IN :accountIds"
+            + " AND (o.operationDate < :date OR (o.operationDate = :date AND o.id < :id))"
+            + " ORDER BY o.operationDate DESC, o.id DESC")
+    List<AccountOperation> findByAccountsBefore(@Param("accountIds") List<String> accountIds, @Param("date") Date date,
+                                                @Param("id") Long id, Limit limit);
+
+    // Forward-only cursor for exports: rows are fetched from the driver in chunks, never materialized as a list
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new org.springmvc.ebanking.dtos.OperationExportRow(o.id, o.operationDate, o.type, o.amount, o.description, u.username)"
+            + " FROM AccountOperation o LEFT JOIN o.performedBy u"
+            + " WHERE o.bankAccount.id = :accountId AND o.operationDate >= :from AND o.operationDate < :to"
+            + " ORDER BY o.operationDate, o.id")
+    Stream<OperationExportRow> streamForExport(@Param("accountId") String accountId, @Param("from") Date from, @Param("to") Date to);
 }
@@ -1,22 +1,70 @@
 package org.springmvc.ebanking.repositories;
 
+import org.springmvc.ebanking.dtos.BankAccountRow;
 import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 public interface BankAccountRepository extends JpaRepository<BankAccount, String> {
 
+    // Accounts mapped to DTOs, with the customer and auditing users they show
+    @EntityGraph(attributePaths = {"customer", "createdBy", "updatedBy"})
     List<BankAccount> findByCustomerId(Long customerId);
 
-    @Query("SELECT ba FROM BankAccount ba JOIN ba.customer c WHERE ba.id LIKE %:keyword% OR cast(c.id as string) LIKE %:keyword% OR c.name LIKE %:keyword%")
-    Page<BankAccount> findByIdContainingOrCustomerNameContaining(@Param("keyword") String keyword, Pageable pageable);
+    @EntityGraph(attributePaths = {"customer", "createdBy", "updatedBy"})
+    Optional<BankAccount> findWithOwnersById(String id);
+
+    @Query("SELECT ba.id FROM BankAccount ba WHERE ba.customer.id = :customerId")
+    List<String> findIdsByCustomerId(@Param("customerId") Long customerId);
+
+    // Ids are time-ordered, so the first one is the customer's oldest (primary) account
+    @Query("SELECT ba.id FROM BankAccount ba WHERE ba.customer.id = :customerId ORDER BY ba.id")
+    List<String> findIdsByCustomerIdOrderById(@Param("customerId") Long customerId, Limit limit);
+
+    // SELECT ... FOR UPDATE: callers locking several rows must do so in id order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ba FROM BankAccount ba WHERE ba.id = :id")
+    Optional<BankAccount> findByIdForUpdate(@Param("id") String id);
+
+    @Query("SELECT ba.balance FROM BankAccount ba WHERE ba.id = :id")
+    Optional<Double> findBalanceById(@Param("id") String id);
+
+    // Blind write used by writers that own the authoritative balance (sharded ledger)
+    @Modifying
+    @Query("UPDATE BankAccount ba SET ba.balance = :balance, ba.updatedBy = :user, ba.updatedAt = :now, ba.version = ba.version + 1 WHERE ba.id = :id")
+    int updateBalance(@Param("id") String id, @Param("balance") double balance, @Param("user") User user, @Param("now") Date now);
+
     @Query("SELECT SUM(b.balance) FROM BankAccount b")
     Double sumBalances();
 
-    Page<BankAccount> findByCustomerNameContains(String keyword, Pageable pageable);
+    // One statement per page (plus the count): the DTO columns only, no entity or User graph is loaded
+    @Query(value = "SELECT new org.springmvc.ebanking.dtos.BankAccountRow(ba.id, TYPE(ba), ba.balance, ba.createdAt, ba.updatedAt,"
+            + " c.id, c.name, cb.username, ub.username, TREAT(ba AS CurrentAccount).overDraft, TREAT(ba AS SavingAccount).interestRate)"
+            + " FROM BankAccount ba LEFT JOIN ba.customer c LEFT JOIN ba.createdBy cb LEFT JOIN ba.updatedBy ub"
+            + " ORDER BY ba.id",
+            countQuery = "SELECT count(ba) FROM BankAccount ba")
+    Page<BankAccountRow> findRows(Pageable pageable);
+
+    // Same rows as findRows, filtered on a substring of the customer name (wildcards in the keyword are matched literally)
+    @Query(value = "SELECT new org.springmvc.ebanking.dtos.BankAccountRow(ba.id, TYPE(ba), ba.balance, ba.createdAt, ba.updatedAt,"
+            + " c.id, c.name, cb.username, ub.username, TREAT(ba AS CurrentAccount).overDraft, TREAT(ba AS SavingAccount).interestRate)"
+            + " FROM BankAccount ba JOIN ba.customer c LEFT JOIN ba.createdBy cb LEFT JOIN ba.updatedBy ub"
+            + " WHERE c.name LIKE %:#{escape([0])}% ESCAPE :#{escapeCharacter()}"
+            + " ORDER BY ba.id",
+            countQuery = "SELECT count(ba) FROM BankAccount ba JOIN ba.customer c"
+                    + " WHERE c.name LIKE %:#{escape([0])}% ESCAPE :#{escapeCharacter()}")
+    Page<BankAccountRow> findRowsByCustomerNameContains(String keyword, Pageable pageable);
 }
\ No newline at end of file
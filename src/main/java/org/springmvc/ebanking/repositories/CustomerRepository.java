@@ -1,19 +1,51 @@
 package org.springmvc.ebanking.repositories;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springmvc.ebanking.dtos.CustomerDTO;
 import org.springmvc.ebanking.entities.Customer;
 import org.springmvc.ebanking.entities.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface CustomerRepository extends JpaRepository<Customer,Long> {
+public interface CustomerRepository extends JpaRepository<Customer,Long>, CustomerRepositoryCustom {
     @Query("select c from Customer c where c.name like :kw")
     List<Customer> searchCustomer(@Param("kw") String keyword);
-    Optional<Customer> findByEmail(String email);
     Optional<Customer> findByUser(User user);
     List<Customer> findByNameContains(String keyword);
+    boolean existsByEmail(String email);
+    boolean existsByEmailAndIdNot(String email, Long id);
+
+    // Serializes creation of the customer's summary row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Customer c where c.id = :id")
+    Optional<Customer> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("select c.id from Customer c")
+    List<Long> findAllIds();
+
+    // The DTO columns in one statement, instead of loading each customer with its creator/updater users and their roles
+    @Query("select new org.springmvc.ebanking.dtos.CustomerDTO(c.id, c.name, c.email, coalesce(cb.username, 'Unknown'), coalesce(ub.username, 'Unknown'))"
+            + " from Customer c left join c.createdBy cb left join c.updatedBy ub order by c.id")
+    List<CustomerDTO> findAllDTOs();
+
+    // The page of customers the search index ranked, in one statement
+    @Query("select new org.springmvc.ebanking.dtos.CustomerDTO(c.id, c.name, c.email, coalesce(cb.username, 'Unknown'), coalesce(ub.username, 'Unknown'))"
+            + " from Customer c left join c.createdBy cb left join c.updatedBy ub where c.id in :ids")
+    List<CustomerDTO> findDTOsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Search while the index is not built yet: the scan it replaces
+    @Query(value = "select new org.springmvc.ebanking.dtos.CustomerDTO(c.id, c.name, c.email, coalesce(cb.username, 'Unknown'), coalesce(ub.username, 'Unknown'))"
+            + " from Customer c left join c.createdBy cb left join c.updatedBy ub"
+            + " where lower(c.name) like :kw or lower(c.email) like :kw order by c.name, c.id",
+            countQuery = "select count(c) from Customer c where lower(c.name) like :kw or lower(c.email) like :kw")
+    Page<CustomerDTO> searchDTOs(@Param("kw") String keyword, Pageable pageable);
 
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package org.springmvc.ebanking.repositories;
+
+import org.springmvc.ebanking.entities.Customer;
+
+import java.util.Optional;
+
+public interface CustomerRepositoryCustom {
+
+    // Natural-id lookup: served from the second-level cache without SQL once the customer has been seen
+    Optional<Customer> findByEmail(String email);
+}
@@ -0,0 +1,24 @@
+package org.springmvc.ebanking.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+import org.springmvc.ebanking.entities.Customer;
+
+import java.util.Optional;
+
+class CustomerRepositoryCustomImpl implements CustomerRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Customer> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(Customer.class).loadOptional(email);
+    }
+}
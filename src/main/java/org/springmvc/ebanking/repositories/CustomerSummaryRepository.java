@@ -0,0 +1,49 @@
+package org.springmvc.ebanking.repositories;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springmvc.ebanking.entities.CustomerSummary;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+public interface CustomerSummaryRepository extends JpaRepository<CustomerSummary, Long> {
+
+    // Relative update: concurrent writers add their deltas instead of overwriting each other
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CustomerSummary s SET s.accountCount = s.accountCount + :accounts, s.totalBalance = s.totalBalance + :balance,"
+            + " s.operationCount = s.operationCount + :operations,"
+            + " s.lastActivity = CASE WHEN s.lastActivity IS NULL OR s.lastActivity < :activity THEN :activity ELSE s.lastActivity END,"
+            + " s.updatedAt = :activity WHERE s.customerId = :customerId")
+    int applyDelta(@Param("customerId") Long customerId, @Param("accounts") int accounts, @Param("balance") double balance,
+                   @Param("operations") long operations, @Param("activity") Date activity);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CustomerSummary s WHERE s.customerId = :customerId")
+    Optional<CustomerSummary> findByIdForUpdate(@Param("customerId") Long customerId);
+
+    // Rebuild queries: [customerId, count, sum(balance)] and [customerId, count, max(operationDate)]
+    @Query("SELECT b.customer.id, COUNT(b), COALESCE(SUM(b.balance), 0) FROM BankAccount b WHERE b.customer.id = :customerId GROUP BY b.customer.id")
+    List<Object[]> aggregateAccounts(@Param("customerId") Long customerId);
+
+    @Query("SELECT b.customer.id, COUNT(o), MAX(o.operationDate) FROM AccountOperation o JOIN o.bankAccount b WHERE b.customer.id = :customerId GROUP BY b.customer.id")
+    List<Object[]> aggregateOperations(@Param("customerId") Long customerId);
+
+    @Query("SELECT b.customer.id, COUNT(b), COALESCE(SUM(b.balance), 0) FROM BankAccount b GROUP BY b.customer.id")
+    List<Object[]> aggregateAllAccounts();
+
+    @Query("SELECT b.customer.id, COUNT(o), MAX(o.operationDate) FROM AccountOperation o JOIN o.bankAccount b GROUP BY b.customer.id")
+    List<Object[]> aggregateAllOperations();
+
+    @Query("SELECT b.id, b.customer.id FROM BankAccount b WHERE b.id IN :accountIds")
+    List<Object[]> findCustomerIdsByAccountIds(@Param("accountIds") List<String> accountIds);
+
+    @Modifying
+    @Query("DELETE FROM CustomerSummary s")
+    int deleteAllInBulk();
+}
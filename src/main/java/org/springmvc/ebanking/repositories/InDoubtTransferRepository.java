@@ -0,0 +1,15 @@
+package org.springmvc.ebanking.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springmvc.ebanking.entities.InDoubtTransfer;
+import org.springmvc.ebanking.enums.InDoubtTransferStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface InDoubtTransferRepository extends JpaRepository<InDoubtTransfer, Long> {
+
+    List<InDoubtTransfer> findByStatusInOrderById(Collection<InDoubtTransferStatus> statuses);
+
+    long countByStatus(InDoubtTransferStatus status);
+}
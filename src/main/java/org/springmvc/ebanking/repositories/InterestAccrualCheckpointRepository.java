@@ -0,0 +1,12 @@
+package org.springmvc.ebanking.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springmvc.ebanking.entities.InterestAccrualCheckpoint;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface InterestAccrualCheckpointRepository extends JpaRepository<InterestAccrualCheckpoint, String> {
+
+    List<InterestAccrualCheckpoint> findByAccrualDateOrderByPartitionIndex(LocalDate accrualDate);
+}
@@ -0,0 +1,7 @@
+package org.springmvc.ebanking.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springmvc.ebanking.entities.LedgerJournalCheckpoint;
+
+public interface LedgerJournalCheckpointRepository extends JpaRepository<LedgerJournalCheckpoint, String> {
+}
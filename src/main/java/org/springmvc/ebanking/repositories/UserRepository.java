@@ -2,13 +2,36 @@ package org.springmvc.ebanking.repositories;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springmvc.ebanking.entities.User;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
+// findByUsername is a natural-id lookup (UserRepositoryCustom); email is not the natural id, so its lookup uses the query cache
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<User> findByEmail(String email);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
+
+    // [userId, email, customerId or null] for the principal cache, in one round trip
+    @Query("SELECT u.id, u.email, c.id FROM User u LEFT JOIN Customer c ON c.email = u.email WHERE u.username = :username")
+    List<Object[]> findPrincipal(@Param("username") String username);
+
+    // [username, tokenVersion, enabled] for the JWT version registry
+    @Query("SELECT u.username, u.tokenVersion, u.enabled FROM User u")
+    List<Object[]> findTokenStates();
+
+    @Query("SELECT u.username, u.tokenVersion, u.enabled FROM User u WHERE u.username = :username")
+    List<Object[]> findTokenState(@Param("username") String username);
+
+    @Modifying
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.username = :username")
+    int incrementTokenVersion(@Param("username") String username);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package org.springmvc.ebanking.repositories;
+
+import org.springmvc.ebanking.entities.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    // Natural-id lookup: served from the second-level cache without SQL once the user has been seen
+    Optional<User> findByUsername(String username);
+}
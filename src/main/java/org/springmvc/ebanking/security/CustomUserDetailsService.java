@@ -7,6 +7,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springmvc.ebanking.entities.Role;
 import org.springmvc.ebanking.entities.User;
 import org.springmvc.ebanking.repositories.UserRepository;
@@ -25,7 +26,10 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    // Transactional so the lazy roles can be read; user, roles and the username lookup all come from the second-level cache once warm.
+    // Not read-only, so with a replica it reads the primary: a login right after registering or changing the password must see it
     @Override
+    @Transactional
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
         logger.info("Attempting to load user by username or email: {}", usernameOrEmail);
         User user = userRepository.findByUsername(usernameOrEmail)
@@ -4,15 +4,20 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @Slf4j
@@ -20,10 +25,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final boolean stateless;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider,
+                                   CustomUserDetailsService userDetailsService,
+                                   TokenVersionRegistry tokenVersionRegistry,
+                                   @Value("${ebanking.security.jwt.stateless:true}") boolean stateless) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+        this.stateless = stateless;
     }
 
     @Override
@@ -43,15 +55,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         String jwt = getJwtFromRequest(request);
         if (jwt != null) {
             log.info("Found JWT token in request for path: {}", path);
-            if (jwtTokenProvider.validateToken(jwt)) {
-                String username = jwtTokenProvider.getUsernameFromJWT(jwt);
+            Claims claims = jwtTokenProvider.parseValidClaims(jwt);
+            if (claims != null) {
+                String username = claims.getSubject();
                 log.info("JWT validated, username: {}", username);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.info("Authentication set for user: {}", username);
+                UserDetails userDetails = stateless && claims.get(JwtTokenProvider.VERSION_CLAIM) != null
+                        ? fromClaims(claims)
+                        : userDetailsService.loadUserByUsername(username);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    log.info("Authentication set for user: {}", username);
+                } else {
+                    log.warn("Revoked JWT token for user: {}", username);
+                }
             } else {
                 log.warn("Invalid JWT token for path: {}, reason: validation failed", path);
             }
@@ -61,6 +80,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Signed roles plus a current token version are enough: no user or role query on the request path
+    private UserDetails fromClaims(Claims claims) {
+        Number version = claims.get(JwtTokenProvider.VERSION_CLAIM, Number.class);
+        if (!tokenVersionRegistry.isCurrent(claims.getSubject(), version.intValue())) {
+            return null;
+        }
+        List<?> roles = claims.get(JwtTokenProvider.ROLES_CLAIM, List.class);
+        List<SimpleGrantedAuthority> authorities = roles == null ? List.of() : roles.stream()
+                .map(role -> new SimpleGrantedAuthority(String.valueOf(role)))
+                .toList();
+        return new User(claims.getSubject(), "", authorities);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
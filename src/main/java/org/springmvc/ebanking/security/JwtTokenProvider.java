@@ -1,5 +1,8 @@
 package org.springmvc.ebanking.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
@@ -11,20 +14,64 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+/**
+ * Issues and verifies HS256 tokens. The signing key and parser are built once; verified claims
+ * are kept in a bounded cache keyed by the SHA-256 of the token until the token expires, so a
+ * client reusing its token costs one hash and a map lookup instead of an HMAC and a JSON parse.
+ */
 @Component
 @Slf4j
 public class JwtTokenProvider {
 
-    @Value("${APP_JWT_SECRET}")
-    private String jwtSecret;
+    static final String ROLES_CLAIM = "roles";
+    static final String VERSION_CLAIM = "ver";
 
-    @Value("${APP_JWT_EXPIRATION}")
-    private long jwtExpirationDate;
+    private final long jwtExpirationDate;
+    private final Key key;
+    private final JwtParser parser;
+    private final Cache<ByteBuffer, Claims> verifiedClaims;
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    public JwtTokenProvider(@Value("${APP_JWT_SECRET}") String jwtSecret,
+                            @Value("${APP_JWT_EXPIRATION}") long jwtExpirationDate,
+                            @Value("${ebanking.security.jwt.claims-cache-size:10000}") long claimsCacheSize,
+                            TokenVersionRegistry tokenVersionRegistry) {
+        this.jwtExpirationDate = jwtExpirationDate;
+        this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(claimsCacheSize)
+                .expireAfter(new Expiry<ByteBuffer, Claims>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer token, Claims claims, long currentTime) {
+                        Date expiration = claims.getExpiration();
+                        long millis = expiration != null ? expiration.getTime() - System.currentTimeMillis() : jwtExpirationDate;
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, millis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        this.tokenVersionRegistry = tokenVersionRegistry;
+    }
 
     // Generate JWT token
     public String generateToken(Authentication authentication) {
@@ -39,25 +86,27 @@ public class JwtTokenProvider {
 
         String token = Jwts.builder()
                 .setSubject(username)
-                .claim("roles", roles) // Add roles as a claim
+                .claim(ROLES_CLAIM, roles) // Add roles as a claim
+                .claim(VERSION_CLAIM, tokenVersionRegistry.currentVersion(username)) // Checked instead of reloading the user
                 .setIssuedAt(new Date())
                 .setExpiration(expireDate)
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
         return token;
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
-    }
-
-    // Helper method to parse JWT and get claims
+    // Helper method to parse JWT and get claims; throws JwtException if the token is not valid
     private Claims getClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (!StringUtils.hasText(token)) {
+            throw new IllegalArgumentException("JWT claims string is empty");
+        }
+        ByteBuffer cacheKey = hash(token);
+        Claims claims = verifiedClaims.getIfPresent(cacheKey);
+        if (claims == null) {
+            claims = parser.parseClaimsJws(token).getBody();
+            verifiedClaims.put(cacheKey, claims);
+        }
+        return claims;
     }
 
     // Get username from JWT token
@@ -73,21 +122,17 @@ public class JwtTokenProvider {
     // Get roles from JWT token
     public List<String> getRoles(String token) {
         try {
-            return getClaims(token).get("roles", List.class);
+            return getClaims(token).get(ROLES_CLAIM, List.class);
         } catch (JwtException e) {
             log.error("Failed to extract roles from token: {}", e.getMessage());
             throw e;
         }
     }
 
-    // Validate JWT token
-    public boolean validateToken(String token) {
+    // Verified claims, or null if the token is not valid; one parse instead of validate + extract
+    public Claims parseValidClaims(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parse(token);
-            return true;
+            return getClaims(token);
         } catch (SignatureException ex) {
             log.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -99,7 +144,12 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
         }
-        return false;
+        return null;
+    }
+
+    // Validate JWT token
+    public boolean validateToken(String token) {
+        return parseValidClaims(token) != null;
     }
 
     // Extract JWT token from HTTP request
@@ -115,16 +165,14 @@ public class JwtTokenProvider {
     }
 
     public String getUsernameFromToken(String token) {
+        return getUsername(token);
+    }
+
+    private static ByteBuffer hash(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(key())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getSubject();
-        } catch (JwtException e) {
-            log.error("Failed to extract username from token: {}", e.getMessage());
-            throw e;
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,135 @@
+package org.springmvc.ebanking.security;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springmvc.ebanking.repositories.UserRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory username -> token version table, so a signed JWT can be trusted without loading
+ * the user. A token is current only if its "ver" claim equals the user's version; disabled
+ * users map to DISABLED. The table is reloaded periodically (one narrow query) so changes made
+ * on another node or directly in the database are picked up within the refresh interval.
+ */
+@Component
+@Slf4j
+public class TokenVersionRegistry {
+
+    static final int DISABLED = -1;
+
+    private final UserRepository userRepository;
+    private final Duration refreshInterval;
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+    // Revocations a refresh that started earlier must not overwrite with its older snapshot
+    private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+    private ScheduledExecutorService refresher;
+
+    public TokenVersionRegistry(UserRepository userRepository,
+                                @Value("${ebanking.security.jwt.version-refresh:30s}") Duration refreshInterval) {
+        this.userRepository = userRepository;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwt-version-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        refresher.shutdownNow();
+    }
+
+    // Version to embed in a new token; DISABLED if the user cannot log in
+    public int currentVersion(String username) {
+        Integer version = versions.get(username);
+        return version != null ? version : load(username);
+    }
+
+    public boolean isCurrent(String username, int tokenVersion) {
+        int version = currentVersion(username);
+        return version != DISABLED && version == tokenVersion;
+    }
+
+    // Invalidates every token issued to the user so far; runs in the caller's transaction when there is one
+    @Transactional
+    public void revoke(String username) {
+        if (userRepository.incrementTokenVersion(username) > 0) {
+            versions.remove(username);
+            // Drop again once committed: a lookup racing with this transaction may have cached the old version
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    revokedAt.put(username, System.nanoTime());
+                    versions.remove(username);
+                }
+            });
+            log.info("Revoked issued tokens for user {}", username);
+        }
+    }
+
+    // The username no longer exists (renamed or deleted); its tokens fall back to a lookup that fails
+    public void forget(String username) {
+        versions.remove(username);
+    }
+
+    public int size() {
+        return versions.size();
+    }
+
+    void refresh() {
+        long started = System.nanoTime();
+        Map<String, Integer> loaded = new ConcurrentHashMap<>();
+        for (Object[] row : userRepository.findTokenStates()) {
+            loaded.put((String) row[0], version(row));
+        }
+        revokedAt.forEach((username, at) -> {
+            if (at - started > 0) {
+                loaded.remove(username);
+            }
+        });
+        revokedAt.values().removeIf(at -> at - started <= 0);
+        versions.keySet().retainAll(loaded.keySet());
+        versions.putAll(loaded);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // Keep serving the last known table; the next run retries
+            log.warn("Could not refresh JWT token versions: {}", e.getMessage());
+        }
+    }
+
+    private int load(String username) {
+        List<Object[]> rows = userRepository.findTokenState(username);
+        int version = rows.isEmpty() ? DISABLED : version(rows.get(0));
+        if (!rows.isEmpty()) {
+            versions.put(username, version);
+        }
+        return version;
+    }
+
+    private static int version(Object[] row) {
+        return Boolean.TRUE.equals(row[2]) ? ((Number) row[1]).intValue() : DISABLED;
+    }
+}
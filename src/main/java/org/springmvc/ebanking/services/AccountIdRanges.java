@@ -0,0 +1,50 @@
+package org.springmvc.ebanking.services;
+
+import jakarta.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits accounts into contiguous (lowerId, upperId] ranges of about the same size, for batch jobs
+ * that walk them in parallel in id order. Account ids are time-ordered, so accounts opened after
+ * the split land in the last range.
+ */
+public final class AccountIdRanges {
+
+    // Nil and max UUIDs, never generated, bound the first and last ranges
+    public static final String FIRST_ID = "00000000-0000-0000-0000-000000000000";
+    public static final String LAST_ID = "ffffffff-ffff-ffff-ffff-ffffffffffff";
+
+    public record Range(int index, String lowerId, String upperId) {
+    }
+
+    private AccountIdRanges() {
+    }
+
+    // At most `parts` ranges of `entity` (BankAccount or a subclass); fewer when there are few accounts
+    public static List<Range> split(EntityManager entityManager, String entity, int parts) {
+        long count = entityManager.createQuery("SELECT count(a) FROM " + entity + " a", Long.class).getSingleResult();
+        List<String> bounds = new ArrayList<>();
+        bounds.add(FIRST_ID);
+        for (int i = 1; i < parts; i++) {
+            long offset = count * i / parts - 1;
+            if (offset < 0) {
+                continue;
+            }
+            String id = entityManager.createQuery("SELECT a.id FROM " + entity + " a ORDER BY a.id", String.class)
+                    .setFirstResult((int) offset)
+                    .setMaxResults(1)
+                    .getSingleResult();
+            if (!bounds.get(bounds.size() - 1).equals(id)) {
+                bounds.add(id);
+            }
+        }
+        bounds.add(LAST_ID);
+        List<Range> ranges = new ArrayList<>(bounds.size() - 1);
+        for (int i = 0; i + 1 < bounds.size(); i++) {
+            ranges.add(new Range(i, bounds.get(i), bounds.get(i + 1)));
+        }
+        return ranges;
+    }
+}
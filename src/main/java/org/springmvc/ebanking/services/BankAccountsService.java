@@ -52,12 +52,16 @@ public interface BankAccountsService {
 
    void deleteCustomer(Long customerId);
 
-   List<CustomerDTO> searchCustomers(String keyword);
+   Page<CustomerDTO> searchCustomers(String keyword, Pageable pageable);
 
    List<AccountOperationDTO> accountHistory(String accountId);
 
    AccountHistoryDTO getAccountHistory(String accountId, int page, int size) throws BankAccountNotFoundException;
 
+   OperationSliceDTO scrollAccountHistory(String accountId, String cursor, int size) throws BankAccountNotFoundException;
+
+   OperationSliceDTO scrollUserOperations(String userId, String cursor, int size) throws CustomerNotFoundException;
+
    Page<BankAccountDTO> searchBankAccounts(String keyword, Pageable pageable);
 
    List<BankAccountDTO> getUserAccounts(String userId) throws CustomerNotFoundException;
@@ -70,5 +74,7 @@ public interface BankAccountsService {
 
    DashboardDTO getDashboardData(String userId, Pageable pageable) throws CustomerNotFoundException;
 
+   DashboardDTO getDashboardData(String userId, String cursor, int size) throws CustomerNotFoundException;
+
 
 }
\ No newline at end of file
@@ -14,32 +14,53 @@ import org.springmvc.ebanking.repositories.AccountOperationRepository;
 import org.springmvc.ebanking.repositories.BankAccountRepository;
 import org.springmvc.ebanking.repositories.CustomerRepository;
 import org.springmvc.ebanking.repositories.UserRepository;
+import org.springmvc.ebanking.services.search.CustomerSearchIndex;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+// Queries run in read-only transactions: no flush or dirty checking, and they may be served by the read replica
 @Service
 @Transactional
 @AllArgsConstructor
 @Slf4j
 public class BankServiceImpl implements BankAccountsService {
+    // Largest page a keyset scroll returns
+    private static final int MAX_SCROLL_SIZE = 100;
+
     private CustomerRepository customerRepository;
     private BankAccountRepository bankAccountRepository;
     private AccountOperationRepository accountOperationRepository;
     private UserRepository userRepository;
     private BankAccountMapperImpl dtoMapper;
+    private TransferEngine transferEngine;
+    private CustomerSummaryService customerSummaryService;
+    private PrincipalResolver principalResolver;
+    private DashboardFanOut dashboardFanOut;
+    private CustomerSearchIndex customerSearchIndex;
 
     @Override
     public CustomerDTO saveCustomer(CustomerDTO customerDTO) throws CustomerNotFoundException {
         log.info("Saving new Customer {}", customerDTO);
+        if (customerDTO.getEmail() != null && customerRepository.existsByEmail(customerDTO.getEmail())) {
+            throw new IllegalArgumentException("A customer with email " + customerDTO.getEmail() + " already exists");
+        }
         Customer customer = new Customer();
         customer.setId(customerDTO.getId());
         customer.setName(customerDTO.getName());
@@ -49,6 +70,9 @@ public class BankServiceImpl implements BankAccountsService {
         customer.setCreatedBy(user);
         customer.setUpdatedBy(user);
         Customer savedCustomer = customerRepository.save(customer);
+        // A user with this email may be cached as having no customer yet
+        principalResolver.invalidateEmail(savedCustomer.getEmail());
+        customerSearchIndex.customerSaved(savedCustomer.getId(), savedCustomer.getName(), savedCustomer.getEmail());
         return dtoMapper.fromCustomer(savedCustomer);
     }
 
@@ -59,7 +83,7 @@ public class BankServiceImpl implements BankAccountsService {
         User user = userRepository.findByUsername(userId)
                 .orElseThrow(() -> new CustomerNotFoundException("User not found: " + userId));
         CurrentAccount currentAccount = new CurrentAccount();
-        currentAccount.setId(UUID.randomUUID().toString());
+        currentAccount.setId(AccountIds.newId());
         currentAccount.setCreatedAt(new Date());
         currentAccount.setBalance(initialBalance);
         currentAccount.setStatus(AccountStatus.CREATED);
@@ -68,6 +92,8 @@ public class BankServiceImpl implements BankAccountsService {
         currentAccount.setUpdatedBy(user);
         currentAccount.setOverDraft(overDraft);
         CurrentAccount savedAccount = bankAccountRepository.save(currentAccount);
+        customerSummaryService.record(customer.getId(), CustomerSummaryService.Activity.accountOpened(initialBalance), savedAccount.getCreatedAt());
+        principalResolver.invalidateCustomer(customer.getId());
         return dtoMapper.fromCurrentBankAccount(savedAccount);
     }
 
@@ -78,7 +104,7 @@ public class BankServiceImpl implements BankAccountsService {
         User user = userRepository.findByUsername(userId)
                 .orElseThrow(() -> new CustomerNotFoundException("User not found: " + userId));
         SavingAccount savingAccount = new SavingAccount();
-        savingAccount.setId(UUID.randomUUID().toString());
+        savingAccount.setId(AccountIds.newId());
         savingAccount.setCreatedAt(new Date());
         savingAccount.setBalance(initialBalance);
         savingAccount.setStatus(AccountStatus.CREATED);
@@ -87,6 +113,8 @@ public class BankServiceImpl implements BankAccountsService {
         savingAccount.setUpdatedBy(user);
         savingAccount.setInterestRate(interestRate);
         SavingAccount savedAccount = bankAccountRepository.save(savingAccount);
+        customerSummaryService.record(customer.getId(), CustomerSummaryService.Activity.accountOpened(initialBalance), savedAccount.getCreatedAt());
+        principalResolver.invalidateCustomer(customer.getId());
         return dtoMapper.fromSavingBankAccount(savedAccount);
     }
 
@@ -97,7 +125,7 @@ public class BankServiceImpl implements BankAccountsService {
         Customer customer = customerRepository.findByEmail(user.getEmail())
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found for user: " + userId));
         CurrentAccount basicAccount = new CurrentAccount();
-        basicAccount.setId(UUID.randomUUID().toString());
+        basicAccount.setId(AccountIds.newId());
         basicAccount.setCreatedAt(new Date());
         basicAccount.setBalance(initialBalance);
         basicAccount.setStatus(AccountStatus.CREATED);
@@ -106,33 +134,34 @@ public class BankServiceImpl implements BankAccountsService {
         basicAccount.setUpdatedBy(user);
         basicAccount.setOverDraft(500); // Default overdraft for basic account
         CurrentAccount savedAccount = bankAccountRepository.save(basicAccount);
+        customerSummaryService.record(customer.getId(), CustomerSummaryService.Activity.accountOpened(initialBalance), savedAccount.getCreatedAt());
+        principalResolver.invalidateCustomer(customer.getId());
         return dtoMapper.fromCurrentBankAccount(savedAccount);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerDTO> listCustomers() {
-        return customerRepository.findAll().stream()
-                .map(dtoMapper::fromCustomer)
-                .collect(Collectors.toList());
+        return customerRepository.findAllDTOs();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BankAccountDTO getBankAccount(String accountId) throws BankAccountNotFoundException {
-        BankAccount bankAccount = bankAccountRepository.findById(accountId)
+        BankAccount bankAccount = bankAccountRepository.findWithOwnersById(accountId)
                 .orElseThrow(() -> new BankAccountNotFoundException("BankAccount not found"));
-        if (bankAccount instanceof SavingAccount) {
-            return dtoMapper.fromSavingBankAccount((SavingAccount) bankAccount);
-        } else {
-            return dtoMapper.fromCurrentBankAccount((CurrentAccount) bankAccount);
-        }
+        return dtoMapper.fromBankAccount(bankAccount);
     }
 
     @Override
     public void debit(String accountId, double amount, String description, String userId) throws BankAccountNotFoundException, BalanceNotSufficientException {
-        BankAccount bankAccount = bankAccountRepository.findById(accountId)
+        debit(accountId, amount, description, performedBy(userId));
+    }
+
+    protected void debit(String accountId, double amount, String description, Long performedBy) throws BankAccountNotFoundException, BalanceNotSufficientException {
+        BankAccount bankAccount = bankAccountRepository.findByIdForUpdate(accountId)
                 .orElseThrow(() -> new BankAccountNotFoundException("BankAccount not found"));
-        User user = userRepository.findByUsername(userId)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + userId));
+        User user = userRepository.getReferenceById(performedBy);
         if (bankAccount.getBalance() < amount) {
             throw new BalanceNotSufficientException("Balance not sufficient");
         }
@@ -147,14 +176,19 @@ public class BankServiceImpl implements BankAccountsService {
         bankAccount.setBalance(bankAccount.getBalance() - amount);
         bankAccount.setUpdatedBy(user);
         bankAccountRepository.save(bankAccount);
+        customerSummaryService.record(bankAccount,
+                CustomerSummaryService.Activity.operation(-amount), accountOperation.getOperationDate());
     }
 
     @Override
     public void credit(String accountId, double amount, String description, String userId) throws BankAccountNotFoundException {
-        BankAccount bankAccount = bankAccountRepository.findById(accountId)
+        credit(accountId, amount, description, performedBy(userId));
+    }
+
+    protected void credit(String accountId, double amount, String description, Long performedBy) throws BankAccountNotFoundException {
+        BankAccount bankAccount = bankAccountRepository.findByIdForUpdate(accountId)
                 .orElseThrow(() -> new BankAccountNotFoundException("BankAccount not found"));
-        User user = userRepository.findByUsername(userId)
-                .orElseThrow(() -> new IllegalStateException("User not found: " + userId));
+        User user = userRepository.getReferenceById(performedBy);
         AccountOperation accountOperation = new AccountOperation();
         accountOperation.setType(OperationType.CREDIT);
         accountOperation.setAmount(amount);
@@ -166,82 +200,81 @@ public class BankServiceImpl implements BankAccountsService {
         bankAccount.setBalance(bankAccount.getBalance() + amount);
         bankAccount.setUpdatedBy(user);
         bankAccountRepository.save(bankAccount);
+        customerSummaryService.record(bankAccount,
+                CustomerSummaryService.Activity.operation(amount), accountOperation.getOperationDate());
     }
 
+    // The engine runs each attempt in its own transaction, so no outer one is held open around it
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void transfer(String accountIdSource, String accountIdDestination, double amount, String userId) throws BankAccountNotFoundException, BalanceNotSufficientException {
-        debit(accountIdSource, amount, "Transfer to " + accountIdDestination, userId);
-        credit(accountIdDestination, amount, "Transfer from " + accountIdSource, userId);
+        transfer(accountIdSource, accountIdDestination, amount, performedBy(userId));
     }
 
+    protected void transfer(String accountIdSource, String accountIdDestination, double amount, Long performedBy) throws BankAccountNotFoundException, BalanceNotSufficientException {
+        transferEngine.transfer(accountIdSource, accountIdDestination, amount, performedBy);
+    }
+
+    // User transactions resolve the account from the principal cache and go straight to the write
     @Override
     public void userDebit(String userId, double amount, String description) throws BankAccountNotFoundException, BalanceNotSufficientException, CustomerNotFoundException {
-        String accountId = getPrimaryAccountId(userId);
-        debit(accountId, amount, description, userId);
+        PrincipalResolver.ResolvedPrincipal principal = resolveCustomer(userId, "user");
+        debit(primaryAccountId(principal, "user"), amount, description, principal.userId());
     }
 
     @Override
     public void userCredit(String userId, double amount, String description) throws BankAccountNotFoundException, CustomerNotFoundException {
-        String accountId = getPrimaryAccountId(userId);
-        credit(accountId, amount, description, userId);
+        PrincipalResolver.ResolvedPrincipal principal = resolveCustomer(userId, "user");
+        credit(primaryAccountId(principal, "user"), amount, description, principal.userId());
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void userTransfer(String userId, String recipientIdentifier, double amount) throws BankAccountNotFoundException, BalanceNotSufficientException, CustomerNotFoundException {
-        String sourceAccountId = getPrimaryAccountId(userId);
-        String destinationAccountId = getAccountIdByIdentifier(recipientIdentifier);
-        transfer(sourceAccountId, destinationAccountId, amount, userId);
+        PrincipalResolver.ResolvedPrincipal principal = resolveCustomer(userId, "user");
+        String sourceAccountId = primaryAccountId(principal, "user");
+        String destinationAccountId = primaryAccountId(resolveCustomer(recipientIdentifier, "recipient"), "recipient");
+        transfer(sourceAccountId, destinationAccountId, amount, principal.userId());
     }
 
-    private String getPrimaryAccountId(String userId) throws CustomerNotFoundException, BankAccountNotFoundException {
-        User user = userRepository.findByUsername(userId)
-                .orElseThrow(() -> new CustomerNotFoundException("User not found: " + userId));
-        Customer customer = customerRepository.findByEmail(user.getEmail())
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found for user: " + userId));
-        List<BankAccount> accounts = bankAccountRepository.findByCustomerId(customer.getId());
-        if (accounts.isEmpty()) {
-            throw new BankAccountNotFoundException("No accounts found for user: " + userId);
+    protected Long performedBy(String userId) {
+        return principalResolver.find(userId)
+                .orElseThrow(() -> new IllegalStateException("User not found: " + userId))
+                .userId();
+    }
+
+    private PrincipalResolver.ResolvedPrincipal resolveCustomer(String username, String role) throws CustomerNotFoundException {
+        PrincipalResolver.ResolvedPrincipal principal = principalResolver.find(username)
+                .orElseThrow(() -> new CustomerNotFoundException(("user".equals(role) ? "User" : "Recipient") + " not found: " + username));
+        if (principal.customerId() == null) {
+            throw new CustomerNotFoundException("Customer not found for " + role + ": " + username);
         }
-        return accounts.get(0).getId(); // Use the first account as the primary account
+        return principal;
     }
 
-    private String getAccountIdByIdentifier(String identifier) throws CustomerNotFoundException, BankAccountNotFoundException {
-        User recipientUser = userRepository.findByUsername(identifier)
-                .orElseThrow(() -> new CustomerNotFoundException("Recipient not found: " + identifier));
-        Customer recipient = customerRepository.findByEmail(recipientUser.getEmail())
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found for recipient: " + identifier));
-        List<BankAccount> accounts = bankAccountRepository.findByCustomerId(recipient.getId());
-        if (accounts.isEmpty()) {
-            throw new BankAccountNotFoundException("No accounts found for recipient: " + identifier);
+    private String primaryAccountId(PrincipalResolver.ResolvedPrincipal principal, String role) throws BankAccountNotFoundException {
+        if (principal.primaryAccountId() == null) {
+            throw new BankAccountNotFoundException("No accounts found for " + role + ": " + principal.username());
         }
-        return accounts.get(0).getId(); // Use the first account as the recipient's account
+        return principal.primaryAccountId();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BankAccountDTO> bankAccountList() {
-        return bankAccountRepository.findAll().stream()
-                .map(bankAccount -> {
-                    if (bankAccount instanceof SavingAccount) {
-                        return dtoMapper.fromSavingBankAccount((SavingAccount) bankAccount);
-                    } else {
-                        return dtoMapper.fromCurrentBankAccount((CurrentAccount) bankAccount);
-                    }
-                })
+        return bankAccountRepository.findRows(Pageable.unpaged()).stream()
+                .map(dtoMapper::fromBankAccountRow)
                 .collect(Collectors.toList());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<BankAccountDTO> bankAccountList(Pageable pageable) {
-        return bankAccountRepository.findAll(pageable).map(bankAccount -> {
-            if (bankAccount instanceof SavingAccount) {
-                return dtoMapper.fromSavingBankAccount((SavingAccount) bankAccount);
-            } else {
-                return dtoMapper.fromCurrentBankAccount((CurrentAccount) bankAccount);
-            }
-        });
+        return bankAccountRepository.findRows(pageable).map(dtoMapper::fromBankAccountRow);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CustomerDTO getCustomer(Long customerId) throws CustomerNotFoundException {
         Customer customer = customerRepository.findById(customerId)
                 .orElseThrow(() -> new CustomerNotFoundException("Customer Not found"));
@@ -249,6 +282,7 @@ public class BankServiceImpl implements BankAccountsService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Customer> findCustomerById(Long customerId) {
         return customerRepository.findById(customerId);
     }
@@ -258,29 +292,52 @@ public class BankServiceImpl implements BankAccountsService {
         log.info("Updating Customer {}", customerDTO);
         Customer customer = customerRepository.findById(customerDTO.getId())
                 .orElseThrow(() -> new RuntimeException("Customer not found"));
+        if (!Objects.equals(customer.getEmail(), customerDTO.getEmail())) {
+            if (customerRepository.existsByEmailAndIdNot(customerDTO.getEmail(), customer.getId())) {
+                throw new IllegalArgumentException("A customer with email " + customerDTO.getEmail() + " already exists");
+            }
+            principalResolver.invalidateCustomer(customer.getId());
+            principalResolver.invalidateEmail(customerDTO.getEmail());
+        }
         customer.setName(customerDTO.getName());
         customer.setEmail(customerDTO.getEmail());
         User user = userRepository.findByUsername(customerDTO.getUpdatedBy())
                 .orElseThrow(() -> new CustomerNotFoundException("User not found for update: " + customerDTO.getUpdatedBy()));
         customer.setUpdatedBy(user);
         Customer updatedCustomer = customerRepository.save(customer);
+        customerSearchIndex.customerSaved(updatedCustomer.getId(), updatedCustomer.getName(), updatedCustomer.getEmail());
         return dtoMapper.fromCustomer(updatedCustomer);
     }
 
     @Override
     public void deleteCustomer(Long customerId) {
         customerRepository.deleteById(customerId);
+        customerSummaryService.customerDeleted(customerId);
+        principalResolver.invalidateCustomer(customerId);
+        customerSearchIndex.customerDeleted(customerId);
     }
 
     @Override
-    public List<CustomerDTO> searchCustomers(String keyword) {
-        List<Customer> customers = customerRepository.findByNameContains(keyword);
-        return customers.stream()
-                .map(dtoMapper::fromCustomer)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public Page<CustomerDTO> searchCustomers(String keyword, Pageable pageable) {
+        String query = keyword == null ? "" : keyword.trim();
+        if (!customerSearchIndex.isReady()) {
+            return customerRepository.searchDTOs("%" + query.toLowerCase() + "%", pageable);
+        }
+        // Ranked ids from the index, then only that page of rows by primary key
+        Page<Long> ids = customerSearchIndex.search(query, pageable);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+        }
+        Map<Long, CustomerDTO> byId = customerRepository.findDTOsByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(CustomerDTO::getId, Function.identity()));
+        // A customer deleted since the search is left out
+        return new PageImpl<>(ids.getContent().stream().map(byId::get).filter(Objects::nonNull).toList(),
+                pageable, ids.getTotalElements());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AccountOperationDTO> accountHistory(String accountId) {
         List<AccountOperation> accountOperations = accountOperationRepository.findByBankAccountId(accountId);
         return accountOperations.stream()
@@ -289,10 +346,11 @@ public class BankServiceImpl implements BankAccountsService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public AccountHistoryDTO getAccountHistory(String accountId, int page, int size) throws BankAccountNotFoundException {
         BankAccount bankAccount = bankAccountRepository.findById(accountId)
                 .orElseThrow(() -> new BankAccountNotFoundException("BankAccount not found"));
-        Page<AccountOperation> accountOperations = accountOperationRepository.findByBankAccountId(accountId, PageRequest.of(page, size));
+        Page<AccountOperation> accountOperations = accountOperationRepository.findByBankAccountIdOrderByOperationDateDesc(accountId, PageRequest.of(page, size));
         AccountHistoryDTO accountHistoryDTO = new AccountHistoryDTO();
         List<AccountOperationDTO> accountOperationDTOList = accountOperations.getContent().stream()
                 .map(dtoMapper::fromAccountOperation)
@@ -307,31 +365,79 @@ public class BankServiceImpl implements BankAccountsService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public OperationSliceDTO scrollAccountHistory(String accountId, String cursor, int size) throws BankAccountNotFoundException {
+        checkScrollSize(size);
+        if (!bankAccountRepository.existsById(accountId)) {
+            throw new BankAccountNotFoundException("BankAccount not found");
+        }
+        // One extra row tells us whether another page exists without a COUNT query
+        Limit limit = Limit.of(size + 1);
+        List<AccountOperation> operations;
+        if (cursor == null || cursor.isBlank()) {
+            operations = accountOperationRepository.findLatestByAccount(accountId, limit);
+        } else {
+            OperationCursor position = OperationCursor.decode(cursor);
+            operations = accountOperationRepository.findByAccountBefore(accountId, position.operationDate(), position.id(), limit);
+        }
+        return toSlice(operations, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OperationSliceDTO scrollUserOperations(String userId, String cursor, int size) throws CustomerNotFoundException {
+        checkScrollSize(size);
+        return scrollOperations(userAccountIds(userId), cursor, size);
+    }
+
+    private OperationSliceDTO scrollOperations(List<String> accountIds, String cursor, int size) {
+        if (accountIds.isEmpty()) {
+            return toSlice(List.of(), size);
+        }
+        Limit limit = Limit.of(size + 1);
+        List<AccountOperation> operations;
+        if (cursor == null || cursor.isBlank()) {
+            operations = accountOperationRepository.findLatestByAccounts(accountIds, limit);
+        } else {
+            OperationCursor position = OperationCursor.decode(cursor);
+            operations = accountOperationRepository.findByAccountsBefore(accountIds, position.operationDate(), position.id(), limit);
+        }
+        return toSlice(operations, size);
+    }
+
+    // Rejected up front: the controllers answer IllegalArgumentException with 400
+    private static void checkScrollSize(int size) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+    }
+
+    private OperationSliceDTO toSlice(List<AccountOperation> operations, int size) {
+        boolean hasMore = operations.size() > size;
+        List<AccountOperation> page = hasMore ? operations.subList(0, size) : operations;
+        OperationSliceDTO slice = new OperationSliceDTO();
+        slice.setOperations(page.stream().map(dtoMapper::fromAccountOperation).collect(Collectors.toList()));
+        slice.setSize(size);
+        slice.setHasMore(hasMore);
+        slice.setNextCursor(hasMore ? OperationCursor.after(page.get(page.size() - 1)).encode() : null);
+        return slice;
+    }
+
+    private List<String> userAccountIds(String userId) throws CustomerNotFoundException {
+        return bankAccountRepository.findIdsByCustomerId(resolveCustomer(userId, "user").customerId());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Page<BankAccountDTO> searchBankAccounts(String keyword, Pageable pageable) {
-        Page<BankAccount> bankAccounts = bankAccountRepository.findByCustomerNameContains(keyword, pageable);
-        return bankAccounts.map(bankAccount -> {
-            if (bankAccount instanceof SavingAccount) {
-                return dtoMapper.fromSavingBankAccount((SavingAccount) bankAccount);
-            } else {
-                return dtoMapper.fromCurrentBankAccount((CurrentAccount) bankAccount);
-            }
-        });
+        return bankAccountRepository.findRowsByCustomerNameContains(keyword, pageable).map(dtoMapper::fromBankAccountRow);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BankAccountDTO> getUserAccounts(String userId) throws CustomerNotFoundException {
-        User user = userRepository.findByUsername(userId)
-                .orElseThrow(() -> new CustomerNotFoundException("User not found: " + userId));
-        Customer customer = customerRepository.findByEmail(user.getEmail())
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found for user: " + userId));
-        return bankAccountRepository.findByCustomerId(customer.getId()).stream()
-                .map(bankAccount -> {
-                    if (bankAccount instanceof SavingAccount) {
-                        return dtoMapper.fromSavingBankAccount((SavingAccount) bankAccount);
-                    } else {
-                        return dtoMapper.fromCurrentBankAccount((CurrentAccount) bankAccount);
-                    }
-                })
+        return bankAccountRepository.findByCustomerId(resolveCustomer(userId, "user").customerId()).stream()
+                .map(dtoMapper::fromBankAccount)
                 .collect(Collectors.toList());
     }
 
@@ -340,6 +446,10 @@ public class BankServiceImpl implements BankAccountsService {
         BankAccount bankAccount = bankAccountRepository.findById(accountId)
                 .orElseThrow(() -> new BankAccountNotFoundException("BankAccount not found"));
         bankAccountRepository.delete(bankAccount);
+        customerSummaryService.record(bankAccount, CustomerSummaryService.Activity.accountClosed(bankAccount.getBalance()), new Date());
+        if (bankAccount.getCustomer() != null) {
+            principalResolver.invalidateCustomer(bankAccount.getCustomer().getId());
+        }
     }
 
     @Override
@@ -348,13 +458,13 @@ public class BankServiceImpl implements BankAccountsService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<TransactionHistoryDTO> getTransactionHistory(String userId, Pageable pageable) throws CustomerNotFoundException {
         User user = userRepository.findByUsername(userId)
                 .orElseThrow(() -> new CustomerNotFoundException("User not found: " + userId));
         Customer customer = customerRepository.findByEmail(user.getEmail())
                 .orElseThrow(() -> new CustomerNotFoundException("Customer not found for user: " + userId));
-        List<BankAccount> accounts = bankAccountRepository.findByCustomerId(customer.getId());
-        List<String> accountIds = accounts.stream().map(BankAccount::getId).collect(Collectors.toList());
+        List<String> accountIds = bankAccountRepository.findIdsByCustomerId(customer.getId());
         Page<AccountOperation> operations = accountOperationRepository.findByBankAccountIdIn(accountIds, pageable);
         return operations.getContent().stream()
                 .map(op -> {
@@ -369,37 +479,74 @@ public class BankServiceImpl implements BankAccountsService {
                 })
                 .collect(Collectors.toList());
     }
+    // The summary and the page of transactions are read in parallel; see DashboardFanOut
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public DashboardDTO getDashboardData(String userId, Pageable pageable) throws CustomerNotFoundException {
         DashboardDTO dashboard = new DashboardDTO();
+        Long customerId = resolveCustomer(userId, "user").customerId();
+
+        DashboardFanOut.Call call = dashboardFanOut.start();
+        Future<CustomerSummary> summaryPart = call.submit(() -> customerSummaryService.summaryOf(customerId));
+        Future<Slice<AccountOperationDTO>> transactionsPart = call.submit(() -> {
+            List<String> accountIds = bankAccountRepository.findIdsByCustomerId(customerId);
+            Slice<AccountOperation> transactionPage = accountIds.isEmpty() ?
+                    new SliceImpl<>(List.of(), pageable, false) :
+                    accountOperationRepository.findSliceByBankAccountIdInOrderByOperationDateDescIdDesc(accountIds, pageable);
+            return transactionPage.map(dtoMapper::fromAccountOperation);
+        });
 
-        // Fetch the user and corresponding customer
-        User user = userRepository.findByUsername(userId)
-                .orElseThrow(() -> new CustomerNotFoundException("User not found: " + userId));
-        Customer customer = customerRepository.findByEmail(user.getEmail())
-                .orElseThrow(() -> new CustomerNotFoundException("Customer not found for user: " + userId));
+        CustomerSummary summary = call.await("summary", summaryPart);
+        if (summary != null) {
+            fillSummary(dashboard, summary);
+            dashboard.setTotalTransactions(summary.getOperationCount());
+            dashboard.setTotalPages((int) ((summary.getOperationCount() + pageable.getPageSize() - 1) / pageable.getPageSize()));
+        }
+        Slice<AccountOperationDTO> transactionPage = call.await("transactions", transactionsPart);
+        dashboard.setRecentTransactions(transactionPage != null ? transactionPage.getContent() : List.of());
+        dashboard.setCurrentPage(pageable.getPageNumber());
+        dashboard.setPageSize(pageable.getPageSize());
+        markPartial(dashboard, call);
+        return dashboard;
+    }
 
-        // Summary data for the specific user
-        List<BankAccount> userAccounts = bankAccountRepository.findByCustomerId(customer.getId());
-        dashboard.setTotalAccounts(userAccounts.size());
-        dashboard.setTotalBalance(userAccounts.stream()
-                .mapToDouble(BankAccount::getBalance)
-                .sum());
+    private void fillSummary(DashboardDTO dashboard, CustomerSummary summary) {
+        dashboard.setTotalAccounts(summary.getAccountCount());
+        dashboard.setTotalBalance(summary.getTotalBalance());
+        dashboard.setLastActivity(summary.getLastActivity());
         dashboard.setTotalCustomers(1); // For a user-specific dashboard, this is always 1 (themselves)
+    }
 
-        // Paginated recent transactions for the user's accounts
-        List<String> accountIds = userAccounts.stream().map(BankAccount::getId).collect(Collectors.toList());
-        Page<AccountOperation> transactionPage = accountIds.isEmpty() ?
-                Page.empty(pageable) :
-                accountOperationRepository.findByBankAccountIdIn(accountIds, pageable);
-        dashboard.setRecentTransactions(transactionPage.getContent().stream()
-                .map(dtoMapper::fromAccountOperation)
-                .collect(Collectors.toList()));
-        dashboard.setCurrentPage(transactionPage.getNumber());
-        dashboard.setPageSize(transactionPage.getSize());
-        dashboard.setTotalTransactions(transactionPage.getTotalElements());
-        dashboard.setTotalPages(transactionPage.getTotalPages());
+    private static void markPartial(DashboardDTO dashboard, DashboardFanOut.Call call) {
+        dashboard.setPartial(call.isPartial());
+        dashboard.setTimedOut(call.timedOut());
+    }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DashboardDTO getDashboardData(String userId, String cursor, int size) throws CustomerNotFoundException {
+        checkScrollSize(size);
+        DashboardDTO dashboard = new DashboardDTO();
+        Long customerId = resolveCustomer(userId, "user").customerId();
+
+        DashboardFanOut.Call call = dashboardFanOut.start();
+        Future<CustomerSummary> summaryPart = call.submit(() -> customerSummaryService.summaryOf(customerId));
+        // Keyset page of recent transactions: no page number or totals, just the cursor for the next page
+        Future<OperationSliceDTO> transactionsPart = call.submit(() ->
+                scrollOperations(bankAccountRepository.findIdsByCustomerId(customerId), cursor, size));
+
+        CustomerSummary summary = call.await("summary", summaryPart);
+        if (summary != null) {
+            fillSummary(dashboard, summary);
+        }
+        OperationSliceDTO slice = call.await("transactions", transactionsPart);
+        dashboard.setRecentTransactions(slice != null ? slice.getOperations() : List.of());
+        dashboard.setPageSize(size);
+        if (slice != null) {
+            dashboard.setHasMore(slice.isHasMore());
+            dashboard.setNextCursor(slice.getNextCursor());
+        }
+        markPartial(dashboard, call);
         return dashboard;
     }
-}
\ No newline at end of file
+}
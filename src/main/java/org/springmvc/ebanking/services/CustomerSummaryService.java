@@ -0,0 +1,194 @@
+package org.springmvc.ebanking.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.CustomerSummary;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+import org.springmvc.ebanking.repositories.CustomerSummaryRepository;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains one CustomerSummary row per customer. Every write path that creates or deletes
+ * accounts or moves money calls record(...) inside its own transaction, so the totals commit
+ * or roll back together with the balances. Rows missing for older data are built on first use
+ * or all at once with rebuildAll().
+ */
+@Service
+@Slf4j
+public class CustomerSummaryService {
+
+    // Change to one customer's totals
+    public record Activity(int accounts, double balance, long operations) {
+
+        public static Activity operation(double balanceDelta) {
+            return new Activity(0, balanceDelta, 1);
+        }
+
+        public static Activity accountOpened(double balance) {
+            return new Activity(1, balance, 0);
+        }
+
+        public static Activity accountClosed(double balance) {
+            return new Activity(-1, -balance, 0);
+        }
+
+        public Activity plus(Activity other) {
+            return new Activity(accounts + other.accounts, balance + other.balance, operations + other.operations);
+        }
+    }
+
+    private final CustomerSummaryRepository summaryRepository;
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate buildTransaction;
+
+    @Value("${ebanking.summary.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    public CustomerSummaryService(CustomerSummaryRepository summaryRepository, CustomerRepository customerRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.customerRepository = customerRepository;
+        this.buildTransaction = new TransactionTemplate(transactionManager);
+        this.buildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Long customerId, Activity activity, Date when) {
+        if (customerId == null) {
+            return;
+        }
+        if (summaryRepository.applyDelta(customerId, activity.accounts(), activity.balance(), activity.operations(), when) == 0) {
+            createOrApply(customerId, activity, when);
+        }
+    }
+
+    // Accounts without a customer have no summary row, so nothing is recorded for them
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(BankAccount account, Activity activity, Date when) {
+        record(account.getCustomer() != null ? account.getCustomer().getId() : null, activity, when);
+    }
+
+    // Applied in customer id order so two batches touching the same customers cannot deadlock
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Map<Long, Activity> byCustomer, Date when) {
+        Map<Long, Activity> ordered = new TreeMap<>();
+        byCustomer.forEach((customerId, activity) -> {
+            if (customerId != null) {
+                ordered.put(customerId, activity);
+            }
+        });
+        ordered.forEach((customerId, activity) -> record(customerId, activity, when));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordByAccount(Map<String, Activity> byAccount, Date when) {
+        if (byAccount.isEmpty()) {
+            return;
+        }
+        Map<Long, Activity> byCustomer = new HashMap<>();
+        for (Object[] row : summaryRepository.findCustomerIdsByAccountIds(new ArrayList<>(byAccount.keySet()))) {
+            // Accounts without a customer have no summary row
+            if (row[1] == null) {
+                continue;
+            }
+            Activity activity = byAccount.get((String) row[0]);
+            byCustomer.merge((Long) row[1], activity, Activity::plus);
+        }
+        record(byCustomer, when);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void customerDeleted(Long customerId) {
+        summaryRepository.deleteById(customerId);
+    }
+
+    // Single-row read for dashboards; builds the row the first time a customer is seen. Dashboards read in
+    // read-only transactions (possibly on the replica), so the row is then built in a write transaction of its own
+    @Transactional
+    public CustomerSummary summaryOf(Long customerId) {
+        return summaryRepository.findById(customerId).orElseGet(() ->
+                TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                        ? buildTransaction.execute(status -> build(customerId))
+                        : build(customerId));
+    }
+
+    private CustomerSummary build(Long customerId) {
+        createOrApply(customerId, null, new Date());
+        return summaryRepository.findById(customerId).orElseThrow();
+    }
+
+    @Transactional
+    public int rebuildAll() {
+        summaryRepository.deleteAllInBulk();
+        Map<Long, CustomerSummary> summaries = new HashMap<>();
+        Date now = new Date();
+        for (Long customerId : customerRepository.findAllIds()) {
+            summaries.put(customerId, new CustomerSummary(customerId, 0, 0, 0, null, now));
+        }
+        for (Object[] row : summaryRepository.aggregateAllAccounts()) {
+            CustomerSummary summary = summaries.get((Long) row[0]);
+            summary.setAccountCount(((Number) row[1]).intValue());
+            summary.setTotalBalance(((Number) row[2]).doubleValue());
+        }
+        for (Object[] row : summaryRepository.aggregateAllOperations()) {
+            CustomerSummary summary = summaries.get((Long) row[0]);
+            summary.setOperationCount(((Number) row[1]).longValue());
+            summary.setLastActivity((Date) row[2]);
+        }
+        summaryRepository.saveAll(summaries.values());
+        log.info("Rebuilt {} customer summaries", summaries.size());
+        return summaries.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            rebuildAll();
+        }
+    }
+
+    /**
+     * The row does not exist yet: lock the customer so only one transaction builds it, then
+     * aggregate from the tables. The aggregate already includes this transaction's own flushed
+     * changes, so the activity is only applied if another transaction created the row first.
+     */
+    private void createOrApply(Long customerId, Activity activity, Date when) {
+        if (customerRepository.findByIdForUpdate(customerId).isEmpty()) {
+            return;
+        }
+        if (summaryRepository.findByIdForUpdate(customerId).isPresent()) {
+            if (activity != null) {
+                summaryRepository.applyDelta(customerId, activity.accounts(), activity.balance(), activity.operations(), when);
+            }
+            return;
+        }
+        CustomerSummary summary = new CustomerSummary(customerId, 0, 0, 0, null, when);
+        List<Object[]> accounts = summaryRepository.aggregateAccounts(customerId);
+        if (!accounts.isEmpty()) {
+            summary.setAccountCount(((Number) accounts.get(0)[1]).intValue());
+            summary.setTotalBalance(((Number) accounts.get(0)[2]).doubleValue());
+        }
+        List<Object[]> operations = summaryRepository.aggregateOperations(customerId);
+        if (!operations.isEmpty()) {
+            summary.setOperationCount(((Number) operations.get(0)[1]).longValue());
+            summary.setLastActivity((Date) operations.get(0)[2]);
+        }
+        summaryRepository.saveAndFlush(summary);
+    }
+}
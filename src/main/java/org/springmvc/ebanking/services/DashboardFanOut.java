@@ -0,0 +1,148 @@
+package org.springmvc.ebanking.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent parts of a dashboard (summary, recent transactions) at the same time, each in
+ * a read-only transaction of its own, so a dashboard takes about as long as its slowest query instead
+ * of the sum. Every call has a deadline: a part that is not done by then is cancelled and reported
+ * as timed out, and the dashboard is returned without it. The pool and its queue are bounded; when
+ * both are full the request thread runs the part itself, which is the sequential dashboard again.
+ */
+@Component
+@Slf4j
+public class DashboardFanOut {
+
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final PlatformTransactionManager transactionManager;
+    private final Duration deadline;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder partialCalls = new LongAdder();
+    private final Map<String, LongAdder> timeoutsByPart = new ConcurrentHashMap<>();
+
+    public DashboardFanOut(PlatformTransactionManager transactionManager,
+                           @Value("${ebanking.dashboard.parallelism:16}") int parallelism,
+                           @Value("${ebanking.dashboard.queue-capacity:64}") int queueCapacity,
+                           @Value("${ebanking.dashboard.deadline:800ms}") Duration deadline) {
+        this.transactionManager = transactionManager;
+        this.deadline = deadline;
+        this.pool = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("dashboard-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+        // The parts run as the requesting user, so read-your-writes routing still applies to them
+        this.executor = new DelegatingSecurityContextExecutorService(pool);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    public Call start() {
+        calls.increment();
+        return new Call(System.nanoTime() + deadline.toNanos());
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("deadline", deadline.toString());
+        stats.put("calls", calls.sum());
+        stats.put("partialCalls", partialCalls.sum());
+        Map<String, Long> timeouts = new LinkedHashMap<>();
+        timeoutsByPart.forEach((part, count) -> timeouts.put(part, count.sum()));
+        stats.put("timeouts", timeouts);
+        stats.put("activeThreads", pool.getActiveCount());
+        stats.put("queued", pool.getQueue().size());
+        return stats;
+    }
+
+    // One dashboard request: parts submitted to it share its deadline
+    public final class Call {
+
+        private final long deadlineNanos;
+        private final List<String> timedOut = new ArrayList<>();
+
+        private Call(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public <T> Future<T> submit(Supplier<T> part) {
+            return executor.submit(() -> {
+                TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+                transaction.setReadOnly(true);
+                transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                // Queries are cancelled by the driver too, in case interrupting the thread does not reach them
+                transaction.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos() + 999_999_999)));
+                return transaction.execute(status -> part.get());
+            });
+        }
+
+        // The part's result, or null when it missed the deadline; failures of the part are rethrown
+        public <T> T await(String name, Future<T> part) {
+            try {
+                return part.get(Math.max(0, remainingNanos()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                part.cancel(true);
+                timedOut(name);
+                return null;
+            } catch (InterruptedException e) {
+                part.cancel(true);
+                Thread.currentThread().interrupt();
+                timedOut(name);
+                return null;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        public boolean isPartial() {
+            return !timedOut.isEmpty();
+        }
+
+        public List<String> timedOut() {
+            return List.copyOf(timedOut);
+        }
+
+        private void timedOut(String name) {
+            if (timedOut.isEmpty()) {
+                partialCalls.increment();
+            }
+            timedOut.add(name);
+            timeoutsByPart.computeIfAbsent(name, key -> new LongAdder()).increment();
+            log.warn("Dashboard part '{}' missed its {} deadline", name, deadline);
+        }
+
+        private long remainingNanos() {
+            return deadlineNanos - System.nanoTime();
+        }
+    }
+}
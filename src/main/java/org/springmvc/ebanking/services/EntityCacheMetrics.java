@@ -0,0 +1,52 @@
+package org.springmvc.ebanking.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Second-level cache hit ratios per region, next to the statement count they are meant to bring down
+@Component
+public class EntityCacheMetrics {
+
+    private final Statistics statistics;
+
+    public EntityCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> regions = new TreeMap<>();
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.put(name, counts(region.getHitCount(), region.getMissCount(), region.getPutCount()));
+            }
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("since", statistics.getStart());
+        snapshot.put("statementsPrepared", statistics.getPrepareStatementCount());
+        snapshot.put("entities", counts(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount()));
+        snapshot.put("naturalIds", counts(statistics.getNaturalIdCacheHitCount(), statistics.getNaturalIdCacheMissCount(),
+                statistics.getNaturalIdCachePutCount()));
+        snapshot.put("queries", counts(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount()));
+        snapshot.put("regions", regions);
+        return snapshot;
+    }
+
+    private static Map<String, Object> counts(long hits, long misses, long puts) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+        counts.put("hitRatio", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        return counts;
+    }
+}
@@ -0,0 +1,29 @@
+package org.springmvc.ebanking.services;
+
+import org.springmvc.ebanking.entities.AccountOperation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+// Opaque position in an operation list ordered by (operationDate DESC, id DESC): the last row the client has seen
+public record OperationCursor(Date operationDate, long id) {
+
+    public static OperationCursor after(AccountOperation operation) {
+        return new OperationCursor(operation.getOperationDate(), operation.getId());
+    }
+
+    public static OperationCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            return new OperationCursor(new Date(Long.parseLong(parts[0])), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        String raw = operationDate.getTime() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,162 @@
+package org.springmvc.ebanking.services;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springmvc.ebanking.dtos.OperationExportRow;
+import org.springmvc.ebanking.exceptions.BankAccountNotFoundException;
+import org.springmvc.ebanking.repositories.AccountOperationRepository;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes an account's operations straight from a database cursor to an output stream.
+ * Memory use does not depend on the size of the history: one row is held at a time.
+ */
+@Service
+@Slf4j
+public class OperationExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    // Open range bounds that every database accepts as a DATETIME
+    private static final LocalDate MIN_DAY = LocalDate.of(1970, 1, 1);
+    private static final LocalDate MAX_DAY = LocalDate.of(9999, 12, 30);
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
+    private final AccountOperationRepository accountOperationRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final ObjectMapper objectMapper;
+
+    public OperationExportService(AccountOperationRepository accountOperationRepository,
+                                  BankAccountRepository bankAccountRepository,
+                                  ObjectMapper objectMapper) {
+        this.accountOperationRepository = accountOperationRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Called before the response is committed so a missing account can still become a 404
+    public void checkAccount(String accountId) throws BankAccountNotFoundException {
+        if (!bankAccountRepository.existsById(accountId)) {
+            throw new BankAccountNotFoundException("BankAccount not found");
+        }
+    }
+
+    // from and to are inclusive calendar days in the server time zone; either may be null
+    @Transactional(readOnly = true)
+    public long export(String accountId, LocalDate from, LocalDate to, Format format, boolean gzip, OutputStream out) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+        long rows;
+        try (Stream<OperationExportRow> stream = accountOperationRepository.streamForExport(accountId, startOf(from), endOf(to))) {
+            rows = format == Format.CSV ? writeCsv(stream.iterator(), target) : writeNdjson(stream.iterator(), target);
+        }
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        target.flush();
+        log.info("Exported {} operations of account {} as {}{}", rows, accountId, format, gzip ? " (gzip)" : "");
+        return rows;
+    }
+
+    private long writeNdjson(Iterator<OperationExportRow> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            while (rows.hasNext()) {
+                OperationExportRow row = rows.next();
+                generator.writeStartObject();
+                generator.writeNumberField("id", row.id());
+                generator.writeNumberField("operationDate", row.operationDate().getTime());
+                generator.writeStringField("type", row.type().name());
+                generator.writeNumberField("amount", row.amount());
+                generator.writeStringField("description", row.description());
+                generator.writeStringField("performedBy", row.performedBy());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<OperationExportRow> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("id,operationDate,type,amount,description,performedBy\n");
+        while (rows.hasNext()) {
+            OperationExportRow row = rows.next();
+            writer.write(String.valueOf(row.id()));
+            writer.write(',');
+            writer.write(row.operationDate().toInstant().toString());
+            writer.write(',');
+            writer.write(row.type().name());
+            writer.write(',');
+            writer.write(String.valueOf(row.amount()));
+            writer.write(',');
+            writer.write(csv(row.description()));
+            writer.write(',');
+            writer.write(csv(row.performedBy()));
+            writer.write('\n');
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static Date startOf(LocalDate day) {
+        return Date.from((day != null ? day : MIN_DAY).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static Date endOf(LocalDate day) {
+        return Date.from((day != null ? day : MAX_DAY).plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
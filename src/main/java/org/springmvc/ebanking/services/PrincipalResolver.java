@@ -0,0 +1,115 @@
+package org.springmvc.ebanking.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.UserRepository;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Caches username -> (userId, customerId, primary account id) so user transactions skip the
+ * user, customer-by-email and account lookups. Bounded (Caffeine's W-TinyLFU eviction) with a
+ * TTL as a safety net; writers that change any of the three call an invalidate method, which
+ * evicts immediately and again after commit so a concurrent load cannot re-cache old data.
+ */
+@Component
+@Slf4j
+public class PrincipalResolver {
+
+    public record ResolvedPrincipal(Long userId, String username, String email, Long customerId, String primaryAccountId) {
+    }
+
+    private final UserRepository userRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final Cache<String, ResolvedPrincipal> cache;
+
+    public PrincipalResolver(UserRepository userRepository,
+                             BankAccountRepository bankAccountRepository,
+                             @Value("${ebanking.principal-cache.maximum-size:10000}") long maximumSize,
+                             @Value("${ebanking.principal-cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    // Empty when no such user exists; misses are not cached
+    public Optional<ResolvedPrincipal> find(String username) {
+        if (username == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(username, this::load));
+    }
+
+    public void invalidateUser(String username) {
+        if (username != null) {
+            invalidate(() -> cache.invalidate(username));
+        }
+    }
+
+    // Customer email changed, or one of its accounts was created or deleted
+    public void invalidateCustomer(Long customerId) {
+        if (customerId != null) {
+            invalidate(() -> cache.asMap().values().removeIf(principal -> customerId.equals(principal.customerId())));
+        }
+    }
+
+    // A customer email now points somewhere else: drop whoever is cached under that email
+    public void invalidateEmail(String email) {
+        if (email != null) {
+            invalidate(() -> cache.asMap().values().removeIf(principal -> Objects.equals(email, principal.email())));
+        }
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("size", cache.estimatedSize());
+        snapshot.put("hits", stats.hitCount());
+        snapshot.put("misses", stats.missCount());
+        snapshot.put("hitRate", stats.hitRate());
+        snapshot.put("evictions", stats.evictionCount());
+        return snapshot;
+    }
+
+    private ResolvedPrincipal load(String username) {
+        List<Object[]> rows = userRepository.findPrincipal(username);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        Long customerId = (Long) row[2];
+        String primaryAccountId = customerId == null ? null :
+                bankAccountRepository.findIdsByCustomerIdOrderById(customerId, Limit.of(1)).stream().findFirst().orElse(null);
+        log.debug("Resolved principal {} -> customer {}, account {}", username, customerId, primaryAccountId);
+        return new ResolvedPrincipal((Long) row[0], username, (String) row[1], customerId, primaryAccountId);
+    }
+
+    private void invalidate(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.springmvc.ebanking.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aot.AotDetector;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Milliseconds from JVM start to context refreshed, to ready (runners done) and to the first request served
+@Component
+@Slf4j
+public class StartupMetrics {
+
+    private final long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+    private final boolean lazyInitialization;
+    private volatile long started = -1;
+    private volatile long ready = -1;
+    private volatile long firstRequest = -1;
+    private volatile String firstRequestUrl;
+
+    public StartupMetrics(Environment environment) {
+        this.lazyInitialization = environment.getProperty("spring.main.lazy-initialization", Boolean.class, false);
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void applicationStarted() {
+        started = sinceJvmStart();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void applicationReady() {
+        ready = sinceJvmStart();
+        log.info("Ready {} ms after JVM start (context refreshed after {} ms)", ready, started);
+    }
+
+    @EventListener(ServletRequestHandledEvent.class)
+    public void requestHandled(ServletRequestHandledEvent event) {
+        if (firstRequest >= 0) {
+            return;
+        }
+        synchronized (this) {
+            if (firstRequest < 0) {
+                firstRequestUrl = event.getRequestUrl();
+                firstRequest = sinceJvmStart();
+                log.info("First request ({} {}) served {} ms after JVM start, in {} ms", event.getMethod(), firstRequestUrl,
+                        firstRequest, event.getProcessingTimeMillis());
+            }
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("contextRefreshedMillis", started);
+        snapshot.put("readyMillis", ready);
+        snapshot.put("firstRequestMillis", firstRequest);
+        snapshot.put("firstRequestUrl", firstRequestUrl);
+        snapshot.put("lazyInitialization", lazyInitialization);
+        snapshot.put("aot", AotDetector.useGeneratedArtifacts());
+        snapshot.put("classDataSharing", ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                .anyMatch(argument -> argument.startsWith("-XX:SharedArchiveFile")));
+        return snapshot;
+    }
+
+    private long sinceJvmStart() {
+        return System.currentTimeMillis() - jvmStart;
+    }
+}
@@ -0,0 +1,170 @@
+package org.springmvc.ebanking.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springmvc.ebanking.entities.AccountOperation;
+import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.User;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.exceptions.BalanceNotSufficientException;
+import org.springmvc.ebanking.exceptions.BankAccountNotFoundException;
+import org.springmvc.ebanking.repositories.AccountOperationRepository;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.UserRepository;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Moves money between two accounts in a single transaction.
+ * Both rows are locked with SELECT ... FOR UPDATE in ascending id order so two
+ * opposite transfers can never deadlock; the @Version column on BankAccount catches
+ * writers that did not take the lock, and those conflicts are retried a bounded
+ * number of times in a fresh transaction.
+ */
+@Component
+@Slf4j
+public class TransferEngine {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final AccountOperationRepository accountOperationRepository;
+    private final UserRepository userRepository;
+    private final TransferMetrics metrics;
+    private final CustomerSummaryService customerSummaryService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${ebanking.transfer.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${ebanking.transfer.retry-backoff-ms:10}")
+    private long retryBackoffMs;
+
+    public TransferEngine(BankAccountRepository bankAccountRepository,
+                          AccountOperationRepository accountOperationRepository,
+                          UserRepository userRepository,
+                          TransferMetrics metrics,
+                          CustomerSummaryService customerSummaryService,
+                          PlatformTransactionManager transactionManager) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.accountOperationRepository = accountOperationRepository;
+        this.userRepository = userRepository;
+        this.metrics = metrics;
+        this.customerSummaryService = customerSummaryService;
+        // Each attempt needs its own transaction: a failed flush marks the surrounding one rollback-only
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void transfer(String accountIdSource, String accountIdDestination, double amount, Long performedBy)
+            throws BankAccountNotFoundException, BalanceNotSufficientException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        doTransfer(accountIdSource, accountIdDestination, amount, performedBy));
+                metrics.recordTransfer();
+                return;
+            } catch (TransferFailure failure) {
+                metrics.recordFailure();
+                if (failure.getCause() instanceof BankAccountNotFoundException e) {
+                    throw e;
+                }
+                throw (BalanceNotSufficientException) failure.getCause();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    metrics.recordExhausted();
+                    log.warn("Transfer {} -> {} gave up after {} attempts: {}",
+                            accountIdSource, accountIdDestination, attempt, e.getMessage());
+                    throw e;
+                }
+                metrics.recordRetry();
+                log.debug("Transfer {} -> {} conflicted on attempt {}, retrying",
+                        accountIdSource, accountIdDestination, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void doTransfer(String accountIdSource, String accountIdDestination, double amount, Long performedBy) {
+        User user = userRepository.getReferenceById(performedBy);
+
+        // Lock in id order; a TreeMap also collapses a transfer onto the same account to a single lock
+        Map<String, BankAccount> locked = new TreeMap<>();
+        locked.put(accountIdSource, null);
+        locked.put(accountIdDestination, null);
+        for (String accountId : locked.keySet()) {
+            locked.put(accountId, lock(accountId));
+        }
+        BankAccount source = locked.get(accountIdSource);
+        BankAccount destination = locked.get(accountIdDestination);
+
+        if (source.getBalance() < amount) {
+            throw new TransferFailure(new BalanceNotSufficientException("Balance not sufficient"));
+        }
+        Date now = new Date();
+        accountOperationRepository.save(operation(OperationType.DEBIT, amount,
+                "Transfer to " + accountIdDestination, now, source, user));
+        accountOperationRepository.save(operation(OperationType.CREDIT, amount,
+                "Transfer from " + accountIdSource, now, destination, user));
+        source.setBalance(source.getBalance() - amount);
+        source.setUpdatedBy(user);
+        destination.setBalance(destination.getBalance() + amount);
+        destination.setUpdatedBy(user);
+
+        // Accounts without a customer have no summary; record(Map) skips the null key
+        Map<Long, CustomerSummaryService.Activity> activity = new HashMap<>();
+        activity.merge(customerId(source), CustomerSummaryService.Activity.operation(-amount), CustomerSummaryService.Activity::plus);
+        activity.merge(customerId(destination), CustomerSummaryService.Activity.operation(amount), CustomerSummaryService.Activity::plus);
+        customerSummaryService.record(activity, now);
+    }
+
+    private static Long customerId(BankAccount account) {
+        return account.getCustomer() != null ? account.getCustomer().getId() : null;
+    }
+
+    private BankAccount lock(String accountId) {
+        long start = System.nanoTime();
+        BankAccount bankAccount = bankAccountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new TransferFailure(new BankAccountNotFoundException("BankAccount not found")));
+        metrics.recordLockWait(System.nanoTime() - start);
+        return bankAccount;
+    }
+
+    private AccountOperation operation(OperationType type, double amount, String description, Date date,
+                                       BankAccount bankAccount, User user) {
+        AccountOperation accountOperation = new AccountOperation();
+        accountOperation.setType(type);
+        accountOperation.setAmount(amount);
+        accountOperation.setDescription(description);
+        accountOperation.setOperationDate(date);
+        accountOperation.setBankAccount(bankAccount);
+        accountOperation.setPerformedBy(user);
+        return accountOperation;
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = retryBackoffMs << Math.min(attempt, 6);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(retryBackoffMs, ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying transfer", e);
+        }
+    }
+
+    // Carries the checked business exceptions out of the TransactionTemplate callback (and rolls it back)
+    private static class TransferFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TransferFailure(Exception cause) {
+            super(cause.getMessage(), cause, false, false);
+        }
+    }
+}
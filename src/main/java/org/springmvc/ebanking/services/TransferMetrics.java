@@ -0,0 +1,73 @@
+package org.springmvc.ebanking.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters recorded by the TransferEngine, exposed through the admin metrics endpoint
+@Component
+public class TransferMetrics {
+    private final LongAdder transfers = new LongAdder();
+    private final LongAdder failedTransfers = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhaustedRetries = new LongAdder();
+    private final LongAdder lockAcquisitions = new LongAdder();
+    private final LongAdder lockWaitNanos = new LongAdder();
+    private final LongAccumulator maxLockWaitNanos = new LongAccumulator(Math::max, 0);
+
+    void recordTransfer() {
+        transfers.increment();
+    }
+
+    void recordFailure() {
+        failedTransfers.increment();
+    }
+
+    void recordRetry() {
+        retries.increment();
+    }
+
+    void recordExhausted() {
+        exhaustedRetries.increment();
+    }
+
+    void recordLockWait(long nanos) {
+        lockAcquisitions.increment();
+        lockWaitNanos.add(nanos);
+        maxLockWaitNanos.accumulate(nanos);
+    }
+
+    public long getTransfers() {
+        return transfers.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    public long getExhaustedRetries() {
+        return exhaustedRetries.sum();
+    }
+
+    public long getLockAcquisitions() {
+        return lockAcquisitions.sum();
+    }
+
+    public Map<String, Object> snapshot() {
+        long acquisitions = lockAcquisitions.sum();
+        long waitNanos = lockWaitNanos.sum();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("transfers", transfers.sum());
+        snapshot.put("failedTransfers", failedTransfers.sum());
+        snapshot.put("retries", retries.sum());
+        snapshot.put("exhaustedRetries", exhaustedRetries.sum());
+        snapshot.put("lockAcquisitions", acquisitions);
+        snapshot.put("totalLockWaitMillis", waitNanos / 1_000_000.0);
+        snapshot.put("avgLockWaitMillis", acquisitions == 0 ? 0.0 : waitNanos / 1_000_000.0 / acquisitions);
+        snapshot.put("maxLockWaitMillis", maxLockWaitNanos.get() / 1_000_000.0);
+        return snapshot;
+    }
+}
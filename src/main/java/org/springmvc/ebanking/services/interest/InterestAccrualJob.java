@@ -0,0 +1,263 @@
+package org.springmvc.ebanking.services.interest;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.entities.AccountOperation;
+import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.InterestAccrualCheckpoint;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.repositories.InterestAccrualCheckpointRepository;
+import org.springmvc.ebanking.services.AccountIdRanges;
+import org.springmvc.ebanking.services.CustomerSummaryService;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Credits one day of interest (balance * interestRate % / day-count basis) to every saving account.
+ * Accounts are split into id ranges that run in parallel; each range is walked in id order, one chunk
+ * per transaction: CREDIT operation rows through Hibernate (batched), balances with a JDBC batch
+ * update and the range checkpoint in the same transaction. A run that died part way is resumed by
+ * running the same date again, which skips what its checkpoints already cover.
+ * Not available with the sharded ledger, whose shards own the balances they have cached.
+ */
+@Component
+@ConditionalOnProperty(name = "ebanking.ledger.engine", havingValue = "jdbc", matchIfMissing = true)
+@Slf4j
+public class InterestAccrualJob {
+
+    private static final String CREDIT_BALANCE =
+            "UPDATE bank_account SET balance = balance + ?, updated_at = ?, version = version + 1 WHERE id = ?";
+    private static final String UPDATE_CHECKPOINT =
+            "UPDATE interest_accrual_checkpoint SET last_account_id = ?, accounts_credited = accounts_credited + ?, "
+                    + "interest_credited = interest_credited + ?, completed = ?, updated_at = ? WHERE name = ?";
+
+    public record PartitionReport(int partition, long accounts, long credited, double interest, int chunks,
+                                  long elapsedMillis, double accountsPerSecond) {
+    }
+
+    public record AccrualReport(LocalDate accrualDate, long accounts, long credited, double interest,
+                                long elapsedMillis, double accountsPerSecond, List<PartitionReport> partitions) {
+    }
+
+    private record ChunkResult(int accounts, int credited, double interest, String lastAccountId, boolean completed) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InterestAccrualCheckpointRepository checkpointRepository;
+    private final CustomerSummaryService customerSummaryService;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${ebanking.interest.partitions:16}")
+    private int partitions;
+
+    @Value("${ebanking.interest.parallelism:4}")
+    private int parallelism;
+
+    @Value("${ebanking.interest.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${ebanking.interest.day-count-basis:365}")
+    private int dayCountBasis;
+
+    private volatile AccrualReport lastRun;
+
+    public InterestAccrualJob(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              InterestAccrualCheckpointRepository checkpointRepository,
+                              CustomerSummaryService customerSummaryService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.checkpointRepository = checkpointRepository;
+        this.customerSummaryService = customerSummaryService;
+    }
+
+    // Nightly, for the day that just ended; disabled unless ebanking.interest.cron is set
+    @Scheduled(cron = "${ebanking.interest.cron:-}")
+    public void accruePreviousDay() {
+        accrue(LocalDate.now().minusDays(1));
+    }
+
+    public AccrualReport accrue(LocalDate accrualDate) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("An interest accrual run is already in progress");
+        }
+        try {
+            long start = System.nanoTime();
+            List<InterestAccrualCheckpoint> ranges = rangesFor(accrualDate);
+            List<PartitionReport> reports = runInParallel(accrualDate, ranges);
+
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            long accounts = reports.stream().mapToLong(PartitionReport::accounts).sum();
+            AccrualReport report = new AccrualReport(accrualDate, accounts,
+                    reports.stream().mapToLong(PartitionReport::credited).sum(),
+                    reports.stream().mapToDouble(PartitionReport::interest).sum(),
+                    elapsed, perSecond(accounts, elapsed), reports);
+            lastRun = report;
+            log.info("Interest accrual for {}: {} accounts ({} credited, {} total) in {} ms over {} partitions",
+                    accrualDate, accounts, report.credited(), report.interest(), elapsed, reports.size());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running.get());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    // Every range runs to its end (or failure) before the run reports, so a failed run leaves no work in flight
+    private List<PartitionReport> runInParallel(LocalDate accrualDate, List<InterestAccrualCheckpoint> ranges) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<PartitionReport>> tasks = ranges.stream()
+                    .map(range -> pool.submit(() -> accrueRange(accrualDate, range)))
+                    .toList();
+            List<PartitionReport> reports = new ArrayList<>(tasks.size());
+            RuntimeException failure = null;
+            for (ForkJoinTask<PartitionReport> task : tasks) {
+                try {
+                    reports.add(task.join());
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = new IllegalStateException("Interest accrual for " + accrualDate + " failed; run it again to resume", e);
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return reports;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private PartitionReport accrueRange(LocalDate accrualDate, InterestAccrualCheckpoint range) {
+        long start = System.nanoTime();
+        long accounts = 0;
+        long credited = 0;
+        double interest = 0;
+        int chunks = 0;
+        String after = range.getLastAccountId();
+        boolean completed = range.isCompleted();
+        while (!completed) {
+            String from = after;
+            ChunkResult chunk = transactionTemplate.execute(status -> accrueChunk(accrualDate, range, from));
+            accounts += chunk.accounts();
+            credited += chunk.credited();
+            interest += chunk.interest();
+            chunks++;
+            after = chunk.lastAccountId();
+            completed = chunk.completed();
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new PartitionReport(range.getPartitionIndex(), accounts, credited, interest, chunks, elapsed, perSecond(accounts, elapsed));
+    }
+
+    // Interest is computed on the balance read at the start of the chunk; the update adds it to the current balance
+    private ChunkResult accrueChunk(LocalDate accrualDate, InterestAccrualCheckpoint range, String after) {
+        List<Object[]> rows = entityManager.createQuery(
+                        "SELECT a.id, a.balance, a.interestRate FROM SavingAccount a WHERE a.id > :after AND a.id <= :upper ORDER BY a.id",
+                        Object[].class)
+                .setParameter("after", after)
+                .setParameter("upper", range.getUpperId())
+                .setMaxResults(chunkSize)
+                .getResultList();
+        Date now = new Date();
+        Timestamp updatedAt = new Timestamp(now.getTime());
+        String description = "Interest " + accrualDate;
+        List<Object[]> balances = new ArrayList<>(rows.size());
+        Map<String, CustomerSummaryService.Activity> activity = new HashMap<>();
+        double total = 0;
+        for (Object[] row : rows) {
+            String accountId = (String) row[0];
+            double amount = dailyInterest((Double) row[1], (Double) row[2]);
+            if (amount <= 0) {
+                continue;
+            }
+            AccountOperation operation = new AccountOperation();
+            operation.setType(OperationType.CREDIT);
+            operation.setAmount(amount);
+            operation.setDescription(description);
+            operation.setOperationDate(now);
+            operation.setBankAccount(entityManager.getReference(BankAccount.class, accountId));
+            entityManager.persist(operation);
+            balances.add(new Object[]{amount, updatedAt, AccountIds.toBytes(accountId)});
+            activity.put(accountId, CustomerSummaryService.Activity.operation(amount));
+            total += amount;
+        }
+        entityManager.flush();
+        jdbcTemplate.batchUpdate(CREDIT_BALANCE, balances);
+        customerSummaryService.recordByAccount(activity, now);
+
+        boolean completed = rows.size() < chunkSize;
+        String last = rows.isEmpty() ? after : (String) rows.get(rows.size() - 1)[0];
+        jdbcTemplate.update(UPDATE_CHECKPOINT, AccountIds.toBytes(last), balances.size(), total, completed, updatedAt, range.getName());
+        return new ChunkResult(rows.size(), balances.size(), total, last, completed);
+    }
+
+    double dailyInterest(double balance, double annualRatePercent) {
+        if (balance <= 0 || annualRatePercent <= 0) {
+            return 0;
+        }
+        return BigDecimal.valueOf(balance)
+                .multiply(BigDecimal.valueOf(annualRatePercent))
+                .divide(BigDecimal.valueOf(100L * dayCountBasis), 2, RoundingMode.HALF_EVEN)
+                .doubleValue();
+    }
+
+    // A resumed run keeps the ranges of the first attempt; accounts opened since fall into the last range
+    private List<InterestAccrualCheckpoint> rangesFor(LocalDate accrualDate) {
+        List<InterestAccrualCheckpoint> existing = checkpointRepository.findByAccrualDateOrderByPartitionIndex(accrualDate);
+        if (!existing.isEmpty()) {
+            log.info("Resuming interest accrual for {}: {} of {} partitions left", accrualDate,
+                    existing.stream().filter(range -> !range.isCompleted()).count(), existing.size());
+            return existing;
+        }
+        Date now = new Date();
+        List<InterestAccrualCheckpoint> ranges = AccountIdRanges.split(entityManager, "SavingAccount", partitions).stream()
+                .map(range -> new InterestAccrualCheckpoint(accrualDate + "#" + range.index(), accrualDate, range.index(),
+                        range.lowerId(), range.upperId(), range.lowerId(), 0, 0, false, now))
+                .toList();
+        return checkpointRepository.saveAll(ranges);
+    }
+
+    private static double perSecond(long count, long elapsedMillis) {
+        return elapsedMillis == 0 ? count : count * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,241 @@
+package org.springmvc.ebanking.services.ledger;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springmvc.ebanking.entities.InDoubtTransfer;
+import org.springmvc.ebanking.enums.InDoubtTransferStatus;
+import org.springmvc.ebanking.exceptions.BankAccountNotFoundException;
+import org.springmvc.ebanking.repositories.InDoubtTransferRepository;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Settles sharded transfers whose debit committed but whose credit leg did not get a definite
+ * answer. Reversing the debit while the credit is still queued could pay the amount twice, so
+ * the transfer is written to in_doubt_transfer and settled when the credit's result arrives:
+ * marked credited, or reversed if the credit was rejected. A reversal that fails is recorded
+ * the same way rather than only logged. Results live in memory, so transfers still open after
+ * a restart are settled by an admin (AdminController) once the account history shows the outcome.
+ */
+@Component
+@ConditionalOnProperty(name = "ebanking.ledger.engine", havingValue = "sharded")
+@Slf4j
+public class InDoubtTransfers {
+
+    private static final int MAX_DETAIL_LENGTH = 1000;
+    private static final List<InDoubtTransferStatus> OPEN =
+            List.of(InDoubtTransferStatus.PENDING, InDoubtTransferStatus.REVERSAL_FAILED);
+
+    private final ShardedLedger ledger;
+    private final InDoubtTransferRepository repository;
+    // Results complete on shard threads; a reversal waits for a shard itself, so settling happens here
+    private final ExecutorService settler = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ledger-in-doubt-transfers");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // A lock rather than a monitor: settling waits for the ledger and may run on a request's virtual thread
+    private final ReentrantLock settling = new ReentrantLock();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder credited = new LongAdder();
+    private final LongAdder reversed = new LongAdder();
+    private final LongAdder reversalFailures = new LongAdder();
+
+    public InDoubtTransfers(ShardedLedger ledger, InDoubtTransferRepository repository) {
+        this.ledger = ledger;
+        this.repository = repository;
+    }
+
+    @PreDestroy
+    void stop() {
+        settler.shutdown();
+    }
+
+    // The credit leg was rejected, so it will never apply: give the debit back, recording the transfer if that fails too
+    void reverse(String sourceAccountId, String destinationAccountId, double amount, Long performedBy, Exception cause) {
+        CompletableFuture<Void> reversal = submitReversal(sourceAccountId, destinationAccountId, amount, performedBy);
+        try {
+            ledger.awaitCredit(reversal);
+            reversed.increment();
+        } catch (BankAccountNotFoundException | RuntimeException e) {
+            cause.addSuppressed(e);
+            reversalFailures.increment();
+            InDoubtTransfer transfer = save(transfer(sourceAccountId, destinationAccountId, amount, performedBy),
+                    InDoubtTransferStatus.REVERSAL_FAILED, "Credit leg rejected (" + cause.getMessage()
+                            + "), reversing the debit failed: " + e.getMessage());
+            // A timed-out reversal may still be applied; one that was rejected is left to an admin
+            if (transfer != null && !reversal.isDone()) {
+                settleWhenDone(transfer.getId(), reversal);
+            }
+        }
+    }
+
+    // The credit leg failed without a definite answer and may still be applied: record it and settle it once it is known
+    void record(String sourceAccountId, String destinationAccountId, double amount, Long performedBy,
+                CompletableFuture<Void> credit, Exception cause) {
+        InDoubtTransfer transfer = save(transfer(sourceAccountId, destinationAccountId, amount, performedBy),
+                InDoubtTransferStatus.PENDING, "Credit leg: " + cause.getMessage());
+        if (transfer != null) {
+            settleWhenDone(transfer.getId(), credit);
+        }
+    }
+
+    public List<InDoubtTransfer> open() {
+        return repository.findByStatusInOrderById(OPEN);
+    }
+
+    /**
+     * Settles an open transfer by hand. With reverse, the debit is given back now (the credit leg, or an
+     * earlier reversal, is known not to have been applied); without, the transfer is closed as it stands
+     * (the credit leg, or the earlier reversal, is known to have been applied).
+     */
+    public InDoubtTransfer settle(Long id, boolean reverse) throws BankAccountNotFoundException {
+        settling.lock();
+        try {
+            InDoubtTransfer transfer = repository.findById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("No in-doubt transfer " + id));
+            if (!OPEN.contains(transfer.getStatus())) {
+                throw new IllegalStateException("In-doubt transfer " + id + " is already " + transfer.getStatus());
+            }
+            if (reverse) {
+                ledger.credit(transfer.getSourceAccountId(), transfer.getAmount(),
+                        reversalDescription(transfer.getDestinationAccountId()), transfer.getPerformedBy());
+                reversed.increment();
+                return resolve(transfer, InDoubtTransferStatus.REVERSED, "Reversed by an admin");
+            }
+            boolean wasPending = transfer.getStatus() == InDoubtTransferStatus.PENDING;
+            (wasPending ? credited : reversed).increment();
+            return resolve(transfer, wasPending ? InDoubtTransferStatus.CREDITED : InDoubtTransferStatus.REVERSED,
+                    "Confirmed by an admin");
+        } finally {
+            settling.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("recorded", recorded.sum());
+        stats.put("credited", credited.sum());
+        stats.put("reversed", reversed.sum());
+        stats.put("reversalFailures", reversalFailures.sum());
+        stats.put("pending", repository.countByStatus(InDoubtTransferStatus.PENDING));
+        stats.put("reversalFailed", repository.countByStatus(InDoubtTransferStatus.REVERSAL_FAILED));
+        return stats;
+    }
+
+    private void settleWhenDone(Long id, CompletableFuture<Void> result) {
+        result.whenCompleteAsync((ignored, failure) -> {
+            try {
+                settleAutomatically(id, failure instanceof CompletionException e && e.getCause() != null ? e.getCause() : failure);
+            } catch (RuntimeException e) {
+                log.error("Could not settle in-doubt transfer {}; it stays open: {}", id, e.getMessage(), e);
+            }
+        }, settler);
+    }
+
+    private void settleAutomatically(Long id, Throwable failure) {
+        settling.lock();
+        try {
+            InDoubtTransfer transfer = repository.findById(id).orElse(null);
+            if (transfer == null || !OPEN.contains(transfer.getStatus())) {
+                return;
+            }
+            if (transfer.getStatus() == InDoubtTransferStatus.REVERSAL_FAILED) {
+                if (failure == null) {
+                    reversed.increment();
+                    resolve(transfer, InDoubtTransferStatus.REVERSED, "Delayed reversal applied");
+                } else {
+                    log.error("Reversal of in-doubt transfer {} failed, {} still owed to {}: {}",
+                            id, transfer.getAmount(), transfer.getSourceAccountId(), failure.getMessage());
+                }
+            } else if (failure == null) {
+                credited.increment();
+                resolve(transfer, InDoubtTransferStatus.CREDITED, "Credit leg applied");
+            } else if (failure instanceof BankAccountNotFoundException) {
+                CompletableFuture<Void> reversal = submitReversal(transfer.getSourceAccountId(),
+                        transfer.getDestinationAccountId(), transfer.getAmount(), transfer.getPerformedBy());
+                try {
+                    ledger.awaitCredit(reversal);
+                    reversed.increment();
+                    resolve(transfer, InDoubtTransferStatus.REVERSED, "Credit leg rejected, debit reversed");
+                } catch (BankAccountNotFoundException | RuntimeException e) {
+                    reversalFailures.increment();
+                    log.error("Reversal of in-doubt transfer {} failed, {} still owed to {}: {}",
+                            id, transfer.getAmount(), transfer.getSourceAccountId(), e.getMessage());
+                    transfer.setStatus(InDoubtTransferStatus.REVERSAL_FAILED);
+                    transfer.setDetail(detail("Credit leg rejected, reversing the debit failed: " + e.getMessage()));
+                    repository.save(transfer);
+                    if (!reversal.isDone()) {
+                        settleWhenDone(id, reversal);
+                    }
+                }
+            } else {
+                // Not applied as far as the shard knows, but not a rejection either: leave the call to an admin
+                log.error("Credit leg of in-doubt transfer {} failed without a definite outcome; settle it by hand: {}",
+                        id, failure.getMessage());
+                transfer.setDetail(detail("Credit leg: " + failure.getMessage()));
+                repository.save(transfer);
+            }
+        } finally {
+            settling.unlock();
+        }
+    }
+
+    private CompletableFuture<Void> submitReversal(String sourceAccountId, String destinationAccountId, double amount, Long performedBy) {
+        return ledger.submitCredit(sourceAccountId, amount, reversalDescription(destinationAccountId), performedBy);
+    }
+
+    private static String reversalDescription(String destinationAccountId) {
+        return "Reversal of transfer to " + destinationAccountId;
+    }
+
+    private static InDoubtTransfer transfer(String sourceAccountId, String destinationAccountId, double amount, Long performedBy) {
+        InDoubtTransfer transfer = new InDoubtTransfer();
+        transfer.setSourceAccountId(sourceAccountId);
+        transfer.setDestinationAccountId(destinationAccountId);
+        transfer.setAmount(amount);
+        transfer.setPerformedBy(performedBy);
+        transfer.setCreatedAt(new Date());
+        return transfer;
+    }
+
+    // The log line carries everything needed to settle the transfer by hand if the row cannot be written either
+    private InDoubtTransfer save(InDoubtTransfer transfer, InDoubtTransferStatus status, String detail) {
+        transfer.setStatus(status);
+        transfer.setDetail(detail(detail));
+        log.error("Transfer {} -> {} of {} by user {} is in doubt ({}): {}", transfer.getSourceAccountId(),
+                transfer.getDestinationAccountId(), transfer.getAmount(), transfer.getPerformedBy(), status, detail);
+        try {
+            InDoubtTransfer saved = repository.save(transfer);
+            recorded.increment();
+            return saved;
+        } catch (RuntimeException e) {
+            log.error("Could not record in-doubt transfer {} -> {} of {}: {}", transfer.getSourceAccountId(),
+                    transfer.getDestinationAccountId(), transfer.getAmount(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private InDoubtTransfer resolve(InDoubtTransfer transfer, InDoubtTransferStatus status, String detail) {
+        log.info("In-doubt transfer {} settled as {}: {}", transfer.getId(), status, detail);
+        transfer.setStatus(status);
+        transfer.setDetail(detail(transfer.getDetail() + "; " + detail));
+        transfer.setResolvedAt(new Date());
+        return repository.save(transfer);
+    }
+
+    private static String detail(String detail) {
+        return detail.length() <= MAX_DETAIL_LENGTH ? detail : detail.substring(0, MAX_DETAIL_LENGTH);
+    }
+}
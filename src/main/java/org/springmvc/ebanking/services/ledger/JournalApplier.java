@@ -0,0 +1,268 @@
+package org.springmvc.ebanking.services.ledger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.entities.AccountOperation;
+import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.LedgerJournalCheckpoint;
+import org.springmvc.ebanking.entities.User;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.repositories.LedgerJournalCheckpointRepository;
+import org.springmvc.ebanking.services.CustomerSummaryService;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Copies durable journal entries into account_operation and bank_account in the background.
+ * Operation rows are persisted through Hibernate (batched, ids from the pooled sequence) and
+ * balances with a JDBC batch update; each batch moves the checkpoint in the same
+ * transaction, so replaying the journal after a crash applies every entry exactly once.
+ * A batch that still fails after max-apply-attempts stops the applier: its entries stay in the
+ * journal behind the checkpoint, waiters fail fast and new operations are rejected until the
+ * cause is fixed and the application restarted, which replays them.
+ */
+@Component
+@ConditionalOnExpression(LedgerJournal.ENABLED)
+@Slf4j
+public class JournalApplier implements Runnable {
+
+    static final String CHECKPOINT = "ledger";
+
+    private static final String UPDATE_BALANCE =
+            "UPDATE bank_account SET balance = ?, updated_by = ?, updated_at = ?, version = version + 1 WHERE id = ?";
+    private static final String UPDATE_CHECKPOINT =
+            "UPDATE ledger_journal_checkpoint SET applied_sequence = ?, updated_at = ? WHERE name = ?";
+    private static final long MAX_RETRY_BACKOFF_MS = 5000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final LedgerJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerJournalCheckpointRepository checkpointRepository;
+    private final CustomerSummaryService customerSummaryService;
+    private final BlockingQueue<JournalEntry> pending = new LinkedBlockingQueue<>();
+    // A lock rather than a monitor: request threads wait here, and waiting inside synchronized pins a virtual thread's carrier
+    private final ReentrantLock appliedLock = new ReentrantLock();
+    private final Condition applied = appliedLock.newCondition();
+
+    private final LongAdder failedAttempts = new LongAdder();
+
+    @Value("${ebanking.ledger.journal.apply-batch-size:1000}")
+    private int applyBatchSize;
+
+    @Value("${ebanking.ledger.journal.max-apply-attempts:10}")
+    private int maxApplyAttempts;
+
+    private volatile long appliedSequence;
+    private volatile RuntimeException failure;
+    private volatile boolean running;
+    private Thread worker;
+
+    public JournalApplier(LedgerJournal journal,
+                          JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          LedgerJournalCheckpointRepository checkpointRepository,
+                          CustomerSummaryService customerSummaryService) {
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.checkpointRepository = checkpointRepository;
+        this.customerSummaryService = customerSummaryService;
+    }
+
+    @PostConstruct
+    void start() {
+        appliedSequence = checkpointRepository.findById(CHECKPOINT)
+                .orElseGet(() -> checkpointRepository.save(new LedgerJournalCheckpoint(CHECKPOINT, 0, new Date())))
+                .getAppliedSequence();
+
+        // Replay synchronously so balances are current before the ledger loads them
+        List<JournalEntry> replay = journal.recoveredEntries().stream()
+                .filter(entry -> entry.sequence() > appliedSequence)
+                .toList();
+        for (int from = 0; from < replay.size(); from += applyBatchSize) {
+            applyBatch(replay.subList(from, Math.min(from + applyBatchSize, replay.size())));
+        }
+        if (!replay.isEmpty()) {
+            log.info("Replayed {} journal entries up to sequence {}", replay.size(), appliedSequence);
+        }
+        journal.release(appliedSequence);
+
+        journal.onDurable(pending::addAll);
+        running = true;
+        worker = new Thread(this, "ledger-journal-applier");
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        worker.join();
+    }
+
+    @Override
+    public void run() {
+        List<JournalEntry> batch = new ArrayList<>(applyBatchSize);
+        while ((running || !pending.isEmpty()) && failure == null) {
+            try {
+                JournalEntry first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, applyBatchSize - 1);
+                applyWithRetry(batch);
+                journal.release(appliedSequence);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    public long appliedSequence() {
+        return appliedSequence;
+    }
+
+    public boolean isHealthy() {
+        return failure == null;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        RuntimeException error = failure;
+        stats.put("appliedSequence", appliedSequence);
+        stats.put("healthy", error == null);
+        stats.put("pending", pending.size());
+        stats.put("failedAttempts", failedAttempts.sum());
+        stats.put("failure", error != null ? String.valueOf(error.getMessage()) : null);
+        return stats;
+    }
+
+    // New operations would only pile up behind the batch the applier stopped at
+    void checkHealthy() {
+        RuntimeException error = failure;
+        if (error != null) {
+            throw new IllegalStateException("Journal applier stopped at sequence " + appliedSequence + ": " + error.getMessage(), error);
+        }
+    }
+
+    // Blocks until everything durable at call time is visible in the database
+    void awaitApplied(long sequence, long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        appliedLock.lock();
+        try {
+            while (appliedSequence < sequence) {
+                checkHealthy();
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new IllegalStateException("Journal applier is behind: applied " + appliedSequence + ", waiting for " + sequence);
+                }
+                try {
+                    applied.await(remaining, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the journal applier", e);
+                }
+            }
+        } finally {
+            appliedLock.unlock();
+        }
+    }
+
+    private void applyWithRetry(List<JournalEntry> batch) throws InterruptedException {
+        long backoff = 50;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                applyBatch(batch);
+                return;
+            } catch (RuntimeException e) {
+                failedAttempts.increment();
+                if (attempt >= maxApplyAttempts) {
+                    stopAt(batch, e);
+                    return;
+                }
+                // Entries are durable in the journal, so retry a transient failure rather than dropping them
+                log.error("Applying {} journal entries failed, retrying in {} ms: {}", batch.size(), backoff, e.getMessage());
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_MS);
+            }
+        }
+    }
+
+    // Nothing is dropped: the checkpoint stays before the batch, so a restart replays it once the cause is fixed
+    private void stopAt(List<JournalEntry> batch, RuntimeException e) {
+        log.error("Applying journal entries {}..{} failed {} times, stopping the journal applier at sequence {}",
+                batch.get(0).sequence(), batch.get(batch.size() - 1).sequence(), maxApplyAttempts, appliedSequence, e);
+        appliedLock.lock();
+        try {
+            failure = e;
+            applied.signalAll();
+        } finally {
+            appliedLock.unlock();
+        }
+    }
+
+    private void applyBatch(List<JournalEntry> batch) {
+        long last = batch.get(batch.size() - 1).sequence();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        transactionTemplate.executeWithoutResult(status -> {
+            Map<String, JournalEntry> latest = new LinkedHashMap<>();
+            Map<String, CustomerSummaryService.Activity> activity = new HashMap<>();
+            long lastOperation = 0;
+            for (JournalEntry entry : batch) {
+                AccountOperation accountOperation = new AccountOperation();
+                accountOperation.setType(entry.type());
+                accountOperation.setAmount(entry.amount());
+                accountOperation.setDescription(entry.description());
+                accountOperation.setOperationDate(new Date(entry.operationDate()));
+                accountOperation.setBankAccount(entityManager.getReference(BankAccount.class, entry.accountId()));
+                accountOperation.setPerformedBy(entry.userId() != null ? entityManager.getReference(User.class, entry.userId()) : null);
+                entityManager.persist(accountOperation);
+                latest.put(entry.accountId(), entry);
+                activity.merge(entry.accountId(), CustomerSummaryService.Activity.operation(
+                        entry.type() == OperationType.DEBIT ? -entry.amount() : entry.amount()), CustomerSummaryService.Activity::plus);
+                lastOperation = Math.max(lastOperation, entry.operationDate());
+            }
+            entityManager.flush();
+            List<Object[]> balances = new ArrayList<>(latest.size());
+            latest.values().forEach(entry -> balances.add(new Object[]{entry.balanceAfter(), entry.userId(), now, AccountIds.toBytes(entry.accountId())}));
+            jdbcTemplate.batchUpdate(UPDATE_BALANCE, balances);
+            customerSummaryService.recordByAccount(activity, new Date(lastOperation));
+            jdbcTemplate.update(UPDATE_CHECKPOINT, last, now, CHECKPOINT);
+        });
+        appliedLock.lock();
+        try {
+            appliedSequence = last;
+            applied.signalAll();
+        } finally {
+            appliedLock.unlock();
+        }
+    }
+}
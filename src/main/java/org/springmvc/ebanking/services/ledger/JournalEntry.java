@@ -0,0 +1,64 @@
+package org.springmvc.ebanking.services.ledger;
+
+import org.springmvc.ebanking.enums.OperationType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// A journaled debit/credit; sequence is assigned by the LedgerJournal when the entry is appended
+record JournalEntry(long sequence,
+                    String accountId,
+                    OperationType type,
+                    double amount,
+                    double balanceAfter,
+                    String description,
+                    Long userId,
+                    long operationDate) {
+
+    static JournalEntry of(LedgerCommand command) {
+        return new JournalEntry(0, command.accountId(), command.type(), command.amount(), command.balanceAfter(),
+                command.description(), command.userId(), command.operationDate().getTime());
+    }
+
+    JournalEntry withSequence(long sequence) {
+        return new JournalEntry(sequence, accountId, type, amount, balanceAfter, description, userId, operationDate);
+    }
+
+    // Payload layout: date, type, amount, balanceAfter, userId (-1 = none), accountId, description (-1 = none)
+    byte[] encode() {
+        byte[] account = accountId.getBytes(StandardCharsets.UTF_8);
+        byte[] text = description != null ? description.getBytes(StandardCharsets.UTF_8) : null;
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 1 + 8 + 8 + 8 + 2 + account.length + 4 + (text != null ? text.length : 0));
+        buffer.putLong(operationDate);
+        buffer.put((byte) type.ordinal());
+        buffer.putDouble(amount);
+        buffer.putDouble(balanceAfter);
+        buffer.putLong(userId != null ? userId : -1);
+        buffer.putShort((short) account.length);
+        buffer.put(account);
+        buffer.putInt(text != null ? text.length : -1);
+        if (text != null) {
+            buffer.put(text);
+        }
+        return buffer.array();
+    }
+
+    static JournalEntry decode(long sequence, ByteBuffer payload) {
+        long operationDate = payload.getLong();
+        OperationType type = OperationType.values()[payload.get()];
+        double amount = payload.getDouble();
+        double balanceAfter = payload.getDouble();
+        long userId = payload.getLong();
+        byte[] account = new byte[payload.getShort()];
+        payload.get(account);
+        int textLength = payload.getInt();
+        String description = null;
+        if (textLength >= 0) {
+            byte[] text = new byte[textLength];
+            payload.get(text);
+            description = new String(text, StandardCharsets.UTF_8);
+        }
+        return new JournalEntry(sequence, new String(account, StandardCharsets.UTF_8), type, amount, balanceAfter,
+                description, userId >= 0 ? userId : null, operationDate);
+    }
+}
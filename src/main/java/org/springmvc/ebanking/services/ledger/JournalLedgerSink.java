@@ -0,0 +1,41 @@
+package org.springmvc.ebanking.services.ledger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Acknowledges a shard batch once it is fsynced to the journal; the database catches up through the JournalApplier
+@Component
+@ConditionalOnExpression(LedgerJournal.ENABLED)
+public class JournalLedgerSink implements LedgerSink {
+
+    private final LedgerJournal journal;
+    private final JournalApplier applier;
+
+    @Value("${ebanking.ledger.timeout-ms:30000}")
+    private long timeoutMs;
+
+    public JournalLedgerSink(LedgerJournal journal, JournalApplier applier) {
+        this.journal = journal;
+        this.applier = applier;
+    }
+
+    @Override
+    public void write(List<LedgerCommand> commands, Map<String, AccountUpdate> accounts) {
+        applier.checkHealthy();
+        List<JournalEntry> entries = new ArrayList<>(commands.size());
+        for (LedgerCommand command : commands) {
+            entries.add(JournalEntry.of(command));
+        }
+        journal.append(entries);
+    }
+
+    @Override
+    public void awaitPersisted() {
+        applier.awaitApplied(journal.durableSequence(), timeoutMs);
+    }
+}
@@ -0,0 +1,78 @@
+package org.springmvc.ebanking.services.ledger;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springmvc.ebanking.entities.AccountOperation;
+import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.User;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.repositories.AccountOperationRepository;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.services.CustomerSummaryService;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Persists one shard batch (operation rows plus the final balance of every touched account) in a single transaction
+@Component
+@ConditionalOnProperty(name = "ebanking.ledger.engine", havingValue = "sharded")
+public class LedgerBatchWriter implements LedgerSink {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final AccountOperationRepository accountOperationRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final CustomerSummaryService customerSummaryService;
+    private final TransactionTemplate transactionTemplate;
+
+    public LedgerBatchWriter(AccountOperationRepository accountOperationRepository,
+                             BankAccountRepository bankAccountRepository,
+                             CustomerSummaryService customerSummaryService,
+                             PlatformTransactionManager transactionManager) {
+        this.accountOperationRepository = accountOperationRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.customerSummaryService = customerSummaryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void write(List<LedgerCommand> commands, Map<String, AccountUpdate> accounts) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<AccountOperation> operations = new ArrayList<>(commands.size());
+            Map<String, CustomerSummaryService.Activity> activity = new HashMap<>();
+            Date lastOperation = null;
+            for (LedgerCommand command : commands) {
+                AccountOperation accountOperation = new AccountOperation();
+                accountOperation.setType(command.type());
+                accountOperation.setAmount(command.amount());
+                accountOperation.setDescription(command.description());
+                accountOperation.setOperationDate(command.operationDate());
+                accountOperation.setBankAccount(entityManager.getReference(BankAccount.class, command.accountId()));
+                accountOperation.setPerformedBy(userReference(command.userId()));
+                operations.add(accountOperation);
+                activity.merge(command.accountId(), CustomerSummaryService.Activity.operation(
+                        command.type() == OperationType.DEBIT ? -command.amount() : command.amount()), CustomerSummaryService.Activity::plus);
+                if (lastOperation == null || command.operationDate().after(lastOperation)) {
+                    lastOperation = command.operationDate();
+                }
+            }
+            accountOperationRepository.saveAll(operations);
+            Date now = new Date();
+            accounts.forEach((accountId, update) ->
+                    bankAccountRepository.updateBalance(accountId, update.balance(), userReference(update.userId()), now));
+            customerSummaryService.recordByAccount(activity, lastOperation != null ? lastOperation : now);
+        });
+    }
+
+    private User userReference(Long userId) {
+        return userId != null ? entityManager.getReference(User.class, userId) : null;
+    }
+}
@@ -0,0 +1,34 @@
+package org.springmvc.ebanking.services.ledger;
+
+import org.springmvc.ebanking.enums.OperationType;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+
+// One debit/credit (or cache eviction when type is null) queued on the shard owning the account
+record LedgerCommand(String accountId,
+                     OperationType type,
+                     double amount,
+                     String description,
+                     Long userId,
+                     Date operationDate,
+                     double balanceAfter,
+                     CompletableFuture<Void> result) {
+
+    static LedgerCommand operation(String accountId, OperationType type, double amount, String description, Long userId) {
+        return new LedgerCommand(accountId, type, amount, description, userId, new Date(), 0, new CompletableFuture<>());
+    }
+
+    static LedgerCommand eviction(String accountId) {
+        return new LedgerCommand(accountId, null, 0, null, null, null, 0, new CompletableFuture<>());
+    }
+
+    // Set by the shard once the operation is accepted
+    LedgerCommand withBalanceAfter(double balance) {
+        return new LedgerCommand(accountId, type, amount, description, userId, operationDate, balance, result);
+    }
+
+    boolean isEviction() {
+        return type == null;
+    }
+}
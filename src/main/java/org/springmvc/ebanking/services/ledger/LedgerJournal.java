@@ -0,0 +1,362 @@
+package org.springmvc.ebanking.services.ledger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of ledger operations stored in memory-mapped segment files.
+ * Appenders copy their records into the current segment and wait; a single flusher thread
+ * forces everything written so far in one msync, so concurrent shards share each fsync
+ * (group commit). Durable entries are then handed, in sequence order, to the consumer that
+ * applies them to the database. Record layout: length, CRC32C, sequence, payload.
+ */
+@Component
+@ConditionalOnExpression(LedgerJournal.ENABLED)
+@Slf4j
+public class LedgerJournal {
+
+    static final String ENABLED = "'${ebanking.ledger.engine:jdbc}' == 'sharded' and ${ebanking.ledger.journal.enabled:false}";
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int HEADER_BYTES = 4 + 4 + 8;
+
+    private final Path directory;
+    private final int segmentBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition written = lock.newCondition();
+    private final Condition durable = lock.newCondition();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final List<Segment> rolledUnforced = new ArrayList<>();
+    private final List<JournalEntry> unflushed = new ArrayList<>();
+    private final List<JournalEntry> recovered = new ArrayList<>();
+    private Segment current;
+    private long lastSequence;
+    private long durableSequence;
+    private IOException failure;
+    private Consumer<List<JournalEntry>> durableConsumer = entries -> { };
+    // Called by the flusher with the segments it is about to force, outside the lock; tests use it to interleave appends
+    volatile Consumer<List<Path>> beforeForce = paths -> { };
+
+    private volatile boolean running;
+    private Thread flusher;
+    private long forces;
+    private long forcedEntries;
+
+    public LedgerJournal(@Value("${ebanking.ledger.journal.directory:./data/journal}") String directory,
+                         @Value("${ebanking.ledger.journal.segment-size:64MB}") DataSize segmentSize) {
+        this.directory = Paths.get(directory);
+        this.segmentBytes = (int) segmentSize.toBytes();
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().startsWith(SEGMENT_PREFIX)).sorted().toList()) {
+                Segment segment = recover(file);
+                if (segment.lastSequence == 0) {
+                    // Created but never written before the last shutdown; its name would clash with the new segment
+                    segment.close();
+                    Files.delete(file);
+                } else {
+                    segments.add(segment);
+                }
+            }
+        }
+        durableSequence = lastSequence;
+        current = createSegment(lastSequence + 1);
+        running = true;
+        flusher = new Thread(this::flushLoop, "ledger-journal-flusher");
+        flusher.start();
+        log.info("Ledger journal opened in {}: {} segments, {} recovered entries, last sequence {}",
+                directory, segments.size(), recovered.size(), lastSequence);
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        lock.lock();
+        try {
+            running = false;
+            written.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flusher.join();
+        for (Segment segment : segments) {
+            segment.close();
+        }
+    }
+
+    // Every valid entry found on disk at startup; the applier skips the ones already checkpointed
+    List<JournalEntry> recoveredEntries() {
+        return recovered;
+    }
+
+    void onDurable(Consumer<List<JournalEntry>> consumer) {
+        this.durableConsumer = consumer;
+    }
+
+    long durableSequence() {
+        lock.lock();
+        try {
+            return durableSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Appends the entries and returns once they have been forced to disk
+    void append(List<JournalEntry> entries) {
+        List<byte[]> payloads = new ArrayList<>(entries.size());
+        for (JournalEntry entry : entries) {
+            byte[] payload = entry.encode();
+            // Would not fit even an empty segment: rolling over would only create segments that never take it
+            if (payload.length > maxPayloadBytes()) {
+                throw new IllegalArgumentException("Journal record of " + payload.length + " bytes exceeds the "
+                        + maxPayloadBytes() + " bytes a " + segmentBytes + " byte segment can hold");
+            }
+            payloads.add(payload);
+        }
+        long sequence;
+        lock.lock();
+        try {
+            checkHealthy();
+            CRC32C crc = new CRC32C();
+            for (int i = 0; i < entries.size(); i++) {
+                byte[] payload = payloads.get(i);
+                if (!current.fits(payload.length)) {
+                    rolledUnforced.add(current);
+                    current = createSegment(lastSequence + 1);
+                }
+                long entrySequence = ++lastSequence;
+                crc.reset();
+                crc.update(ByteBuffer.allocate(8).putLong(0, entrySequence));
+                crc.update(payload);
+                current.write(entrySequence, (int) crc.getValue(), payload);
+                unflushed.add(entries.get(i).withSequence(entrySequence));
+            }
+            sequence = lastSequence;
+            written.signal();
+            while (durableSequence < sequence) {
+                checkHealthy();
+                durable.awaitUninterruptibly();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ledger journal append failed", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Deletes segments whose entries have all been applied to the database
+    void release(long appliedSequence) {
+        lock.lock();
+        try {
+            while (segments.size() > 1 || (segments.size() == 1 && segments.peekFirst() != current)) {
+                Segment oldest = segments.peekFirst();
+                if (oldest == current || oldest.lastSequence > appliedSequence || rolledUnforced.contains(oldest)) {
+                    break;
+                }
+                segments.pollFirst();
+                oldest.close();
+                Files.deleteIfExists(oldest.path);
+                log.debug("Released journal segment {}", oldest.path.getFileName());
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete applied journal segment: {}", e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        lock.lock();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("lastSequence", lastSequence);
+            stats.put("durableSequence", durableSequence);
+            stats.put("segments", segments.size());
+            stats.put("forces", forces);
+            stats.put("avgEntriesPerForce", forces == 0 ? 0.0 : (double) forcedEntries / forces);
+            return stats;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            List<Segment> rolled;
+            List<Segment> toForce;
+            lock.lock();
+            try {
+                while (running && lastSequence == durableSequence) {
+                    written.awaitUninterruptibly();
+                }
+                if (!running && lastSequence == durableSequence) {
+                    return;
+                }
+                target = lastSequence;
+                rolled = new ArrayList<>(rolledUnforced);
+                toForce = new ArrayList<>(rolled);
+                toForce.add(current);
+            } finally {
+                lock.unlock();
+            }
+
+            beforeForce.accept(toForce.stream().map(segment -> segment.path).toList());
+            IOException error = null;
+            try {
+                for (Segment segment : toForce) {
+                    segment.force();
+                }
+            } catch (IOException | UncheckedIOException e) {
+                error = e instanceof IOException io ? io : ((UncheckedIOException) e).getCause();
+            }
+
+            List<JournalEntry> flushed = new ArrayList<>();
+            lock.lock();
+            try {
+                if (error != null) {
+                    // Fail-stop: acknowledging anything after a failed fsync could lose money on a crash
+                    log.error("Ledger journal fsync failed, rejecting further appends", error);
+                    failure = error;
+                    durable.signalAll();
+                    return;
+                }
+                // Only segments that were already rolled: current may have been rolled meanwhile, with entries
+                // past target written after its force started, so it stays for the next force
+                rolledUnforced.removeAll(rolled);
+                forces++;
+                forcedEntries += target - durableSequence;
+                durableSequence = target;
+                int count = 0;
+                while (count < unflushed.size() && unflushed.get(count).sequence() <= target) {
+                    count++;
+                }
+                flushed.addAll(unflushed.subList(0, count));
+                unflushed.subList(0, count).clear();
+                durable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            durableConsumer.accept(flushed);
+        }
+    }
+
+    private void checkHealthy() throws IOException {
+        if (failure != null) {
+            throw new IOException("Ledger journal is unavailable after an earlier fsync failure", failure);
+        }
+    }
+
+    // Largest payload an empty segment takes: one header and the end marker that follows the record
+    private int maxPayloadBytes() {
+        return segmentBytes - HEADER_BYTES - 4;
+    }
+
+    private Segment createSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        Segment segment = new Segment(path, segmentBytes);
+        segments.add(segment);
+        return segment;
+    }
+
+    // Reads the valid prefix of a segment; a torn or corrupt record marks the end of what was durable
+    private Segment recover(Path path) throws IOException {
+        Segment segment = new Segment(path, (int) Files.size(path));
+        MappedByteBuffer buffer = segment.buffer;
+        CRC32C crc = new CRC32C();
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            long sequence = buffer.getLong();
+            if (length <= 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                break;
+            }
+            ByteBuffer payload = buffer.slice(buffer.position(), length);
+            crc.reset();
+            crc.update(ByteBuffer.allocate(8).putLong(0, sequence));
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                log.warn("Corrupt journal record at {}:{}, ignoring the rest of the segment", path.getFileName(), start);
+                buffer.position(start);
+                break;
+            }
+            recovered.add(JournalEntry.decode(sequence, payload));
+            buffer.position(buffer.position() + length);
+            segment.lastSequence = sequence;
+            lastSequence = Math.max(lastSequence, sequence);
+        }
+        return segment;
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private long lastSequence;
+
+        Segment(Path path, int size) throws IOException {
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        // Keep room for a zeroed length after the record so readers always find an end marker
+        boolean fits(int payloadLength) {
+            return buffer.remaining() >= HEADER_BYTES + payloadLength + 4;
+        }
+
+        void write(long sequence, int checksum, byte[] payload) {
+            buffer.putInt(payload.length);
+            buffer.putInt(checksum);
+            buffer.putLong(sequence);
+            buffer.put(payload);
+            lastSequence = sequence;
+        }
+
+        void force() throws IOException {
+            buffer.force();
+        }
+
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Could not close journal segment {}: {}", path.getFileName(), e.getMessage());
+            }
+        }
+    }
+}
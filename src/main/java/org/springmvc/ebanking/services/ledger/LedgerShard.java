@@ -0,0 +1,128 @@
+package org.springmvc.ebanking.services.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.exceptions.BalanceNotSufficientException;
+import org.springmvc.ebanking.exceptions.BankAccountNotFoundException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Single writer for a hash partition of accounts. Producers only touch the lock-free queue;
+ * the worker thread owns the balance map, so balance checks need no locking. Commands drained
+ * in one pass are handed to the LedgerSink together and acknowledged once it returns.
+ */
+@Slf4j
+class LedgerShard implements Runnable {
+
+    private static final long IDLE_PARK_NANOS = 1_000_000;
+
+    private final Queue<LedgerCommand> queue = new ConcurrentLinkedQueue<>();
+    private final Map<String, Double> balances = new HashMap<>();
+    private final Function<String, Optional<Double>> balanceLoader;
+    private final LedgerSink sink;
+    private final int batchSize;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    LedgerShard(int index, Function<String, Optional<Double>> balanceLoader, LedgerSink sink, int batchSize) {
+        this.balanceLoader = balanceLoader;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.worker = new Thread(this, "ledger-shard-" + index);
+    }
+
+    void start() {
+        worker.start();
+    }
+
+    void submit(LedgerCommand command) {
+        if (!running) {
+            command.result().completeExceptionally(new IllegalStateException("Ledger is shutting down"));
+            return;
+        }
+        queue.offer(command);
+        LockSupport.unpark(worker);
+    }
+
+    void stop(long timeoutMillis) throws InterruptedException {
+        running = false;
+        LockSupport.unpark(worker);
+        worker.join(timeoutMillis);
+    }
+
+    @Override
+    public void run() {
+        List<LedgerCommand> batch = new ArrayList<>(batchSize);
+        Map<String, LedgerSink.AccountUpdate> touched = new LinkedHashMap<>();
+        while (running || !queue.isEmpty()) {
+            LedgerCommand command;
+            while (batch.size() < batchSize && (command = queue.poll()) != null) {
+                apply(command, batch, touched);
+            }
+            if (!batch.isEmpty()) {
+                flush(batch, touched);
+                batch.clear();
+                touched.clear();
+            } else if (queue.isEmpty()) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void apply(LedgerCommand command, List<LedgerCommand> batch, Map<String, LedgerSink.AccountUpdate> touched) {
+        if (command.isEviction()) {
+            balances.remove(command.accountId());
+            command.result().complete(null);
+            return;
+        }
+        Double balance = balances.get(command.accountId());
+        if (balance == null) {
+            try {
+                balance = balanceLoader.apply(command.accountId()).orElse(null);
+            } catch (RuntimeException e) {
+                command.result().completeExceptionally(e);
+                return;
+            }
+            if (balance == null) {
+                command.result().completeExceptionally(new BankAccountNotFoundException("BankAccount not found"));
+                return;
+            }
+        }
+        if (command.type() == OperationType.DEBIT) {
+            if (balance < command.amount()) {
+                balances.put(command.accountId(), balance);
+                command.result().completeExceptionally(new BalanceNotSufficientException("Balance not sufficient"));
+                return;
+            }
+            balance -= command.amount();
+        } else {
+            balance += command.amount();
+        }
+        balances.put(command.accountId(), balance);
+        touched.put(command.accountId(), new LedgerSink.AccountUpdate(balance, command.userId()));
+        batch.add(command.withBalanceAfter(balance));
+    }
+
+    private void flush(List<LedgerCommand> batch, Map<String, LedgerSink.AccountUpdate> touched) {
+        try {
+            sink.write(batch, touched);
+        } catch (RuntimeException e) {
+            log.error("Ledger batch of {} operations failed, reloading {} balances: {}", batch.size(), touched.size(), e.getMessage());
+            // The batch was not persisted: drop the optimistic in-memory balances so they are re-read from the database
+            touched.keySet().forEach(balances::remove);
+            batch.forEach(command -> command.result().completeExceptionally(e));
+            return;
+        }
+        batch.forEach(command -> command.result().complete(null));
+    }
+}
@@ -0,0 +1,17 @@
+package org.springmvc.ebanking.services.ledger;
+
+import java.util.List;
+import java.util.Map;
+
+// Where a shard hands its accepted operations; write must only return once they are durable
+interface LedgerSink {
+
+    record AccountUpdate(double balance, Long userId) {
+    }
+
+    void write(List<LedgerCommand> commands, Map<String, AccountUpdate> accounts);
+
+    // Block until everything written so far is visible in the database tables
+    default void awaitPersisted() {
+    }
+}
@@ -0,0 +1,148 @@
+package org.springmvc.ebanking.services.ledger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.exceptions.BalanceNotSufficientException;
+import org.springmvc.ebanking.exceptions.BankAccountNotFoundException;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * In-memory ledger that hash-partitions accounts onto single-threaded shards.
+ * Each shard is the only writer of its accounts' balances, so hot accounts are
+ * serialized in memory instead of queueing on database row locks.
+ */
+@Component
+@ConditionalOnProperty(name = "ebanking.ledger.engine", havingValue = "sharded")
+@Slf4j
+public class ShardedLedger {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final LedgerSink sink;
+
+    @Value("${ebanking.ledger.shards:4}")
+    private int shardCount;
+
+    @Value("${ebanking.ledger.batch-size:256}")
+    private int batchSize;
+
+    @Value("${ebanking.ledger.timeout-ms:30000}")
+    private long timeoutMs;
+
+    private LedgerShard[] shards;
+
+    // With ebanking.ledger.journal.enabled the journal acknowledges batches; otherwise they are written straight to the database
+    public ShardedLedger(BankAccountRepository bankAccountRepository,
+                         LedgerBatchWriter batchWriter,
+                         ObjectProvider<JournalLedgerSink> journalSink) {
+        this.bankAccountRepository = bankAccountRepository;
+        LedgerSink journal = journalSink.getIfAvailable();
+        this.sink = journal != null ? journal : batchWriter;
+    }
+
+    @PostConstruct
+    void start() {
+        shards = new LedgerShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new LedgerShard(i, this::loadBalance, sink, batchSize);
+            shards[i].start();
+        }
+        log.info("Sharded ledger started with {} shards, batch size {}, sink {}", shardCount, batchSize, sink.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        for (LedgerShard shard : shards) {
+            shard.stop(timeoutMs);
+        }
+        log.info("Sharded ledger stopped");
+    }
+
+    public void debit(String accountId, double amount, String description, Long userId)
+            throws BankAccountNotFoundException, BalanceNotSufficientException {
+        LedgerCommand command = LedgerCommand.operation(accountId, OperationType.DEBIT, amount, description, userId);
+        shardFor(accountId).submit(command);
+        try {
+            await(command.result());
+        } catch (BalanceNotSufficientException | BankAccountNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw unexpected(e);
+        }
+    }
+
+    public void credit(String accountId, double amount, String description, Long userId)
+            throws BankAccountNotFoundException {
+        awaitCredit(submitCredit(accountId, amount, description, userId));
+    }
+
+    // Queues a credit without waiting for it; the result completes once the credit is persisted or rejected
+    CompletableFuture<Void> submitCredit(String accountId, double amount, String description, Long userId) {
+        LedgerCommand command = LedgerCommand.operation(accountId, OperationType.CREDIT, amount, description, userId);
+        shardFor(accountId).submit(command);
+        return command.result();
+    }
+
+    // A timeout leaves the credit queued: it may still be applied after this throws
+    void awaitCredit(CompletableFuture<Void> result) throws BankAccountNotFoundException {
+        try {
+            await(result);
+        } catch (BankAccountNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw unexpected(e);
+        }
+    }
+
+    // Forget the cached balance, e.g. after the account was deleted or changed outside the ledger
+    public void evict(String accountId) {
+        shardFor(accountId).submit(LedgerCommand.eviction(accountId));
+    }
+
+    // Returns once every acknowledged operation is visible in the database tables
+    public void awaitPersisted() {
+        sink.awaitPersisted();
+    }
+
+    // A cache miss must not read a balance the journal applier has not written yet
+    private Optional<Double> loadBalance(String accountId) {
+        sink.awaitPersisted();
+        return bankAccountRepository.findBalanceById(accountId);
+    }
+
+    private LedgerShard shardFor(String accountId) {
+        return shards[Math.floorMod(accountId.hashCode(), shards.length)];
+    }
+
+    private void await(CompletableFuture<Void> result) throws Exception {
+        try {
+            result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private RuntimeException unexpected(Exception e) {
+        if (e instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (e instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        if (e instanceof TimeoutException) {
+            return new IllegalStateException("Ledger operation timed out after " + timeoutMs + " ms", e);
+        }
+        return new IllegalStateException("Ledger operation failed", e);
+    }
+}
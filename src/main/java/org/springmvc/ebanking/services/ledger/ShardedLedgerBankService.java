@@ -0,0 +1,142 @@
+package org.springmvc.ebanking.services.ledger;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springmvc.ebanking.dtos.BillPaymentDTO;
+import org.springmvc.ebanking.exceptions.BalanceNotSufficientException;
+import org.springmvc.ebanking.exceptions.BankAccountNotFoundException;
+import org.springmvc.ebanking.exceptions.CustomerNotFoundException;
+import org.springmvc.ebanking.mappers.BankAccountMapperImpl;
+import org.springmvc.ebanking.repositories.AccountOperationRepository;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+import org.springmvc.ebanking.repositories.UserRepository;
+import org.springmvc.ebanking.services.BankServiceImpl;
+import org.springmvc.ebanking.services.CustomerSummaryService;
+import org.springmvc.ebanking.services.DashboardFanOut;
+import org.springmvc.ebanking.services.PrincipalResolver;
+import org.springmvc.ebanking.services.TransferEngine;
+import org.springmvc.ebanking.services.search.CustomerSearchIndex;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * BankAccountsService variant selected with ebanking.ledger.engine=sharded.
+ * Debits and credits go through the ShardedLedger instead of a row-locked read-modify-write.
+ * Money-moving methods run without a surrounding transaction so callers do not hold a
+ * connection while their operation waits for its shard batch to commit.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "ebanking.ledger.engine", havingValue = "sharded")
+@Slf4j
+public class ShardedLedgerBankService extends BankServiceImpl {
+
+    private final ShardedLedger ledger;
+    private final BankAccountRepository bankAccountRepository;
+    private final InDoubtTransfers inDoubtTransfers;
+
+    public ShardedLedgerBankService(CustomerRepository customerRepository,
+                                    BankAccountRepository bankAccountRepository,
+                                    AccountOperationRepository accountOperationRepository,
+                                    UserRepository userRepository,
+                                    BankAccountMapperImpl dtoMapper,
+                                    TransferEngine transferEngine,
+                                    CustomerSummaryService customerSummaryService,
+                                    PrincipalResolver principalResolver,
+                                    DashboardFanOut dashboardFanOut,
+                                    CustomerSearchIndex customerSearchIndex,
+                                    ShardedLedger ledger,
+                                    InDoubtTransfers inDoubtTransfers) {
+        super(customerRepository, bankAccountRepository, accountOperationRepository, userRepository, dtoMapper, transferEngine,
+                customerSummaryService, principalResolver, dashboardFanOut, customerSearchIndex);
+        this.ledger = ledger;
+        this.bankAccountRepository = bankAccountRepository;
+        this.inDoubtTransfers = inDoubtTransfers;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void debit(String accountId, double amount, String description, String userId) throws BankAccountNotFoundException, BalanceNotSufficientException {
+        debit(accountId, amount, description, performedBy(userId));
+    }
+
+    @Override
+    protected void debit(String accountId, double amount, String description, Long performedBy) throws BankAccountNotFoundException, BalanceNotSufficientException {
+        ledger.debit(accountId, amount, description, performedBy);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void credit(String accountId, double amount, String description, String userId) throws BankAccountNotFoundException {
+        credit(accountId, amount, description, performedBy(userId));
+    }
+
+    @Override
+    protected void credit(String accountId, double amount, String description, Long performedBy) throws BankAccountNotFoundException {
+        ledger.credit(accountId, amount, description, performedBy);
+    }
+
+    // The two legs may live on different shards: the debit commits first and is reversed if the credit is rejected
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void transfer(String accountIdSource, String accountIdDestination, double amount, String userId) throws BankAccountNotFoundException, BalanceNotSufficientException {
+        transfer(accountIdSource, accountIdDestination, amount, performedBy(userId));
+    }
+
+    @Override
+    protected void transfer(String accountIdSource, String accountIdDestination, double amount, Long performedBy) throws BankAccountNotFoundException, BalanceNotSufficientException {
+        if (!bankAccountRepository.existsById(accountIdDestination)) {
+            throw new BankAccountNotFoundException("BankAccount not found");
+        }
+        ledger.debit(accountIdSource, amount, "Transfer to " + accountIdDestination, performedBy);
+        CompletableFuture<Void> credit = ledger.submitCredit(accountIdDestination, amount, "Transfer from " + accountIdSource, performedBy);
+        try {
+            ledger.awaitCredit(credit);
+        } catch (BankAccountNotFoundException e) {
+            log.warn("Credit leg of transfer {} -> {} was rejected, reversing debit: {}", accountIdSource, accountIdDestination, e.getMessage());
+            inDoubtTransfers.reverse(accountIdSource, accountIdDestination, amount, performedBy, e);
+            throw e;
+        } catch (RuntimeException e) {
+            // A timeout leaves the credit queued: reversing now could pay twice, so it is settled once its result is known
+            inDoubtTransfers.record(accountIdSource, accountIdDestination, amount, performedBy, credit, e);
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void userDebit(String userId, double amount, String description) throws BankAccountNotFoundException, BalanceNotSufficientException, CustomerNotFoundException {
+        super.userDebit(userId, amount, description);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void userCredit(String userId, double amount, String description) throws BankAccountNotFoundException, CustomerNotFoundException {
+        super.userCredit(userId, amount, description);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void userTransfer(String userId, String recipientIdentifier, double amount) throws BankAccountNotFoundException, BalanceNotSufficientException, CustomerNotFoundException {
+        super.userTransfer(userId, recipientIdentifier, amount);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void payBill(BillPaymentDTO billPaymentDTO) throws BankAccountNotFoundException, BalanceNotSufficientException {
+        super.payBill(billPaymentDTO);
+    }
+
+    @Override
+    @Transactional
+    public void deleteBankAccount(String accountId) throws BankAccountNotFoundException {
+        ledger.awaitPersisted();
+        super.deleteBankAccount(accountId);
+        ledger.evict(accountId);
+    }
+}
@@ -0,0 +1,178 @@
+package org.springmvc.ebanking.services.loader;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springmvc.ebanking.entities.*;
+import org.springmvc.ebanking.enums.AccountStatus;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.repositories.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Roles, demo users and demo customers with a current and a saving account each. Every step
+ * checks what already exists, so restarting the application adds nothing; accounts are only
+ * opened for demo customers that have none, and their balances include their operations.
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class DemoDataLoader {
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+    private final CustomerRepository customerRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final AccountOperationRepository accountOperationRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    public void load() {
+        // Create roles if they don't exist
+        if (roleRepository.findByName("USER").isEmpty()) {
+            Role userRole = new Role();
+            userRole.setName("USER");
+            userRole.setDescription("Standard user role");
+            roleRepository.save(userRole);
+        }
+        if (roleRepository.findByName("ADMIN").isEmpty()) {
+            Role adminRole = new Role();
+            adminRole.setName("ADMIN");
+            adminRole.setDescription("Administrator role");
+            roleRepository.save(adminRole);
+        }
+
+        Role adminRole = roleRepository.findByName("ADMIN")
+                .orElseThrow(() -> new RuntimeException("ADMIN role not found"));
+        Role userRole = roleRepository.findByName("USER")
+                .orElseThrow(() -> new RuntimeException("USER role not found"));
+
+        // Create three admin users
+        List<User> admins = Arrays.asList(
+                createUser("admin1", "admin1@example.com", "Admin1", "User", "1234"),
+                createUser("admin2", "admin2@example.com", "Admin2", "User", "1234"),
+                createUser("admin3", "admin3@example.com", "Admin3", "User", "1234")
+        );
+        for (User admin : admins) {
+            if (userRepository.findByUsername(admin.getUsername()).isEmpty()) {
+                admin.setPassword(passwordEncoder.encode(admin.getPassword()));
+                admin.setRoles(Collections.singleton(adminRole));
+                userRepository.save(admin);
+                log.info("Admin user created: {}", admin.getUsername());
+            }
+        }
+
+        // Create regular users
+        List<User> regularUsers = Arrays.asList(
+                createUser("john", "john@example.com", "John", "Doe", "john123"),
+                createUser("jane", "jane@example.com", "Jane", "Doe", "jane123")
+        );
+        for (User user : regularUsers) {
+            if (userRepository.findByUsername(user.getUsername()).isEmpty()) {
+                user.setPassword(passwordEncoder.encode(user.getPassword()));
+                user.setRoles(Collections.singleton(userRole));
+                userRepository.save(user);
+                log.info("Regular user created: {}", user.getUsername());
+            }
+        }
+
+        // Set security context to admin1 for initialization
+        User admin1 = userRepository.findByUsername("admin1")
+                .orElseThrow(() -> new RuntimeException("Admin user admin1 not found"));
+        UserDetails userDetails = new org.springframework.security.core.userdetails.User(
+                admin1.getUsername(),
+                admin1.getPassword(),
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN"))
+        );
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+        try {
+            // Create customers, and their accounts the first time they are seen without any
+            List<Customer> customers = Arrays.asList(
+                    createCustomer("Meryem", "meryem@gmail.com", admin1),
+                    createCustomer("Imane", "imane@gmail.com", admin1),
+                    createCustomer("Mohamed", "mohamed@gmail.com", admin1)
+            );
+            for (Customer customer : customers) {
+                Customer existing = customerRepository.findByEmail(customer.getEmail()).orElse(null);
+                if (existing == null) {
+                    existing = customerRepository.save(customer);
+                    log.info("Customer created: {}", customer.getName());
+                }
+                if (bankAccountRepository.findIdsByCustomerIdOrderById(existing.getId(), Limit.of(1)).isEmpty()) {
+                    openAccounts(existing, admin1);
+                }
+            }
+        } finally {
+            // Clear security context after initialization
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void openAccounts(Customer customer, User admin1) {
+        CurrentAccount currentAccount = new CurrentAccount();
+        currentAccount.setStatus(AccountStatus.ACTIVATED);
+        currentAccount.setOverDraft(9000);
+        open(currentAccount, customer, admin1, 50000, 25000, 3000);
+
+        SavingAccount savingAccount = new SavingAccount();
+        savingAccount.setStatus(AccountStatus.ACTIVATED);
+        savingAccount.setInterestRate(5.5);
+        open(savingAccount, customer, admin1, 75000, 40000, 5000);
+    }
+
+    // Saved at its opening balance, then moved by one credit and one debit, so the reconciliation sees it balanced
+    private void open(BankAccount account, Customer customer, User admin1, double openingBalance, double credit, double debit) {
+        account.setId(AccountIds.newId());
+        account.setBalance(openingBalance);
+        account.setCustomer(customer);
+        account.setCreatedBy(admin1);
+        account.setUpdatedBy(admin1);
+        account = bankAccountRepository.save(account);
+
+        accountOperationRepository.save(operation(account, OperationType.CREDIT, credit, "Credit", admin1));
+        accountOperationRepository.save(operation(account, OperationType.DEBIT, debit, "Debit", admin1));
+        account.setBalance(openingBalance + credit - debit);
+        bankAccountRepository.save(account);
+    }
+
+    private AccountOperation operation(BankAccount account, OperationType type, double amount, String description, User admin1) {
+        AccountOperation operation = new AccountOperation();
+        operation.setOperationDate(new Date());
+        operation.setAmount(amount);
+        operation.setType(type);
+        operation.setBankAccount(account);
+        operation.setDescription(description);
+        operation.setPerformedBy(admin1);
+        return operation;
+    }
+
+    private User createUser(String username, String email, String firstName, String lastName, String password) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setPassword(password);
+        user.setEnabled(true);
+        return user;
+    }
+
+    private Customer createCustomer(String name, String email, User createdBy) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(email);
+        customer.setCreatedBy(createdBy);
+        customer.setUpdatedBy(createdBy);
+        return customer;
+    }
+}
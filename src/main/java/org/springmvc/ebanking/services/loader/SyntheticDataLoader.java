@@ -0,0 +1,370 @@
+package org.springmvc.ebanking.services.loader;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.services.search.CustomerSearchIndex;
+import org.springmvc.ebanking.services.search.LedgerIndexUpdater;
+import org.springmvc.ebanking.entities.AccountOperation;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Generates a synthetic dataset tagged by name: customers, their current and saving accounts and a
+ * history of operations, written with JDBC batch inserts. Customer i of a dataset is always
+ * generated from the same random stream, so a dataset is reproducible from its tag and seed.
+ * Customers are loaded in batches, one transaction each with their accounts, operations and
+ * summary rows; loading the same tag again only generates the customers not there yet, so an
+ * interrupted load is finished by running it again, a complete one adds nothing and a larger
+ * count extends the dataset.
+ * Balances are opening balance + credits - debits, so the datasets reconcile.
+ */
+@Component
+@Slf4j
+public class SyntheticDataLoader {
+
+    private static final String INSERT_CUSTOMER =
+            "INSERT INTO customer (name, email, created_at, updated_at) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_ACCOUNT =
+            "INSERT INTO bank_account (dtype, id, balance, opening_balance, version, customer_id, created_at, updated_at, "
+                    + "over_draft, interest_rate) VALUES (?, ?, ?, ?, 0, ?, ?, ?, ?, ?)";
+    private static final String INSERT_OPERATION =
+            "INSERT INTO account_operation (id, operation_date, amount, type, bank_account_id, description) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SUMMARY =
+            "INSERT INTO customer_summary (customer_id, account_count, total_balance, operation_count, last_activity, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String[] FIRST_NAMES = {
+            "Adam", "Amina", "Anas", "Aya", "Chaimae", "Clara", "David", "Elena", "Fatima", "Hamza", "Hugo", "Ilyas",
+            "Imane", "Ines", "Jonas", "Julia", "Karim", "Laila", "Lucas", "Mehdi", "Meryem", "Mohamed", "Nadia", "Noah",
+            "Omar", "Salma", "Sara", "Sofia", "Thomas", "Yasmine", "Youssef", "Zineb"};
+    private static final String[] LAST_NAMES = {
+            "Alami", "Bennani", "Berrada", "Chraibi", "Dubois", "El Amrani", "El Idrissi", "Fassi", "Garcia", "Haddad",
+            "Kettani", "Lahlou", "Laurent", "Martin", "Moreau", "Naciri", "Ouazzani", "Petit", "Rossi", "Sebti",
+            "Tazi", "Benjelloun", "Ziani", "Schmidt"};
+    private static final String[] CREDITS = {"Salary", "Transfer in", "Refund", "Deposit"};
+    private static final String[] DEBITS = {"Card payment", "Rent", "Utilities", "Transfer out", "Cash withdrawal", "Subscription"};
+    private static final double[] OVERDRAFTS = {0, 500, 1000, 2000};
+
+    /**
+     * What to generate. Accounts per customer follow a geometric distribution and operations per
+     * account a log-normal one (a few very busy accounts), both with the given means; operations are
+     * spread over the last {@code days} days.
+     */
+    public record Spec(String tag, int customers, double accountsPerCustomer, double operationsPerAccount, int days, long seed) {
+    }
+
+    public record Report(String tag, int customers, int customersLoaded, long accounts, long operations,
+                         int batches, long elapsedMillis, double rowsPerSecond) {
+    }
+
+    private record BatchResult(int customers, long accounts, long operations) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final LedgerIndexUpdater ledgerIndexUpdater;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${ebanking.loader.synthetic.tag:synthetic}")
+    private String tag;
+
+    @Value("${ebanking.loader.synthetic.customers:0}")
+    private int customers;
+
+    @Value("${ebanking.loader.synthetic.accounts-per-customer:2}")
+    private double accountsPerCustomer;
+
+    @Value("${ebanking.loader.synthetic.operations-per-account:50}")
+    private double operationsPerAccount;
+
+    @Value("${ebanking.loader.synthetic.days:365}")
+    private int days;
+
+    @Value("${ebanking.loader.synthetic.seed:42}")
+    private long seed;
+
+    @Value("${ebanking.loader.synthetic.batch-size:500}")
+    private int batchSize;
+
+    @Value("${ebanking.loader.synthetic.insert-batch-size:5000}")
+    private int insertBatchSize;
+
+    @Value("${ebanking.loader.synthetic.parallelism:4}")
+    private int parallelism;
+
+    private volatile Report lastLoad;
+
+    public SyntheticDataLoader(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               CustomerSearchIndex customerSearchIndex, LedgerIndexUpdater ledgerIndexUpdater) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.customerSearchIndex = customerSearchIndex;
+        this.ledgerIndexUpdater = ledgerIndexUpdater;
+    }
+
+    // The dataset configured by ebanking.loader.synthetic.*; nothing unless customers is set
+    public Spec configuredSpec() {
+        return new Spec(tag, customers, accountsPerCustomer, operationsPerAccount, days, seed);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Report lastLoad() {
+        return lastLoad;
+    }
+
+    public Report load(Spec spec) {
+        if (spec.customers() < 0 || spec.accountsPerCustomer() < 1 || spec.operationsPerAccount() < 0 || spec.days() < 1
+                || spec.tag() == null || !spec.tag().matches("[a-z0-9-]+")) {
+            throw new IllegalArgumentException("Invalid synthetic dataset " + spec);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A synthetic load is already in progress");
+        }
+        try {
+            long start = System.nanoTime();
+            int batches = (spec.customers() + batchSize - 1) / batchSize;
+            List<BatchResult> results = runInParallel(spec, batches);
+
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            int customersLoaded = results.stream().mapToInt(BatchResult::customers).sum();
+            long accounts = results.stream().mapToLong(BatchResult::accounts).sum();
+            long operations = results.stream().mapToLong(BatchResult::operations).sum();
+            long rows = customersLoaded + accounts + operations;
+            Report report = new Report(spec.tag(), spec.customers(), customersLoaded, accounts, operations,
+                    batches, elapsed, elapsed == 0 ? rows : rows * 1000.0 / elapsed);
+            lastLoad = report;
+            // The batches bypass Hibernate, so the ledger search index does not see them row by row
+            if (rows > 0) {
+                ledgerIndexUpdater.requestRebuild();
+            }
+            log.info("Synthetic dataset '{}': loaded {} of {} customers, {} accounts, {} operations in {} ms",
+                    spec.tag(), customersLoaded, spec.customers(), accounts, operations, elapsed);
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    static String email(Spec spec, int customer) {
+        return "customer-" + customer + "@" + spec.tag() + ".synthetic";
+    }
+
+    // Positions in the dataset of the customers of [first, last) that are already loaded
+    private Set<Integer> loadedCustomers(Spec spec, int first, int last) {
+        List<Object> emails = new ArrayList<>(last - first);
+        for (int customer = first; customer < last; customer++) {
+            emails.add(email(spec, customer));
+        }
+        String in = String.join(", ", Collections.nCopies(emails.size(), "?"));
+        Set<Integer> loaded = new HashSet<>();
+        for (String email : jdbcTemplate.queryForList("SELECT email FROM customer WHERE email IN (" + in + ")", String.class, emails.toArray())) {
+            loaded.add(Integer.parseInt(email.substring("customer-".length(), email.indexOf('@'))));
+        }
+        return loaded;
+    }
+
+    private List<BatchResult> runInParallel(Spec spec, int batches) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<BatchResult>> tasks = IntStream.range(0, batches)
+                    .mapToObj(batch -> pool.submit(() -> transactionTemplate.execute(status -> loadBatch(spec, batch))))
+                    .toList();
+            List<BatchResult> results = new ArrayList<>(tasks.size());
+            RuntimeException failure = null;
+            for (ForkJoinTask<BatchResult> task : tasks) {
+                try {
+                    results.add(task.join());
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = new IllegalStateException("Synthetic load of '" + spec.tag() + "' failed; run it again to resume", e);
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private BatchResult loadBatch(Spec spec, int batch) {
+        int first = batch * batchSize;
+        int last = Math.min(spec.customers(), first + batchSize);
+        long now = System.currentTimeMillis();
+        long since = now - TimeUnit.DAYS.toMillis(spec.days());
+        Timestamp opened = new Timestamp(since);
+        Set<Integer> loaded = loadedCustomers(spec, first, last);
+        if (loaded.size() == last - first) {
+            return new BatchResult(0, 0, 0);
+        }
+
+        BeforeExecutionGenerator operationIds = operationIdGenerator();
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        List<Object[]> customerRows = new ArrayList<>(last - first);
+        List<Object[]> accounts = new ArrayList<>();
+        List<Object[]> operations = new ArrayList<>();
+        List<Object[]> summaries = new ArrayList<>(last - first);
+        // Customer ids are only known once the customers are inserted: account and summary rows hold the
+        // customer's position in the batch until then
+        List<Integer> accountOwners = new ArrayList<>();
+        for (int customer = first; customer < last; customer++) {
+            if (loaded.contains(customer)) {
+                continue;
+            }
+            SplittableRandom random = random(spec, customer);
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            customerRows.add(new Object[]{name, email(spec, customer), opened, opened});
+
+            int accountCount = 1 + geometric(random, 1 / spec.accountsPerCustomer());
+            long totalCents = 0;
+            long customerOperations = 0;
+            long lastActivity = 0;
+            for (int a = 0; a < accountCount; a++) {
+                byte[] accountId = AccountIds.toBytes(AccountIds.newId());
+                boolean saving = random.nextDouble() < 0.4;
+                double overDraft = saving ? 0 : OVERDRAFTS[random.nextInt(OVERDRAFTS.length)];
+                double interestRate = saving ? 1.5 + random.nextInt(7) * 0.5 : 0;
+                long openingCents = cents(logNormal(random, saving ? 5000 : 1500, 1.2));
+                long balanceCents = openingCents;
+                long floorCents = -cents(overDraft);
+
+                int count = (int) Math.min(Math.round(logNormal(random, spec.operationsPerAccount(), 1.0)),
+                        (long) (spec.operationsPerAccount() * 50));
+                long[] times = new long[count];
+                for (int o = 0; o < count; o++) {
+                    times[o] = since + (long) (random.nextDouble() * (now - since));
+                }
+                Arrays.sort(times);
+                for (long time : times) {
+                    boolean credit = random.nextDouble() < 0.45;
+                    long amountCents = Math.max(1, cents(credit ? logNormal(random, 300, 1.0) : logNormal(random, 60, 1.1)));
+                    // A debit that would overdraw the account beyond its limit arrives as a credit instead
+                    if (!credit && balanceCents - amountCents < floorCents) {
+                        credit = true;
+                    }
+                    String description = credit ? CREDITS[random.nextInt(CREDITS.length)] : DEBITS[random.nextInt(DEBITS.length)];
+                    balanceCents += credit ? amountCents : -amountCents;
+                    Object id = operationIds.generate(session, null, null, EventType.INSERT);
+                    operations.add(new Object[]{id, new Timestamp(time), amountCents / 100.0,
+                            credit ? "CREDIT" : "DEBIT", accountId, description});
+                }
+                accounts.add(new Object[]{saving ? "SavingAccount" : "CurrentAccount", accountId, balanceCents / 100.0,
+                        openingCents / 100.0, null, opened, opened, saving ? null : overDraft, saving ? interestRate : null});
+                accountOwners.add(customerRows.size() - 1);
+                totalCents += balanceCents;
+                customerOperations += count;
+                if (count > 0) {
+                    lastActivity = Math.max(lastActivity, times[count - 1]);
+                }
+            }
+            summaries.add(new Object[]{null, accountCount, totalCents / 100.0, customerOperations,
+                    lastActivity == 0 ? null : new Timestamp(lastActivity), new Timestamp(now)});
+        }
+
+        long[] customerIds = insertCustomers(customerRows);
+        for (int a = 0; a < accounts.size(); a++) {
+            accounts.get(a)[4] = customerIds[accountOwners.get(a)];
+        }
+        for (int c = 0; c < summaries.size(); c++) {
+            summaries.get(c)[0] = customerIds[c];
+        }
+        // Accounts before their operations, for the foreign key
+        batchInsert(INSERT_ACCOUNT, accounts);
+        batchInsert(INSERT_OPERATION, operations);
+        batchInsert(INSERT_SUMMARY, summaries);
+        List<CustomerSearchIndex.Entry> searchable = new ArrayList<>(customerIds.length);
+        for (int c = 0; c < customerIds.length; c++) {
+            searchable.add(new CustomerSearchIndex.Entry(customerIds[c], (String) customerRows.get(c)[0], (String) customerRows.get(c)[1]));
+        }
+        customerSearchIndex.saved(searchable);
+        return new BatchResult(customerIds.length, accounts.size(), operations.size());
+    }
+
+    private long[] insertCustomers(List<Object[]> rows) {
+        return jdbcTemplate.execute((Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_CUSTOMER, Statement.RETURN_GENERATED_KEYS)) {
+                for (Object[] row : rows) {
+                    for (int column = 0; column < row.length; column++) {
+                        statement.setObject(column + 1, row[column]);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                long[] ids = new long[rows.size()];
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    for (int i = 0; i < ids.length && keys.next(); i++) {
+                        ids[i] = keys.getLong(1);
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+
+    private void batchInsert(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += insertBatchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + insertBatchSize)));
+        }
+    }
+
+    // Hibernate's own pooled generator, so ids handed out here and by the application never collide
+    private BeforeExecutionGenerator operationIdGenerator() {
+        return (BeforeExecutionGenerator) entityManager.unwrap(SharedSessionContractImplementor.class).getFactory()
+                .getMappingMetamodel().getEntityDescriptor(AccountOperation.class).getGenerator();
+    }
+
+    private static SplittableRandom random(Spec spec, int customer) {
+        return new SplittableRandom(spec.seed() * 0x9E3779B97F4A7C15L + customer);
+    }
+
+    // Number of failures before the first success
+    private static int geometric(SplittableRandom random, double p) {
+        return p >= 1 ? 0 : (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p));
+    }
+
+    // Log-normal with the given mean
+    private static double logNormal(SplittableRandom random, double mean, double sigma) {
+        return mean * Math.exp(sigma * random.nextGaussian() - sigma * sigma / 2);
+    }
+
+    private static long cents(double amount) {
+        return Math.round(amount * 100);
+    }
+}
@@ -0,0 +1,267 @@
+package org.springmvc.ebanking.services.reconciliation;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.services.AccountIdRanges;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-of-day check that every stored balance equals openingBalance + credits - debits of its
+ * operations. Accounts are split into id ranges reconciled in parallel. Each range is read one chunk
+ * of accounts at a time into primitive arrays (ids, stored and expected balances in cents, operation
+ * counts); the chunk's operations are then streamed and added into those arrays, so memory stays
+ * at one chunk per thread however many operations there are. Both reads of a chunk share one
+ * read-only transaction, a single snapshot on MySQL (REPEATABLE READ), so live traffic does not
+ * show up as false discrepancies.
+ */
+@Component
+@Slf4j
+public class LedgerReconciliation {
+
+    private static final String ACCOUNTS =
+            "SELECT id, balance, opening_balance FROM bank_account WHERE id > ? AND id <= ? ORDER BY id LIMIT ?";
+    private static final String OPERATIONS =
+            "SELECT bank_account_id, type, amount FROM account_operation WHERE bank_account_id > ? AND bank_account_id <= ?";
+
+    public record Discrepancy(String accountId, double storedBalance, double expectedBalance, double difference, int operations) {
+    }
+
+    public record Report(Date startedAt, long elapsedMillis, long accounts, long operations, double operationsPerSecond,
+                         long discrepancies, boolean truncated, List<Discrepancy> details) {
+    }
+
+    // One chunk of accounts, sorted by id; expected starts at the opening balance and accumulates the operations
+    private static final class Chunk {
+        final byte[][] ids;
+        final long[] storedCents;
+        final long[] expectedCents;
+        final int[] operations;
+        int size;
+
+        Chunk(int capacity) {
+            ids = new byte[capacity][];
+            storedCents = new long[capacity];
+            expectedCents = new long[capacity];
+            operations = new int[capacity];
+        }
+
+        int indexOf(byte[] accountId) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int comparison = Arrays.compareUnsigned(ids[middle], accountId);
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else if (comparison > 0) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -1;
+        }
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${ebanking.reconciliation.shards:8}")
+    private int shards;
+
+    @Value("${ebanking.reconciliation.parallelism:4}")
+    private int parallelism;
+
+    @Value("${ebanking.reconciliation.chunk-size:10000}")
+    private int chunkSize;
+
+    @Value("${ebanking.reconciliation.fetch-size:5000}")
+    private int fetchSize;
+
+    @Value("${ebanking.reconciliation.max-reported:1000}")
+    private int maxReported;
+
+    // Progress of the current run
+    private final LongAdder accountsChecked = new LongAdder();
+    private final LongAdder operationsScanned = new LongAdder();
+    private final LongAdder discrepancies = new LongAdder();
+    private final AtomicLong totalAccounts = new AtomicLong();
+    private volatile long startedNanos;
+
+    private volatile Report lastReport;
+
+    public LedgerReconciliation(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // Disabled unless ebanking.reconciliation.cron is set
+    @Scheduled(cron = "${ebanking.reconciliation.cron:-}")
+    public void scheduledRun() {
+        Report report = run();
+        if (report.discrepancies() > 0) {
+            log.warn("Ledger reconciliation found {} accounts whose balance does not match their operations", report.discrepancies());
+        }
+    }
+
+    public Report run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A reconciliation is already in progress");
+        }
+        try {
+            Date startedAt = new Date();
+            startedNanos = System.nanoTime();
+            accountsChecked.reset();
+            operationsScanned.reset();
+            discrepancies.reset();
+            totalAccounts.set(entityManager.createQuery("SELECT count(a) FROM BankAccount a", Long.class).getSingleResult());
+
+            List<Discrepancy> details = Collections.synchronizedList(new ArrayList<>());
+            runInParallel(AccountIdRanges.split(entityManager, "BankAccount", shards), details);
+
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+            List<Discrepancy> sorted = new ArrayList<>(details);
+            sorted.sort(Comparator.comparingDouble((Discrepancy discrepancy) -> Math.abs(discrepancy.difference())).reversed());
+            Report report = new Report(startedAt, elapsed, accountsChecked.sum(), operationsScanned.sum(),
+                    perSecond(operationsScanned.sum(), elapsed), discrepancies.sum(), discrepancies.sum() > sorted.size(), sorted);
+            lastReport = report;
+            log.info("Reconciled {} accounts and {} operations in {} ms: {} discrepancies",
+                    report.accounts(), report.operations(), elapsed, report.discrepancies());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        boolean active = running.get();
+        stats.put("running", active);
+        if (active) {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+            long total = totalAccounts.get();
+            stats.put("accountsChecked", accountsChecked.sum());
+            stats.put("totalAccounts", total);
+            stats.put("progress", total == 0 ? 1.0 : Math.min(1.0, (double) accountsChecked.sum() / total));
+            stats.put("operationsScanned", operationsScanned.sum());
+            stats.put("operationsPerSecond", perSecond(operationsScanned.sum(), elapsed));
+            stats.put("discrepancies", discrepancies.sum());
+            stats.put("elapsedMillis", elapsed);
+        }
+        stats.put("lastReport", lastReport);
+        return stats;
+    }
+
+    private void runInParallel(List<AccountIdRanges.Range> ranges, List<Discrepancy> details) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<?>> tasks = ranges.stream()
+                    .<ForkJoinTask<?>>map(range -> pool.submit(() -> reconcileRange(range, details)))
+                    .toList();
+            tasks.forEach(ForkJoinTask::join);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void reconcileRange(AccountIdRanges.Range range, List<Discrepancy> details) {
+        Chunk chunk = new Chunk(chunkSize);
+        byte[] after = AccountIds.toBytes(range.lowerId());
+        byte[] upper = AccountIds.toBytes(range.upperId());
+        while (true) {
+            byte[] from = after;
+            readOnlyTransaction.executeWithoutResult(status -> reconcileChunk(chunk, from, upper, details));
+            if (chunk.size < chunkSize) {
+                return;
+            }
+            after = chunk.ids[chunk.size - 1];
+        }
+    }
+
+    private void reconcileChunk(Chunk chunk, byte[] after, byte[] upper, List<Discrepancy> details) {
+        chunk.size = 0;
+        jdbcTemplate.query(ACCOUNTS, rs -> {
+            int i = chunk.size++;
+            chunk.ids[i] = rs.getBytes(1);
+            chunk.storedCents[i] = cents(rs.getDouble(2));
+            chunk.expectedCents[i] = cents(rs.getDouble(3));
+            chunk.operations[i] = 0;
+        }, after, upper, chunkSize);
+        if (chunk.size == 0) {
+            return;
+        }
+
+        byte[] last = chunk.ids[chunk.size - 1];
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(OPERATIONS);
+            statement.setFetchSize(fetchSize);
+            statement.setBytes(1, after);
+            statement.setBytes(2, last);
+            return statement;
+        }, rs -> {
+            int i = chunk.indexOf(rs.getBytes(1));
+            if (i < 0) {
+                return;
+            }
+            long amount = cents(rs.getDouble(3));
+            // CREDIT or DEBIT
+            chunk.expectedCents[i] += rs.getString(2).charAt(0) == 'C' ? amount : -amount;
+            chunk.operations[i]++;
+            operationsScanned.increment();
+        });
+
+        for (int i = 0; i < chunk.size; i++) {
+            long difference = chunk.storedCents[i] - chunk.expectedCents[i];
+            if (difference != 0) {
+                discrepancies.increment();
+                synchronized (details) {
+                    if (details.size() < maxReported) {
+                        details.add(new Discrepancy(AccountIds.fromBytes(chunk.ids[i]), chunk.storedCents[i] / 100.0,
+                                chunk.expectedCents[i] / 100.0, difference / 100.0, chunk.operations[i]));
+                    }
+                }
+            }
+        }
+        accountsChecked.add(chunk.size);
+    }
+
+    // Balances are doubles; amounts are compared in whole cents so rounding noise is not a discrepancy
+    private static long cents(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    private static double perSecond(long count, long elapsedMillis) {
+        return elapsedMillis == 0 ? count : count * 1000.0 / elapsedMillis;
+    }
+}
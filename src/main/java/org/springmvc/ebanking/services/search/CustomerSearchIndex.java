@@ -0,0 +1,429 @@
+package org.springmvc.ebanking.services.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory trigram index over customer names and emails, replacing the LIKE '%keyword%' scan behind
+ * the customer search box. Every word of the query must occur in the name or the email; the posting
+ * lists of the words' trigrams are intersected and the few candidates left are checked and ranked
+ * (exact name, name prefix, word prefixes, then email). Words of one or two letters match the start
+ * of a word. The index is loaded from the database once the application is ready and then follows
+ * the customer writes as they commit; until it is loaded, callers fall back to the database.
+ */
+@Component
+@Slf4j
+public class CustomerSearchIndex {
+
+    private static final String CUSTOMERS = "SELECT id, name, email FROM customer";
+
+    public record Entry(Long id, String name, String email) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder searchNanos = new LongAdder();
+
+    @Value("${ebanking.search.customers.build-on-startup:true}")
+    private boolean buildOnStartup;
+
+    @Value("${ebanking.search.customers.fetch-size:5000}")
+    private int fetchSize;
+
+    // Guarded by lock. Null until the first build; changes committed during a build are replayed onto the new index
+    private Trigrams index;
+    private List<Consumer<Trigrams>> pending;
+    private volatile long lastBuildMillis = -1;
+
+    public CustomerSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Off the startup path: searches use the database until the index is there
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (buildOnStartup) {
+            Thread builder = new Thread(this::rebuild, "customer-search-index");
+            builder.setDaemon(true);
+            builder.start();
+        }
+    }
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return index != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isBuilding() {
+        return building.get();
+    }
+
+    // Loads every customer into a new index and swaps it in; false if a build is already running
+    public boolean rebuild() {
+        if (!building.compareAndSet(false, true)) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Trigrams built = new Trigrams();
+            jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(CUSTOMERS);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, rs -> {
+                built.put(rs.getLong(1), rs.getString(2), rs.getString(3));
+            });
+            lock.writeLock().lock();
+            try {
+                // In commit order: the scan may already have seen some of them, which replaying leaves as they are
+                pending.forEach(change -> change.accept(built));
+                index = built;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            lastBuildMillis = System.currentTimeMillis() - start;
+            log.info("Customer search index built: {} customers, {} trigrams in {} ms", built.live, built.postings.size(), lastBuildMillis);
+            return true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            building.set(false);
+        }
+    }
+
+    public void customerSaved(Long id, String name, String email) {
+        saved(List.of(new Entry(id, name, email)));
+    }
+
+    // Applied once the surrounding transaction commits, so a rolled-back write is never searchable
+    public void saved(List<Entry> entries) {
+        afterCommit(index -> entries.forEach(entry -> index.put(entry.id(), entry.name(), entry.email())));
+    }
+
+    public void customerDeleted(Long id) {
+        afterCommit(index -> index.remove(id));
+    }
+
+    // Customer ids of the requested page, best match first; an empty query lists everyone by name
+    public Page<Long> search(String query, Pageable pageable) {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            if (index == null) {
+                throw new IllegalStateException("Customer search index is not built yet");
+            }
+            return index.search(query == null ? "" : query, pageable);
+        } finally {
+            lock.readLock().unlock();
+            searches.increment();
+            searchNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("ready", index != null);
+            stats.put("customers", index != null ? index.live : 0);
+            stats.put("deletedSlots", index != null ? index.size - index.live : 0);
+            stats.put("trigrams", index != null ? index.postings.size() : 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("building", building.get());
+        stats.put("lastBuildMillis", lastBuildMillis);
+        long count = searches.sum();
+        stats.put("searches", count);
+        stats.put("averageSearchMicros", count == 0 ? 0 : searchNanos.sum() / count / 1000);
+        return stats;
+    }
+
+    private void afterCommit(Consumer<Trigrams> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<Trigrams> change) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                change.accept(index);
+            }
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static long key(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /**
+     * Documents are slots in insertion order, so every posting list is sorted just by appending. A
+     * changed customer gets a new slot and the old one is left empty; once empty slots make up a
+     * quarter of the index it is compacted. Only the normalized text is kept: results are ids.
+     */
+    private static final class Trigrams {
+
+        private final Map<Long, Postings> postings = new HashMap<>();
+        private final Map<Long, Integer> slotById = new HashMap<>();
+        private long[] ids = new long[1024];
+        private String[] names = new String[1024];
+        private String[] emails = new String[1024];
+        private int size;
+        private int live;
+
+        void put(long id, String name, String email) {
+            String normalizedName = SearchText.normalize(name);
+            String normalizedEmail = SearchText.normalize(email);
+            Integer slot = slotById.get(id);
+            if (slot != null && names[slot].equals(normalizedName) && emails[slot].equals(normalizedEmail)) {
+                return;
+            }
+            remove(id);
+            add(id, normalizedName, normalizedEmail);
+        }
+
+        private void add(long id, String name, String email) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                emails = Arrays.copyOf(emails, capacity);
+            }
+            int slot = size++;
+            ids[slot] = id;
+            names[slot] = name;
+            emails[slot] = email;
+            slotById.put(id, slot);
+            live++;
+            index(slot, name);
+            index(slot, email);
+        }
+
+        void remove(long id) {
+            Integer slot = slotById.remove(id);
+            if (slot == null) {
+                return;
+            }
+            names[slot] = null;
+            emails[slot] = null;
+            live--;
+            if (size - live > Math.max(1024, size / 4)) {
+                compact();
+            }
+        }
+
+        // Every trigram, and the first letter of every word (with its leading space) for one-letter queries
+        private void index(int slot, String text) {
+            for (int i = 0; i + 2 < text.length(); i++) {
+                postings(key(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2))).add(slot);
+                if (text.charAt(i) == ' ') {
+                    postings(key(' ', text.charAt(i + 1), (char) 0)).add(slot);
+                }
+            }
+        }
+
+        private Postings postings(long key) {
+            Postings list = postings.get(key);
+            if (list == null) {
+                list = new Postings();
+                postings.put(key, list);
+            }
+            return list;
+        }
+
+        private void compact() {
+            long[] oldIds = ids;
+            String[] oldNames = names;
+            String[] oldEmails = emails;
+            int oldSize = size;
+            postings.clear();
+            slotById.clear();
+            int capacity = Math.max(1024, Integer.highestOneBit(Math.max(1, live)) * 2);
+            ids = new long[capacity];
+            names = new String[capacity];
+            emails = new String[capacity];
+            size = 0;
+            live = 0;
+            for (int slot = 0; slot < oldSize; slot++) {
+                if (oldNames[slot] != null) {
+                    add(oldIds[slot], oldNames[slot], oldEmails[slot]);
+                }
+            }
+        }
+
+        Page<Long> search(String query, Pageable pageable) {
+            Query parsed = new Query(SearchText.normalize(query));
+            int wanted = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+            Comparator<Match> order = Comparator.comparingInt(Match::score)
+                    .thenComparingInt((Match match) -> names[match.slot()].length())
+                    .thenComparing((Match match) -> names[match.slot()])
+                    .thenComparingLong(match -> ids[match.slot()]);
+            // The worst of the best `wanted` matches sits on top
+            PriorityQueue<Match> best = new PriorityQueue<>(Math.min(wanted, 1024) + 1, order.reversed());
+            int total = 0;
+            int[] candidates = candidates(parsed.words);
+            int count = candidates == null ? size : candidates.length;
+            for (int i = 0; i < count; i++) {
+                int slot = candidates == null ? i : candidates[i];
+                if (names[slot] == null || !parsed.matches(names[slot], emails[slot])) {
+                    continue;
+                }
+                total++;
+                Match match = new Match(slot, parsed.score(names[slot], emails[slot]));
+                if (best.size() < wanted) {
+                    best.add(match);
+                } else if (order.compare(match, best.peek()) < 0) {
+                    best.poll();
+                    best.add(match);
+                }
+            }
+            List<Match> ranked = new ArrayList<>(best);
+            ranked.sort(order);
+            List<Long> page = ranked.stream()
+                    .skip(pageable.getOffset())
+                    .map(match -> ids[match.slot()])
+                    .toList();
+            return new PageImpl<>(page, pageable, total);
+        }
+
+        // Slots that contain every trigram of every word, smallest posting lists first; null means all slots
+        private int[] candidates(String[] words) {
+            Set<Long> keys = new LinkedHashSet<>();
+            for (String word : words) {
+                if (word.length() == 1) {
+                    keys.add(key(' ', word.charAt(0), (char) 0));
+                } else if (word.length() == 2) {
+                    keys.add(key(' ', word.charAt(0), word.charAt(1)));
+                } else {
+                    for (int i = 0; i + 2 < word.length(); i++) {
+                        keys.add(key(word.charAt(i), word.charAt(i + 1), word.charAt(i + 2)));
+                    }
+                }
+            }
+            if (keys.isEmpty()) {
+                return null;
+            }
+            List<Postings> lists = new ArrayList<>(keys.size());
+            for (long key : keys) {
+                Postings list = postings.get(key);
+                if (list == null) {
+                    return new int[0];
+                }
+                lists.add(list);
+            }
+            return Postings.intersect(lists);
+        }
+    }
+
+    // A normalized query and the strings it is matched with, built once per search
+    private static final class Query {
+
+        private final String phrase;
+        private final String exact;
+        private final String[] words;
+        private final String[] needles;
+        private final String[] wordStarts;
+
+        Query(String normalized) {
+            phrase = normalized.trim();
+            exact = normalized;
+            words = SearchText.words(normalized);
+            needles = new String[words.length];
+            wordStarts = new String[words.length];
+            for (int i = 0; i < words.length; i++) {
+                wordStarts[i] = " " + words[i];
+                // Trigrams can come from different places in the text: the word itself must occur
+                needles[i] = words[i].length() < 3 ? wordStarts[i] : words[i];
+            }
+        }
+
+        boolean matches(String name, String email) {
+            for (String needle : needles) {
+                if (!name.contains(needle) && !email.contains(needle)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 0 exact name, 1 name prefix, 2 every word starts a word of the name, 3 all in the name, 4 email prefix, 5 elsewhere
+        int score(String name, String email) {
+            if (words.length == 0 || name.equals(exact)) {
+                return 0;
+            }
+            if (name.startsWith(phrase, 1)) {
+                return 1;
+            }
+            boolean starts = true;
+            boolean inName = true;
+            for (int i = 0; i < words.length && inName; i++) {
+                starts &= name.contains(wordStarts[i]);
+                inName = name.contains(words[i]);
+            }
+            if (starts && inName) {
+                return 2;
+            }
+            if (inName) {
+                return 3;
+            }
+            return email.startsWith(phrase, 1) ? 4 : 5;
+        }
+    }
+
+    private record Match(int slot, int score) {
+    }
+}
@@ -0,0 +1,321 @@
+package org.springmvc.ebanking.services.search;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.entities.AccountOperation;
+import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.Customer;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Keeps LedgerSearchIndex in step with the database without slowing writes down: Hibernate reports
+ * every committed insert, update and delete of an operation, account or customer, which only queues
+ * the change. One worker thread builds the index, then applies the queue in batches, reloading
+ * changed accounts with their customer's current name. Searches are behind the writes by about a
+ * batch. Writes that bypass Hibernate (the synthetic loader) request a rebuild instead, as does a
+ * full queue.
+ */
+@Component
+@Slf4j
+public class LedgerIndexUpdater implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+
+    private static final String ACCOUNTS = "SELECT a.id, a.dtype, c.id, c.name FROM bank_account a "
+            + "LEFT JOIN customer c ON c.id = a.customer_id";
+    private static final String OPERATIONS =
+            "SELECT id, bank_account_id, operation_date, amount, type, description FROM account_operation ORDER BY id";
+
+    // What the worker does for a committed write
+    private sealed interface Change {
+    }
+
+    private record OperationAdded(LedgerSearchIndex.Operation operation) implements Change {
+    }
+
+    private record AccountChanged(String id) implements Change {
+    }
+
+    private record AccountDeleted(String id) implements Change {
+    }
+
+    private record CustomerChanged(Long id) implements Change {
+    }
+
+    private final LedgerSearchIndex index;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final BlockingQueue<Change> queue;
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder builds = new LongAdder();
+    private volatile Thread worker;
+    private volatile long lastBuildMillis = -1;
+
+    @Value("${ebanking.search.ledger.build-on-startup:true}")
+    private boolean buildOnStartup;
+
+    @Value("${ebanking.search.ledger.batch-size:500}")
+    private int batchSize;
+
+    @Value("${ebanking.search.ledger.fetch-size:5000}")
+    private int fetchSize;
+
+    public LedgerIndexUpdater(LedgerSearchIndex index, JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                              @Value("${ebanking.search.ledger.queue-capacity:100000}") int queueCapacity) {
+        this.index = index;
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    // Registered before the first build, so nothing committed after the build's scan can be missed
+    @PostConstruct
+    void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (buildOnStartup) {
+            rebuildRequested.set(true);
+        }
+        Thread thread = new Thread(this::run, "ledger-search-index");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    // The worker loads everything again before its next batch of changes
+    public void requestRebuild() {
+        rebuildRequested.set(true);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>(index.stats());
+        stats.put("queued", queue.size());
+        stats.put("applied", applied.sum());
+        stats.put("overflows", overflows.sum());
+        stats.put("builds", builds.sum());
+        stats.put("rebuildRequested", rebuildRequested.get());
+        stats.put("lastBuildMillis", lastBuildMillis);
+        return stats;
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        Class<?> type = persister.getMappedClass();
+        return AccountOperation.class.isAssignableFrom(type) || BankAccount.class.isAssignableFrom(type)
+                || Customer.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof AccountOperation operation) {
+            // The account is usually a proxy; its id is there without loading it
+            enqueue(new OperationAdded(new LedgerSearchIndex.Operation(operation.getId(), operation.getBankAccount().getId(),
+                    operation.getOperationDate(), operation.getAmount(),
+                    operation.getType() != null ? operation.getType().name() : null, operation.getDescription())));
+        } else if (event.getEntity() instanceof BankAccount account) {
+            enqueue(new AccountChanged(account.getId()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        // Balance updates are most of them and change nothing searchable
+        if (event.getEntity() instanceof BankAccount account && dirty(event, "customer")) {
+            enqueue(new AccountChanged(account.getId()));
+        } else if (event.getEntity() instanceof Customer customer && dirty(event, "name")) {
+            enqueue(new CustomerChanged(customer.getId()));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof BankAccount account) {
+            enqueue(new AccountDeleted(account.getId()));
+        }
+    }
+
+    // Failed commits were never visible, so there is nothing to index
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    private static boolean dirty(PostUpdateEvent event, String property) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return true;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int i : dirty) {
+            if (names[i].equals(property)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Never blocks the committing thread: when the worker is that far behind, reloading everything is cheaper
+    private void enqueue(Change change) {
+        if (!queue.offer(change)) {
+            overflows.increment();
+            queue.clear();
+            rebuildRequested.set(true);
+        }
+    }
+
+    private void run() {
+        List<Change> batch = new ArrayList<>(batchSize);
+        while (worker == Thread.currentThread()) {
+            try {
+                if (rebuildRequested.getAndSet(false)) {
+                    build();
+                }
+                Change first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                apply(batch);
+                applied.add(batch.size());
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // The changes are lost for this index; rebuild it rather than keep it silently stale
+                log.warn("Could not apply {} changes to the ledger search index; rebuilding it", batch.size(), e);
+                rebuildRequested.set(true);
+                LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(5));
+            }
+            batch.clear();
+        }
+    }
+
+    private void build() {
+        long start = System.currentTimeMillis();
+        LedgerSearchIndex.Segment built = index.newSegment();
+        jdbcTemplate.query(ACCOUNTS, rs -> {
+            built.putAccount(account(rs));
+        });
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(OPERATIONS);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, rs -> {
+            built.addOperation(operation(rs));
+        });
+        // Changes queued during the scan are applied next; operations it already saw are skipped then
+        built.loaded();
+        index.swap(built);
+        builds.increment();
+        lastBuildMillis = System.currentTimeMillis() - start;
+        log.info("Ledger search index built in {} ms: {}", lastBuildMillis, index.stats());
+    }
+
+    private void apply(List<Change> batch) {
+        Set<String> changedAccounts = new LinkedHashSet<>();
+        Set<Long> changedCustomers = new LinkedHashSet<>();
+        List<String> deletedAccounts = new ArrayList<>();
+        List<LedgerSearchIndex.Operation> operations = new ArrayList<>();
+        for (Change change : batch) {
+            if (change instanceof OperationAdded added) {
+                operations.add(added.operation());
+            } else if (change instanceof AccountChanged account) {
+                changedAccounts.add(account.id());
+            } else if (change instanceof AccountDeleted account) {
+                deletedAccounts.add(account.id());
+            } else if (change instanceof CustomerChanged customer) {
+                changedCustomers.add(customer.id());
+            }
+        }
+        // Read outside the index lock, so searches only wait for the in-memory part
+        List<LedgerSearchIndex.Account> accounts = new ArrayList<>();
+        if (!changedAccounts.isEmpty()) {
+            List<Object> ids = changedAccounts.stream().<Object>map(AccountIds::toBytes).toList();
+            accounts.addAll(jdbcTemplate.query(ACCOUNTS + " WHERE a.id IN (" + placeholders(ids) + ")",
+                    (rs, row) -> account(rs), ids.toArray()));
+        }
+        if (!changedCustomers.isEmpty()) {
+            List<Object> ids = new ArrayList<>(changedCustomers);
+            accounts.addAll(jdbcTemplate.query(ACCOUNTS + " WHERE a.customer_id IN (" + placeholders(ids) + ")",
+                    (rs, row) -> account(rs), ids.toArray()));
+        }
+        index.update(segment -> {
+            accounts.forEach(segment::putAccount);
+            operations.forEach(segment::addOperation);
+            deletedAccounts.forEach(id -> segment.removeAccount(id, true));
+        });
+    }
+
+    private static String placeholders(Collection<?> values) {
+        return String.join(", ", Collections.nCopies(values.size(), "?"));
+    }
+
+    private static LedgerSearchIndex.Account account(ResultSet rs) throws SQLException {
+        long customerId = rs.getLong(3);
+        return new LedgerSearchIndex.Account(AccountIds.fromBytes(rs.getBytes(1)), rs.getString(2),
+                rs.wasNull() ? null : customerId, rs.getString(4));
+    }
+
+    private static LedgerSearchIndex.Operation operation(ResultSet rs) throws SQLException {
+        return new LedgerSearchIndex.Operation(rs.getLong(1), AccountIds.fromBytes(rs.getBytes(2)), rs.getTimestamp(3),
+                rs.getDouble(4), rs.getString(5), rs.getString(6));
+    }
+}
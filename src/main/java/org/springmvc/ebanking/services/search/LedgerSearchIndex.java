@@ -0,0 +1,441 @@
+package org.springmvc.ebanking.services.search;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Embedded full-text index over accounts (id, customer name, type) and operations (description,
+ * amount, date, type), kept in memory: analyzed words with sorted posting lists, plus one column
+ * per field for filters and facet counts. Every query word must match the start of an indexed word;
+ * whole-word matches rank first, then newest operations (or customer name for accounts). Facet
+ * counts ignore their own filter, so choosing a type still shows how many hits the other type has.
+ * LedgerIndexUpdater loads it from the database and applies the writes after they commit.
+ */
+@Component
+public class LedgerSearchIndex {
+
+    public record Account(String id, String type, Long customerId, String customerName) {
+    }
+
+    public record Operation(Long id, String accountId, Date date, double amount, String type, String description) {
+    }
+
+    public record AccountQuery(String text, String type) {
+    }
+
+    public record OperationQuery(String text, String type, Date from, Date to, Double minAmount, Double maxAmount,
+                                 String accountId) {
+    }
+
+    public record Result<T>(List<T> hits, long total, int page, int size, Map<String, Map<String, Long>> facets) {
+    }
+
+    // Range facets over operation dates, counted back from the time of the search
+    private static final String[] DATE_RANGES = {"last24Hours", "last7Days", "last30Days", "lastYear", "older"};
+    private static final long[] DATE_RANGE_MILLIS = {
+            TimeUnit.DAYS.toMillis(1), TimeUnit.DAYS.toMillis(7), TimeUnit.DAYS.toMillis(30), TimeUnit.DAYS.toMillis(365)};
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; null until the first build
+    private Segment segment;
+
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return segment != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Segment newSegment() {
+        return new Segment();
+    }
+
+    void swap(Segment built) {
+        lock.writeLock().lock();
+        try {
+            segment = built;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void update(Consumer<Segment> change) {
+        lock.writeLock().lock();
+        try {
+            if (segment != null) {
+                change.accept(segment);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Result<Account> searchAccounts(AccountQuery query, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            return ready().searchAccounts(query, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Result<Operation> searchOperations(OperationQuery query, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            return ready().searchOperations(query, pageable, System.currentTimeMillis());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("ready", segment != null);
+            if (segment != null) {
+                stats.put("accounts", segment.accountSlotById.size());
+                stats.put("operations", segment.operationCount - segment.deletedOperations);
+                stats.put("deletedSlots", segment.accountCount - segment.accountSlotById.size() + segment.deletedOperations);
+                stats.put("accountTerms", segment.accountTerms.size());
+                stats.put("operationTerms", segment.operationTerms.size());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return stats;
+    }
+
+    private Segment ready() {
+        if (segment == null) {
+            throw new IllegalStateException("Ledger search index is not built yet");
+        }
+        return segment;
+    }
+
+    /**
+     * One generation of the index. Documents are slots in insertion order, so posting lists stay
+     * sorted by appending. A changed account gets a new slot and its old one is emptied; operations
+     * are append-only and only leave with their account. A rebuild starts a new segment, which also
+     * reclaims the empty slots.
+     */
+    static final class Segment {
+
+        // Accounts
+        private final TreeMap<String, Postings> accountTerms = new TreeMap<>();
+        private final Map<String, Integer> accountSlotById = new HashMap<>();
+        private final List<String> accountTypes = new ArrayList<>();
+        private String[] accountIds = new String[1024];
+        private byte[] accountTypeOf = new byte[1024];
+        private Long[] customerIds = new Long[1024];
+        private String[] customerNames = new String[1024];
+        private String[] accountText = new String[1024];
+        private int accountCount;
+
+        // Operations; the account is an ordinal into operationAccounts
+        private final TreeMap<String, Postings> operationTerms = new TreeMap<>();
+        private final Map<String, Integer> accountOrdinals = new HashMap<>();
+        private final List<String> operationAccounts = new ArrayList<>();
+        private final Map<Integer, Postings> operationsByAccount = new HashMap<>();
+        private final List<String> operationTypes = new ArrayList<>();
+        private final Map<String, String[]> descriptions = new HashMap<>();
+        private long[] operationIds = new long[4096];
+        private int[] operationAccountOf = new int[4096];
+        private long[] operationDates = new long[4096];
+        private double[] operationAmounts = new double[4096];
+        private byte[] operationTypeOf = new byte[4096];
+        private String[] operationDescriptions = new String[4096];
+        private String[] operationText = new String[4096];
+        private int operationCount;
+        private int deletedOperations;
+        // Operations [0, loadedOperations) came from the build in id order, so a replayed insert is found by binary search
+        private int loadedOperations;
+
+        void putAccount(Account account) {
+            removeAccount(account.id(), false);
+            if (accountCount == accountIds.length) {
+                int capacity = accountCount * 2;
+                accountIds = Arrays.copyOf(accountIds, capacity);
+                accountTypeOf = Arrays.copyOf(accountTypeOf, capacity);
+                customerIds = Arrays.copyOf(customerIds, capacity);
+                customerNames = Arrays.copyOf(customerNames, capacity);
+                accountText = Arrays.copyOf(accountText, capacity);
+            }
+            int slot = accountCount++;
+            accountIds[slot] = account.id();
+            accountTypeOf[slot] = ordinal(accountTypes, account.type());
+            customerIds[slot] = account.customerId();
+            customerNames[slot] = account.customerName();
+            // The id's groups and the customer's id and name are searchable
+            String text = SearchText.normalize(account.id() + " " + (account.customerId() != null ? account.customerId() : "")
+                    + " " + (account.customerName() != null ? account.customerName() : ""));
+            accountText[slot] = text;
+            for (String word : SearchText.words(text)) {
+                accountTerms.computeIfAbsent(word, key -> new Postings()).add(slot);
+            }
+            accountSlotById.put(account.id(), slot);
+        }
+
+        // The account and, when it is deleted rather than changed, its operations
+        void removeAccount(String id, boolean withOperations) {
+            Integer slot = accountSlotById.remove(id);
+            if (slot != null) {
+                accountIds[slot] = null;
+                accountText[slot] = null;
+            }
+            Integer ordinal = accountOrdinals.get(id);
+            if (withOperations && ordinal != null) {
+                Postings operations = operationsByAccount.remove(ordinal);
+                if (operations != null) {
+                    for (int operation : operations.toArray()) {
+                        if (operationAccountOf[operation] >= 0) {
+                            operationAccountOf[operation] = -1;
+                            deletedOperations++;
+                        }
+                    }
+                }
+            }
+        }
+
+        void addOperation(Operation operation) {
+            if (operation.id() != null && loadedOperations > 0
+                    && Arrays.binarySearch(operationIds, 0, loadedOperations, operation.id()) >= 0) {
+                return;
+            }
+            if (operationCount == operationIds.length) {
+                int capacity = operationCount * 2;
+                operationIds = Arrays.copyOf(operationIds, capacity);
+                operationAccountOf = Arrays.copyOf(operationAccountOf, capacity);
+                operationDates = Arrays.copyOf(operationDates, capacity);
+                operationAmounts = Arrays.copyOf(operationAmounts, capacity);
+                operationTypeOf = Arrays.copyOf(operationTypeOf, capacity);
+                operationDescriptions = Arrays.copyOf(operationDescriptions, capacity);
+                operationText = Arrays.copyOf(operationText, capacity);
+            }
+            int slot = operationCount++;
+            int account = accountOrdinals.computeIfAbsent(operation.accountId(), id -> {
+                operationAccounts.add(id);
+                return operationAccounts.size() - 1;
+            });
+            operationIds[slot] = operation.id() != null ? operation.id() : -1;
+            operationAccountOf[slot] = account;
+            operationDates[slot] = operation.date() != null ? operation.date().getTime() : 0;
+            operationAmounts[slot] = operation.amount();
+            operationTypeOf[slot] = ordinal(operationTypes, operation.type());
+            // Most descriptions repeat ("Credit", "Transfer to ..."): one copy of each, and of its analyzed text
+            String[] description = descriptions.computeIfAbsent(operation.description() != null ? operation.description() : "",
+                    text -> new String[]{text, SearchText.normalize(text)});
+            operationDescriptions[slot] = description[0];
+            operationText[slot] = description[1];
+            for (String word : SearchText.words(operationText[slot])) {
+                operationTerms.computeIfAbsent(word, key -> new Postings()).add(slot);
+            }
+            operationsByAccount.computeIfAbsent(account, key -> new Postings()).add(slot);
+        }
+
+        // Called once the build has loaded every operation in id order
+        void loaded() {
+            loadedOperations = operationCount;
+        }
+
+        Result<Account> searchAccounts(AccountQuery query, Pageable pageable) {
+            String[] words = SearchText.words(SearchText.normalize(query.text()));
+            int[] candidates = candidates(accountTerms, words);
+            int typeFilter = query.type() == null || query.type().isBlank() ? -1 : accountTypes.indexOf(query.type());
+            Comparator<Match> order = Comparator.comparingInt((Match match) -> -match.score())
+                    .thenComparing(match -> customerNames[match.slot()] != null ? customerNames[match.slot()] : "")
+                    .thenComparing(match -> accountIds[match.slot()]);
+            TopHits top = new TopHits(pageable, order);
+            long[] byType = new long[accountTypes.size()];
+            int count = candidates == null ? accountCount : candidates.length;
+            for (int i = 0; i < count; i++) {
+                int slot = candidates == null ? i : candidates[i];
+                if (accountIds[slot] == null) {
+                    continue;
+                }
+                byType[accountTypeOf[slot]]++;
+                if (query.type() != null && !query.type().isBlank() && accountTypeOf[slot] != typeFilter) {
+                    continue;
+                }
+                top.offer(new Match(slot, score(accountText[slot], words)));
+            }
+            List<Account> hits = top.ranked().stream()
+                    .map(slot -> new Account(accountIds[slot], accountTypes.get(accountTypeOf[slot]), customerIds[slot], customerNames[slot]))
+                    .toList();
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put("type", counts(accountTypes, byType));
+            return new Result<>(hits, top.total, pageable.getPageNumber(), pageable.getPageSize(), facets);
+        }
+
+        Result<Operation> searchOperations(OperationQuery query, Pageable pageable, long now) {
+            String[] words = SearchText.words(SearchText.normalize(query.text()));
+            int[] candidates = candidates(operationTerms, words);
+            if (query.accountId() != null && !query.accountId().isBlank()) {
+                Integer ordinal = accountOrdinals.get(query.accountId());
+                Postings ofAccount = ordinal != null ? operationsByAccount.get(ordinal) : null;
+                if (ofAccount == null) {
+                    candidates = new int[0];
+                } else if (candidates == null) {
+                    candidates = ofAccount.toArray();
+                } else {
+                    Postings matched = new Postings();
+                    for (int slot : candidates) {
+                        matched.add(slot);
+                    }
+                    candidates = Postings.intersect(new ArrayList<>(List.of(matched, ofAccount)));
+                }
+            }
+            int typeFilter = query.type() == null || query.type().isBlank() ? -1 : operationTypes.indexOf(query.type());
+            long from = query.from() != null ? query.from().getTime() : Long.MIN_VALUE;
+            long to = query.to() != null ? query.to().getTime() : Long.MAX_VALUE;
+            Comparator<Match> order = Comparator.comparingInt((Match match) -> -match.score())
+                    .thenComparingLong(match -> -operationDates[match.slot()])
+                    .thenComparingLong(match -> -operationIds[match.slot()]);
+            TopHits top = new TopHits(pageable, order);
+            long[] byType = new long[operationTypes.size()];
+            long[] byDate = new long[DATE_RANGES.length];
+            int count = candidates == null ? operationCount : candidates.length;
+            for (int i = 0; i < count; i++) {
+                int slot = candidates == null ? i : candidates[i];
+                if (operationAccountOf[slot] < 0) {
+                    continue;
+                }
+                double amount = operationAmounts[slot];
+                if ((query.minAmount() != null && amount < query.minAmount()) || (query.maxAmount() != null && amount > query.maxAmount())) {
+                    continue;
+                }
+                long date = operationDates[slot];
+                boolean typeMatches = query.type() == null || query.type().isBlank() || operationTypeOf[slot] == typeFilter;
+                boolean dateMatches = date >= from && date < to;
+                if (dateMatches) {
+                    byType[operationTypeOf[slot]]++;
+                }
+                if (typeMatches) {
+                    countDate(byDate, now - date);
+                }
+                if (typeMatches && dateMatches) {
+                    top.offer(new Match(slot, score(operationText[slot], words)));
+                }
+            }
+            List<Operation> hits = top.ranked().stream()
+                    .map(slot -> new Operation(operationIds[slot], operationAccounts.get(operationAccountOf[slot]),
+                            new Date(operationDates[slot]), operationAmounts[slot], operationTypes.get(operationTypeOf[slot]),
+                            operationDescriptions[slot]))
+                    .toList();
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put("type", counts(operationTypes, byType));
+            facets.put("date", counts(Arrays.asList(DATE_RANGES), byDate));
+            return new Result<>(hits, top.total, pageable.getPageNumber(), pageable.getPageSize(), facets);
+        }
+
+        // Slots holding a word starting with each query word; null means every slot
+        private static int[] candidates(TreeMap<String, Postings> terms, String[] words) {
+            if (words.length == 0) {
+                return null;
+            }
+            List<Postings> perWord = new ArrayList<>(words.length);
+            for (String word : words) {
+                List<Postings> expanded = new ArrayList<>(terms.subMap(word, true, word + Character.MAX_VALUE, false).values());
+                if (expanded.isEmpty()) {
+                    return new int[0];
+                }
+                perWord.add(Postings.union(expanded));
+            }
+            return Postings.intersect(perWord);
+        }
+
+        // Two points for each query word found whole, one for a word it only starts
+        private static int score(String text, String[] words) {
+            int score = 0;
+            for (String word : words) {
+                score += text.contains(" " + word + " ") ? 2 : 1;
+            }
+            return score;
+        }
+
+        // Ranges overlap: an operation of yesterday counts in the last 7 days too
+        private static void countDate(long[] byDate, long age) {
+            boolean inRange = false;
+            for (int r = 0; r < DATE_RANGE_MILLIS.length; r++) {
+                if (age <= DATE_RANGE_MILLIS[r]) {
+                    byDate[r]++;
+                    inRange = true;
+                }
+            }
+            if (!inRange) {
+                byDate[DATE_RANGES.length - 1]++;
+            }
+        }
+
+        private static Map<String, Long> counts(List<String> names, long[] counts) {
+            Map<String, Long> facet = new LinkedHashMap<>();
+            for (int i = 0; i < counts.length; i++) {
+                facet.put(names.get(i), counts[i]);
+            }
+            return facet;
+        }
+
+        private static byte ordinal(List<String> values, String value) {
+            String name = value != null ? value : "UNKNOWN";
+            int ordinal = values.indexOf(name);
+            if (ordinal < 0) {
+                values.add(name);
+                ordinal = values.size() - 1;
+            }
+            return (byte) ordinal;
+        }
+    }
+
+    private record Match(int slot, int score) {
+    }
+
+    // The best offset + size matches seen so far, and how many matched in all
+    private static final class TopHits {
+
+        private final Pageable pageable;
+        private final int wanted;
+        private final Comparator<Match> order;
+        private final PriorityQueue<Match> best;
+        private long total;
+
+        TopHits(Pageable pageable, Comparator<Match> order) {
+            this.pageable = pageable;
+            this.wanted = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+            this.order = order;
+            // The worst of the best sits on top
+            this.best = new PriorityQueue<>(Math.min(wanted, 1024) + 1, order.reversed());
+        }
+
+        void offer(Match match) {
+            total++;
+            if (best.size() < wanted) {
+                best.add(match);
+            } else if (order.compare(match, best.peek()) < 0) {
+                best.poll();
+                best.add(match);
+            }
+        }
+
+        List<Integer> ranked() {
+            List<Match> ranked = new ArrayList<>(best);
+            ranked.sort(order);
+            return ranked.stream().skip(pageable.getOffset()).map(Match::slot).toList();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.springmvc.ebanking.services.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Sorted document slots of one term. Slots only grow, so appending keeps the list sorted
+final class Postings {
+
+    private int[] slots = new int[4];
+    private int size;
+
+    // A slot is added once however often the term occurs in it
+    void add(int slot) {
+        if (size > 0 && slots[size - 1] == slot) {
+            return;
+        }
+        if (size == slots.length) {
+            slots = Arrays.copyOf(slots, size * 2);
+        }
+        slots[size++] = slot;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(slots, size);
+    }
+
+    // Slots in every list, starting from the shortest one
+    static int[] intersect(List<Postings> lists) {
+        lists.sort(Comparator.comparingInt(Postings::size));
+        int[] result = lists.get(0).toArray();
+        int length = result.length;
+        for (int l = 1; l < lists.size() && length > 0; l++) {
+            length = lists.get(l).retain(result, length);
+        }
+        return Arrays.copyOf(result, length);
+    }
+
+    // Slots in any of the lists, sorted and without duplicates
+    static Postings union(List<Postings> lists) {
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        int total = 0;
+        for (Postings list : lists) {
+            total += list.size;
+        }
+        int[] all = new int[total];
+        int length = 0;
+        for (Postings list : lists) {
+            System.arraycopy(list.slots, 0, all, length, list.size);
+            length += list.size;
+        }
+        Arrays.sort(all);
+        Postings union = new Postings();
+        union.slots = all;
+        int kept = 0;
+        for (int i = 0; i < length; i++) {
+            if (kept == 0 || all[kept - 1] != all[i]) {
+                all[kept++] = all[i];
+            }
+        }
+        union.size = kept;
+        return union;
+    }
+
+    // Keeps in `into` the slots also in this list, searching this list instead of walking it
+    private int retain(int[] into, int length) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < length && from < size; i++) {
+            int found = Arrays.binarySearch(slots, from, size, into[i]);
+            if (found >= 0) {
+                into[kept++] = into[i];
+                from = found + 1;
+            } else {
+                from = -found - 1;
+            }
+        }
+        return kept;
+    }
+}
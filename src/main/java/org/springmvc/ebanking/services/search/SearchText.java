@@ -0,0 +1,41 @@
+package org.springmvc.ebanking.services.search;
+
+import java.text.Normalizer;
+
+// Text analysis shared by the search indexes: what is indexed and what is queried go through the same steps
+final class SearchText {
+
+    private static final String[] NO_WORDS = new String[0];
+
+    private SearchText() {
+    }
+
+    // Lower case without accents, anything but letters and digits as single spaces, padded with a space on both sides
+    static String normalize(String text) {
+        if (text == null) {
+            return " ";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length() + 2).append(' ');
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+            } else if (normalized.charAt(normalized.length() - 1) != ' ') {
+                normalized.append(' ');
+            }
+        }
+        if (normalized.charAt(normalized.length() - 1) != ' ') {
+            normalized.append(' ');
+        }
+        return normalized.toString();
+    }
+
+    static String[] words(String normalized) {
+        String trimmed = normalized.trim();
+        return trimmed.isEmpty() ? NO_WORDS : trimmed.split(" ");
+    }
+}
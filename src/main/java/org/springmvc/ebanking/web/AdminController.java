@@ -0,0 +1,328 @@
+package org.springmvc.ebanking.web;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springmvc.ebanking.config.VirtualThreadPinningMonitor;
+import org.springmvc.ebanking.entities.InDoubtTransfer;
+import org.springmvc.ebanking.exceptions.BankAccountNotFoundException;
+import org.springmvc.ebanking.security.TokenVersionRegistry;
+import org.springmvc.ebanking.services.CustomerSummaryService;
+import org.springmvc.ebanking.services.DashboardFanOut;
+import org.springmvc.ebanking.services.EntityCacheMetrics;
+import org.springmvc.ebanking.services.PrincipalResolver;
+import org.springmvc.ebanking.services.StartupMetrics;
+import org.springmvc.ebanking.services.TransferMetrics;
+import org.springmvc.ebanking.services.interest.InterestAccrualJob;
+import org.springmvc.ebanking.services.loader.SyntheticDataLoader;
+import org.springmvc.ebanking.services.reconciliation.LedgerReconciliation;
+import org.springmvc.ebanking.services.search.CustomerSearchIndex;
+import org.springmvc.ebanking.services.search.LedgerIndexUpdater;
+import org.springmvc.ebanking.services.search.LedgerSearchIndex;
+import org.springmvc.ebanking.services.ledger.InDoubtTransfers;
+import org.springmvc.ebanking.services.ledger.JournalApplier;
+import org.springmvc.ebanking.services.ledger.LedgerJournal;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@AllArgsConstructor
+@Slf4j
+public class AdminController {
+
+    private final TransferMetrics transferMetrics;
+    private final ObjectProvider<LedgerJournal> ledgerJournal;
+    private final ObjectProvider<JournalApplier> journalApplier;
+    private final ObjectProvider<InDoubtTransfers> inDoubtTransfers;
+    private final CustomerSummaryService customerSummaryService;
+    private final PrincipalResolver principalResolver;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final EntityCacheMetrics entityCacheMetrics;
+    private final ObjectProvider<InterestAccrualJob> interestAccrualJob;
+    private final LedgerReconciliation ledgerReconciliation;
+    private final SyntheticDataLoader syntheticDataLoader;
+    private final StartupMetrics startupMetrics;
+    private final DashboardFanOut dashboardFanOut;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final LedgerSearchIndex ledgerSearchIndex;
+    private final LedgerIndexUpdater ledgerIndexUpdater;
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+
+    @GetMapping("/metrics/transfers")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> transferMetrics() {
+        log.info("Fetching transfer engine metrics");
+        return ResponseEntity.ok(transferMetrics.snapshot());
+    }
+
+    @GetMapping("/metrics/journal")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> journalMetrics() {
+        LedgerJournal journal = ledgerJournal.getIfAvailable();
+        if (journal == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>(journal.stats());
+        stats.putAll(journalApplier.getObject().stats());
+        return ResponseEntity.ok(stats);
+    }
+
+    // Sharded transfers whose credit leg had no definite outcome and are not settled yet, with counters
+    @GetMapping("/ledger/in-doubt-transfers")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> inDoubtTransfers() {
+        InDoubtTransfers transfers = inDoubtTransfers.getIfAvailable();
+        if (transfers == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        Map<String, Object> body = new LinkedHashMap<>(transfers.stats());
+        body.put("open", transfers.open());
+        return ResponseEntity.ok(body);
+    }
+
+    // reverse=true gives the debit back; reverse=false closes the transfer as applied, after checking the account history
+    @PostMapping("/ledger/in-doubt-transfers/{id}/settle")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<InDoubtTransfer> settleInDoubtTransfer(@PathVariable Long id, @RequestParam boolean reverse) {
+        InDoubtTransfers transfers = inDoubtTransfers.getIfAvailable();
+        if (transfers == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        log.info("Settling in-doubt transfer {}, reverse={}", id, reverse);
+        try {
+            return ResponseEntity.ok(transfers.settle(id, reverse));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        } catch (IllegalStateException e) {
+            log.warn("Could not settle in-doubt transfer {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (BankAccountNotFoundException e) {
+            log.warn("Could not reverse in-doubt transfer {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    @GetMapping("/metrics/principal-cache")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> principalCacheMetrics() {
+        return ResponseEntity.ok(principalResolver.stats());
+    }
+
+    @GetMapping("/metrics/entity-cache")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> entityCacheMetrics() {
+        return ResponseEntity.ok(entityCacheMetrics.snapshot());
+    }
+
+    @GetMapping("/metrics/startup")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> startupMetrics() {
+        return ResponseEntity.ok(startupMetrics.snapshot());
+    }
+
+    @GetMapping("/metrics/dashboard")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> dashboardMetrics() {
+        return ResponseEntity.ok(dashboardFanOut.stats());
+    }
+
+    // Only with virtual threads enabled on a Java 21+ runtime
+    @GetMapping("/metrics/virtual-threads")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> virtualThreadMetrics() {
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        return monitor != null ? ResponseEntity.ok(monitor.stats()) : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    @GetMapping("/metrics/interest")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> interestMetrics() {
+        InterestAccrualJob job = interestAccrualJob.getIfAvailable();
+        return job != null ? ResponseEntity.ok(job.stats()) : ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+    }
+
+    // Runs (or resumes) the accrual for one day, by default yesterday; blocks until every partition is done
+    @PostMapping("/interest/accrue")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<InterestAccrualJob.AccrualReport> accrueInterest(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        InterestAccrualJob job = interestAccrualJob.getIfAvailable();
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (job.isRunning()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        LocalDate accrualDate = date != null ? date : LocalDate.now().minusDays(1);
+        log.info("Accruing interest for {}", accrualDate);
+        try {
+            return ResponseEntity.ok(job.accrue(accrualDate));
+        } catch (Exception e) {
+            log.error("Interest accrual for {} failed: {}", accrualDate, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Progress of a running reconciliation and the last report
+    @GetMapping("/reconciliation")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> reconciliation() {
+        return ResponseEntity.ok(ledgerReconciliation.stats());
+    }
+
+    // Checks every balance against its operations; blocks until the report is ready
+    @PostMapping("/reconciliation/run")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<LedgerReconciliation.Report> runReconciliation() {
+        if (ledgerReconciliation.isRunning()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        log.info("Running ledger reconciliation");
+        try {
+            return ResponseEntity.ok(ledgerReconciliation.run());
+        } catch (Exception e) {
+            log.error("Ledger reconciliation failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/metrics/customer-search")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> customerSearchMetrics() {
+        return ResponseEntity.ok(customerSearchIndex.stats());
+    }
+
+    // Reloads the customer search index from the database, e.g. after customers were written outside the application
+    @PostMapping("/search/customers/rebuild")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildCustomerSearch() {
+        if (!customerSearchIndex.rebuild()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Customer search index is already being built"));
+        }
+        return ResponseEntity.ok(customerSearchIndex.stats());
+    }
+
+    // Accounts by id, customer id or customer name, served by the ledger search index; 503 until it is built
+    @GetMapping("/search/accounts")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<LedgerSearchIndex.Result<LedgerSearchIndex.Account>> searchAccounts(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (!ledgerSearchIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(ledgerSearchIndex.searchAccounts(new LedgerSearchIndex.AccountQuery(q, type),
+                PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, 100)))));
+    }
+
+    // Operations by description words, filtered by type, day range (both days included), amount and account
+    @GetMapping("/search/operations")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<LedgerSearchIndex.Result<LedgerSearchIndex.Operation>> searchOperations(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Double minAmount,
+            @RequestParam(required = false) Double maxAmount,
+            @RequestParam(required = false) String accountId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        if (!ledgerSearchIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        LedgerSearchIndex.OperationQuery query = new LedgerSearchIndex.OperationQuery(q, type,
+                from != null ? Date.from(from.atStartOfDay(zone).toInstant()) : null,
+                to != null ? Date.from(to.plusDays(1).atStartOfDay(zone).toInstant()) : null,
+                minAmount, maxAmount, accountId);
+        return ResponseEntity.ok(ledgerSearchIndex.searchOperations(query,
+                PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, 100)))));
+    }
+
+    @GetMapping("/metrics/ledger-search")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> ledgerSearchMetrics() {
+        return ResponseEntity.ok(ledgerIndexUpdater.stats());
+    }
+
+    // Reloads the ledger search index in the background; searches keep using the current one meanwhile
+    @PostMapping("/search/ledger/rebuild")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildLedgerSearch() {
+        ledgerIndexUpdater.requestRebuild();
+        return ResponseEntity.accepted().body(ledgerIndexUpdater.stats());
+    }
+
+    // Generates (or finishes) a synthetic dataset; parameters default to ebanking.loader.synthetic.*
+    @PostMapping("/loader/synthetic")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<SyntheticDataLoader.Report> loadSyntheticData(
+            @RequestParam(required = false) String tag,
+            @RequestParam(required = false) Integer customers,
+            @RequestParam(required = false) Double accountsPerCustomer,
+            @RequestParam(required = false) Double operationsPerAccount,
+            @RequestParam(required = false) Integer days,
+            @RequestParam(required = false) Long seed) {
+        if (syntheticDataLoader.isRunning()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        SyntheticDataLoader.Spec defaults = syntheticDataLoader.configuredSpec();
+        SyntheticDataLoader.Spec spec = new SyntheticDataLoader.Spec(
+                tag != null ? tag : defaults.tag(),
+                customers != null ? customers : defaults.customers(),
+                accountsPerCustomer != null ? accountsPerCustomer : defaults.accountsPerCustomer(),
+                operationsPerAccount != null ? operationsPerAccount : defaults.operationsPerAccount(),
+                days != null ? days : defaults.days(),
+                seed != null ? seed : defaults.seed());
+        log.info("Loading synthetic dataset {}", spec);
+        try {
+            return ResponseEntity.ok(syntheticDataLoader.load(spec));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Synthetic load of {} failed: {}", spec.tag(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    // Forced logout: every token issued to the user so far is rejected from now on
+    @PostMapping("/users/{username}/revoke-tokens")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Void> revokeTokens(@PathVariable String username) {
+        log.info("Revoking tokens of user {}", username);
+        tokenVersionRegistry.revoke(username);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Recomputes every customer summary from the accounts and operations tables
+    @PostMapping("/summaries/rebuild")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildSummaries() {
+        log.info("Rebuilding customer summaries");
+        try {
+            return ResponseEntity.ok(Map.of("rebuilt", customerSummaryService.rebuildAll()));
+        } catch (Exception e) {
+            log.error("Error rebuilding customer summaries: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+}
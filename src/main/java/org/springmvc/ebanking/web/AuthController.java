@@ -18,6 +18,7 @@ import org.springmvc.ebanking.entities.User;
 import org.springmvc.ebanking.repositories.RoleRepository;
 import org.springmvc.ebanking.repositories.UserRepository;
 import org.springmvc.ebanking.security.JwtTokenProvider;
+import org.springmvc.ebanking.security.TokenVersionRegistry;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -33,6 +34,7 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenVersionRegistry tokenVersionRegistry;
 
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody RegisterDto registerDto) {
@@ -115,6 +117,8 @@ public class AuthController {
             // Update with new password
             user.setPassword(passwordEncoder.encode(passwordChangeDto.getNewPassword()));
             userRepository.save(user);
+            // Tokens issued with the old password stop working, including the one used for this request
+            tokenVersionRegistry.revoke(username);
 
             log.info("Password changed successfully for user: {}", username);
             return ResponseEntity.ok(new SuccessResponse("Password changed successfully"));
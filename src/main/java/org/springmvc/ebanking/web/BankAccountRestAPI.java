@@ -4,6 +4,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -15,7 +19,10 @@ import org.springmvc.ebanking.exceptions.BalanceNotSufficientException;
 import org.springmvc.ebanking.exceptions.BankAccountNotFoundException;
 import org.springmvc.ebanking.exceptions.CustomerNotFoundException;
 import org.springmvc.ebanking.services.BankAccountsService;
+import org.springmvc.ebanking.services.OperationExportService;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,9 +33,11 @@ import java.util.Map;
 public class BankAccountRestAPI {
 
     private final BankAccountsService bankAccountService;
+    private final OperationExportService operationExportService;
 
-    public BankAccountRestAPI(BankAccountsService bankAccountService) {
+    public BankAccountRestAPI(BankAccountsService bankAccountService, OperationExportService operationExportService) {
         this.bankAccountService = bankAccountService;
+        this.operationExportService = operationExportService;
     }
 
     @GetMapping("/accounts/{accountId}")
@@ -145,6 +154,46 @@ public class BankAccountRestAPI {
         return bankAccountService.getAccountHistory(accountId, page, size);
     }
 
+    // Full history as NDJSON or CSV, streamed from a database cursor; from/to are inclusive days
+    @GetMapping("/accounts/{accountId}/operations/export")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportOperations(
+            @PathVariable String accountId,
+            @RequestParam(name = "format", defaultValue = "ndjson") String format,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) throws BankAccountNotFoundException {
+        log.info("Exporting operations of account: {}, format: {}, gzip: {}, from: {}, to: {}", accountId, format, gzip, from, to);
+        OperationExportService.Format exportFormat;
+        try {
+            exportFormat = OperationExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        operationExportService.checkAccount(accountId);
+        String filename = "operations-" + accountId + "." + exportFormat.extension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> operationExportService.export(accountId, from, to, exportFormat, gzip, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    // Cursor-based history: constant cost per page however deep the client scrolls
+    @GetMapping("/accounts/{accountId}/operations/scroll")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    public ResponseEntity<?> scrollAccountHistory(
+            @PathVariable String accountId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "20") int size) throws BankAccountNotFoundException {
+        log.info("Scrolling history for account: {}, size: {}", accountId, size);
+        try {
+            return ResponseEntity.ok(bankAccountService.scrollAccountHistory(accountId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // ADMIN-ONLY: For in-agency transactions
     @PostMapping("/accounts/debit")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -269,5 +318,20 @@ public class BankAccountRestAPI {
         return ResponseEntity.ok(history);
     }
 
+    @GetMapping("/transactions/history/scroll")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    public ResponseEntity<?> scrollTransactionHistory(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10") int size) throws CustomerNotFoundException {
+        log.info("Scrolling transaction history, size: {}", size);
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String userId = auth != null ? auth.getName() : "unknown";
+        try {
+            return ResponseEntity.ok(bankAccountService.scrollUserOperations(userId, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
 
 }
\ No newline at end of file
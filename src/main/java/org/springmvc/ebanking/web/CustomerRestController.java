@@ -2,6 +2,8 @@ package org.springmvc.ebanking.web;
 
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -9,7 +11,6 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springmvc.ebanking.dtos.CustomerDTO;
-import org.springmvc.ebanking.entities.Customer;
 import org.springmvc.ebanking.exceptions.CustomerNotFoundException;
 import org.springmvc.ebanking.exceptions.ResourceNotFoundException;
 import org.springmvc.ebanking.services.BankAccountsService;
@@ -45,27 +46,31 @@ public class CustomerRestController {
     @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
     public ResponseEntity<CustomerDTO> getCustomer(@PathVariable Long id) {
         log.info("Fetching customer with ID: {}", id);
-        Customer customer = bankAccountService.findCustomerById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer not found with id: " + id));
-        CustomerDTO dto = new CustomerDTO();
-        dto.setId(customer.getId());
-        dto.setName(customer.getName());
-        dto.setEmail(customer.getEmail());
-        dto.setCreatedBy(customer.getCreatedBy() != null ? customer.getCreatedBy().getUsername() : "Unknown");
-        dto.setUpdatedBy(customer.getUpdatedBy() != null ? customer.getUpdatedBy().getUsername() : "Unknown");
-        return ResponseEntity.ok(dto);
+        // Mapped inside the service transaction: createdBy/updatedBy are lazy
+        try {
+            return ResponseEntity.ok(bankAccountService.getCustomer(id));
+        } catch (CustomerNotFoundException e) {
+            throw new ResourceNotFoundException("Customer not found with id: " + id);
+        }
     }
 
     @GetMapping("/search")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public List<CustomerDTO> searchCustomers(@RequestParam(name = "keyword", defaultValue = "") String keyword) {
-        log.info("Searching customers with keyword: {}", keyword);
-        return bankAccountService.searchCustomers("%" + keyword + "%");
+    public ResponseEntity<List<CustomerDTO>> searchCustomers(
+            @RequestParam(name = "keyword", defaultValue = "") String keyword,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "20") int size) {
+        log.info("Searching customers with keyword: {}, page: {}, size: {}", keyword, page, size);
+        Page<CustomerDTO> customers = bankAccountService.searchCustomers(keyword, PageRequest.of(page, size));
+        // Still a plain list for the search box; the number of matches comes as a header
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(customers.getTotalElements()))
+                .body(customers.getContent());
     }
 
     @PostMapping
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public CustomerDTO saveCustomer(@RequestBody CustomerDTO customerDTO) throws CustomerNotFoundException {
+    public ResponseEntity<CustomerDTO> saveCustomer(@RequestBody CustomerDTO customerDTO) throws CustomerNotFoundException {
         log.info("Saving customer: {}", customerDTO);
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || auth.getName() == null) {
@@ -75,7 +80,13 @@ public class CustomerRestController {
         String userId = auth.getName(); // Username from JWT
         customerDTO.setCreatedBy(userId);
         customerDTO.setUpdatedBy(userId);
-        return bankAccountService.saveCustomer(customerDTO);
+        try {
+            return ResponseEntity.ok(bankAccountService.saveCustomer(customerDTO));
+        } catch (IllegalArgumentException | DataIntegrityViolationException e) {
+            // Email taken, checked up front or caught by the unique constraint when two requests race
+            log.warn("Cannot create customer with email {}: {}", customerDTO.getEmail(), e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PutMapping("/{customerId}")
@@ -97,6 +108,9 @@ public class CustomerRestController {
         try {
             CustomerDTO updatedCustomer = bankAccountService.updateCustomer(customerDTO);
             return ResponseEntity.ok(updatedCustomer);
+        } catch (IllegalArgumentException | DataIntegrityViolationException e) {
+            log.warn("Cannot update customer ID: {} to email {}: {}", customerId, customerDTO.getEmail(), e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Failed to update customer ID: {}: {}", customerId, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -43,11 +43,14 @@ public class DashboardController {
             response.put("totalCustomers", dashboard.getTotalCustomers());
             response.put("totalAccounts", dashboard.getTotalAccounts());
             response.put("totalBalance", dashboard.getTotalBalance());
+            response.put("lastActivity", dashboard.getLastActivity());
             response.put("recentTransactions", dashboard.getRecentTransactions());
             response.put("currentPage", dashboard.getCurrentPage());
             response.put("pageSize", dashboard.getPageSize());
             response.put("totalTransactions", dashboard.getTotalTransactions());
             response.put("totalPages", dashboard.getTotalPages());
+            response.put("partial", dashboard.isPartial());
+            response.put("timedOut", dashboard.getTimedOut());
             return ResponseEntity.ok(response);
         } catch (CustomerNotFoundException e) {
             log.error("Customer not found for user: {}", userId);
@@ -59,4 +62,39 @@ public class DashboardController {
                     .body(Map.of("error", "Error fetching dashboard data: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    @GetMapping("/dashboard/scroll")
+    @PreAuthorize("hasAnyRole('ROLE_USER', 'ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> scrollDashboard(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "5") int size) {
+        log.info("Fetching dashboard data, cursor: {}, size: {}", cursor, size);
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        String userId = auth != null ? auth.getName() : "unknown";
+        try {
+            DashboardDTO dashboard = bankAccountService.getDashboardData(userId, cursor, size);
+            Map<String, Object> response = new HashMap<>();
+            response.put("totalCustomers", dashboard.getTotalCustomers());
+            response.put("totalAccounts", dashboard.getTotalAccounts());
+            response.put("totalBalance", dashboard.getTotalBalance());
+            response.put("lastActivity", dashboard.getLastActivity());
+            response.put("recentTransactions", dashboard.getRecentTransactions());
+            response.put("pageSize", dashboard.getPageSize());
+            response.put("hasMore", dashboard.isHasMore());
+            response.put("nextCursor", dashboard.getNextCursor());
+            response.put("partial", dashboard.isPartial());
+            response.put("timedOut", dashboard.getTimedOut());
+            return ResponseEntity.ok(response);
+        } catch (CustomerNotFoundException e) {
+            log.error("Customer not found for user: {}", userId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Customer not found for user: " + userId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error fetching dashboard data: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Error fetching dashboard data: " + e.getMessage()));
+        }
+    }
+}
@@ -9,6 +9,8 @@ import org.springmvc.ebanking.dtos.UserProfileDTO;
 import org.springmvc.ebanking.entities.User;
 import org.springmvc.ebanking.mappers.UserMapper;
 import org.springmvc.ebanking.repositories.UserRepository;
+import org.springmvc.ebanking.security.TokenVersionRegistry;
+import org.springmvc.ebanking.services.PrincipalResolver;
 
 import java.security.Principal;
 
@@ -22,6 +24,12 @@ public class UserController {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private PrincipalResolver principalResolver;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
     @GetMapping("/profile")
     public ResponseEntity<UserProfileDTO> getUserProfile(@AuthenticationPrincipal Principal principal) {
         String username = principal.getName();
@@ -41,6 +49,12 @@ public class UserController {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
         userMapper.updateUserFromDTO(profileDTO, user);
         userRepository.save(user);
+        // Username or email may have changed, both of which the cached resolution depends on
+        principalResolver.invalidateUser(username);
+        if (!username.equals(user.getUsername())) {
+            // Tokens carry the old username as subject; without a registry entry they fail the lookup
+            tokenVersionRegistry.forget(username);
+        }
         UserProfileDTO updatedProfile = userMapper.toProfileDTO(user);
         return ResponseEntity.ok(updatedProfile);
     }
@@ -0,0 +1,8 @@
+-- One-off step for MySQL databases created before account_operation ids moved from AUTO_INCREMENT
+-- to the pooled account_operation_seq generator. Run it before starting the new version:
+-- ddl-auto=update keeps an existing sequence table, so new ids start above the existing rows.
+-- The pooled optimizer treats the stored value as the top of its first block of 50 ids.
+CREATE TABLE IF NOT EXISTS account_operation_seq (next_val BIGINT);
+DELETE FROM account_operation_seq;
+INSERT INTO account_operation_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 50 FROM account_operation;
@@ -0,0 +1,32 @@
+-- One-off MySQL migration from CHAR(36)/VARCHAR(255) account ids to BINARY(16).
+-- Existing random (v4) ids keep their value and string form; only new accounts get UUIDv7 ids.
+-- Stop the application first: ddl-auto=update cannot change a column type that other tables reference.
+
+SET FOREIGN_KEY_CHECKS = 0;
+
+ALTER TABLE account_operation ADD COLUMN bank_account_bin BINARY(16);
+UPDATE account_operation SET bank_account_bin = UNHEX(REPLACE(bank_account_id, '-', ''));
+
+ALTER TABLE bank_account ADD COLUMN id_bin BINARY(16);
+UPDATE bank_account SET id_bin = UNHEX(REPLACE(id, '-', ''));
+
+-- Drop the foreign key Hibernate generated on account_operation.bank_account_id; its name varies per database
+SET @fk = (SELECT constraint_name FROM information_schema.key_column_usage
+            WHERE table_schema = DATABASE() AND table_name = 'account_operation' AND column_name = 'bank_account_id'
+              AND referenced_table_name = 'bank_account' LIMIT 1);
+SET @drop_fk = IF(@fk IS NULL, 'DO 0', CONCAT('ALTER TABLE account_operation DROP FOREIGN KEY `', @fk, '`'));
+PREPARE drop_fk FROM @drop_fk;
+EXECUTE drop_fk;
+DEALLOCATE PREPARE drop_fk;
+
+ALTER TABLE account_operation DROP COLUMN bank_account_id;
+ALTER TABLE account_operation RENAME COLUMN bank_account_bin TO bank_account_id;
+
+ALTER TABLE bank_account DROP PRIMARY KEY, DROP COLUMN id;
+ALTER TABLE bank_account RENAME COLUMN id_bin TO id;
+ALTER TABLE bank_account MODIFY id BINARY(16) NOT NULL, ADD PRIMARY KEY (id);
+
+ALTER TABLE account_operation
+    ADD CONSTRAINT fk_account_operation_bank_account FOREIGN KEY (bank_account_id) REFERENCES bank_account (id);
+
+SET FOREIGN_KEY_CHECKS = 1;
@@ -0,0 +1,189 @@
+-- Complete MySQL schema of this version, for a new, empty database. Generated from the entities with
+-- Hibernate's schema export (MySQL8Dialect), so constraint names match what ddl-auto=update expects.
+-- Profiles that start with ddl-auto=none (fast-startup) need it, or db/schema_upgrade.sql for a database
+-- created by an earlier version. Regenerate it whenever an entity's mapping changes.
+
+create table account_operation_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into account_operation_seq values ( 1 );
+
+create table account_operation (
+    amount float(53) not null,
+    id bigint not null,
+    operation_date datetime(6),
+    performed_by bigint,
+    bank_account_id binary(16),
+    description varchar(255),
+    type enum ('CREDIT','DEBIT'),
+    primary key (id)
+) engine=InnoDB;
+
+create table bank_account (
+    balance float(53) not null,
+    interest_rate float(53),
+    opening_balance float(53) not null,
+    over_draft float(53),
+    created_at datetime(6),
+    created_by bigint,
+    customer_id bigint,
+    updated_at datetime(6),
+    updated_by bigint,
+    version bigint not null,
+    id binary(16) not null,
+    dtype varchar(31) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table customer (
+    created_at datetime(6),
+    created_by bigint,
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    updated_by bigint,
+    user_id bigint,
+    email varchar(255),
+    name varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table customer_summary (
+    account_count integer not null,
+    total_balance float(53) not null,
+    customer_id bigint not null,
+    last_activity datetime(6),
+    operation_count bigint not null,
+    updated_at datetime(6),
+    primary key (customer_id)
+) engine=InnoDB;
+
+create table in_doubt_transfer (
+    amount float(53) not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    performed_by bigint,
+    resolved_at datetime(6),
+    destination_account_id binary(16),
+    source_account_id binary(16),
+    detail varchar(1000),
+    status enum ('CREDITED','PENDING','REVERSAL_FAILED','REVERSED'),
+    primary key (id)
+) engine=InnoDB;
+
+create table interest_accrual_checkpoint (
+    accrual_date date,
+    completed bit not null,
+    interest_credited float(53) not null,
+    partition_index integer not null,
+    accounts_credited bigint not null,
+    updated_at datetime(6),
+    last_account_id binary(16),
+    lower_id binary(16),
+    upper_id binary(16),
+    name varchar(255) not null,
+    primary key (name)
+) engine=InnoDB;
+
+create table ledger_journal_checkpoint (
+    applied_sequence bigint not null,
+    updated_at datetime(6),
+    name varchar(255) not null,
+    primary key (name)
+) engine=InnoDB;
+
+create table roles (
+    id bigint not null auto_increment,
+    description varchar(255),
+    name varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table users (
+    enabled bit not null,
+    token_version integer not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    updated_at datetime(6),
+    address varchar(255),
+    email varchar(255),
+    first_name varchar(255),
+    last_name varchar(255),
+    password varchar(255),
+    phone varchar(255),
+    username varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table users_roles (
+    role_id bigint not null,
+    user_id bigint not null
+) engine=InnoDB;
+
+create index idx_operation_account_date_id
+   on account_operation (bank_account_id, operation_date, id);
+
+alter table customer
+   add constraint uk_customer_email unique (email);
+
+alter table customer
+   add constraint UKj7ja2xvrxudhvssosd4nu1o92 unique (user_id);
+
+alter table roles
+   add constraint UKofx66keruapi6vyqpv6f2or37 unique (name);
+
+alter table users
+   add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table users
+   add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+
+alter table account_operation
+   add constraint fk_account_operation_bank_account
+   foreign key (bank_account_id)
+   references bank_account (id);
+
+alter table account_operation
+   add constraint FK81hjsrahblsxu8m9cqvo6yogj
+   foreign key (performed_by)
+   references users (id);
+
+alter table bank_account
+   add constraint FKqc7oilqng4qj0cu8eyoro8tqr
+   foreign key (created_by)
+   references users (id);
+
+alter table bank_account
+   add constraint FKj818ht4ban0c4uw4bmsbf3jme
+   foreign key (customer_id)
+   references customer (id);
+
+alter table bank_account
+   add constraint FKkv7fyrfitq8kphhkooswdu9o3
+   foreign key (updated_by)
+   references users (id);
+
+alter table customer
+   add constraint FKj5e49hu5k5m8moub9qwh49baa
+   foreign key (created_by)
+   references users (id);
+
+alter table customer
+   add constraint FK5fvme5alfjk2i4e4q4n7996ag
+   foreign key (updated_by)
+   references users (id);
+
+alter table customer
+   add constraint FKra1cb3fu95r1a0m7aksow0nk4
+   foreign key (user_id)
+   references users (id);
+
+alter table users_roles
+   add constraint FKj6m8fwv7oqv74fcehir1a9ffy
+   foreign key (role_id)
+   references roles (id);
+
+alter table users_roles
+   add constraint FK2o0jvgh89lemvvo17cbqvdxaa
+   foreign key (user_id)
+   references users (id);
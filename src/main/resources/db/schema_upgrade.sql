@@ -0,0 +1,76 @@
+-- Brings a MySQL database created by the version before db/schema.sql up to it, for profiles that start
+-- with ddl-auto=none (fast-startup). Stop the application first, then run, in this order:
+--   1. db/bank_account_binary_id.sql   (account ids to BINARY(16))
+--   2. db/account_operation_seq.sql    (operation ids from the pooled sequence)
+--   3. this script
+-- customer_summary starts empty: rows are built on first use, or all at once with
+-- ebanking.summary.rebuild-on-startup=true for one start.
+
+-- Bumped to revoke issued tokens; tokens issued before carry no version and are still checked against the user
+ALTER TABLE users ADD COLUMN token_version INT NOT NULL DEFAULT 0;
+
+-- Optimistic lock for balance updates, and the balance every account opened with, so the reconciliation
+-- can check balance = opening_balance + credits - debits against the existing history
+ALTER TABLE bank_account
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0,
+    ADD COLUMN opening_balance DOUBLE NOT NULL DEFAULT 0;
+UPDATE bank_account a
+SET opening_balance = a.balance - COALESCE((SELECT SUM(CASE WHEN o.type = 'CREDIT' THEN o.amount ELSE -o.amount END)
+                                            FROM account_operation o WHERE o.bank_account_id = a.id), 0);
+
+-- Keyset pagination of an account's history
+CREATE INDEX idx_operation_account_date_id ON account_operation (bank_account_id, operation_date, id);
+
+-- Customers are looked up by email as their natural id, so emails become unique. Where several customers share
+-- one, the oldest keeps it and the others get '#duplicate-<id>' appended, to be corrected by hand; list them with
+--   SELECT id, name, email FROM customer WHERE email LIKE '%#duplicate-%';
+UPDATE customer c
+    JOIN (SELECT email, MIN(id) AS kept_id FROM customer GROUP BY email HAVING COUNT(*) > 1) d
+        ON c.email = d.email AND c.id <> d.kept_id
+SET c.email = CONCAT(c.email, '#duplicate-', c.id);
+ALTER TABLE customer ADD CONSTRAINT uk_customer_email UNIQUE (email);
+
+-- Tables added since, as in db/schema.sql
+create table customer_summary (
+    account_count integer not null,
+    total_balance float(53) not null,
+    customer_id bigint not null,
+    last_activity datetime(6),
+    operation_count bigint not null,
+    updated_at datetime(6),
+    primary key (customer_id)
+) engine=InnoDB;
+
+create table in_doubt_transfer (
+    amount float(53) not null,
+    created_at datetime(6),
+    id bigint not null auto_increment,
+    performed_by bigint,
+    resolved_at datetime(6),
+    destination_account_id binary(16),
+    source_account_id binary(16),
+    detail varchar(1000),
+    status enum ('CREDITED','PENDING','REVERSAL_FAILED','REVERSED'),
+    primary key (id)
+) engine=InnoDB;
+
+create table interest_accrual_checkpoint (
+    accrual_date date,
+    completed bit not null,
+    interest_credited float(53) not null,
+    partition_index integer not null,
+    accounts_credited bigint not null,
+    updated_at datetime(6),
+    last_account_id binary(16),
+    lower_id binary(16),
+    upper_id binary(16),
+    name varchar(255) not null,
+    primary key (name)
+) engine=InnoDB;
+
+create table ledger_journal_checkpoint (
+    applied_sequence bigint not null,
+    updated_at datetime(6),
+    name varchar(255) not null,
+    primary key (name)
+) engine=InnoDB;
@@ -0,0 +1,55 @@
+package org.springmvc.ebanking.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springmvc.ebanking.repositories.UserRepository;
+import org.springmvc.ebanking.services.StartupMetrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+// The in-memory test database starts empty, so it gets the shipped schema script, which must match the entities
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:fast-startup-${random.uuid};MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.defer-datasource-initialization=false",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/schema.sql"
+})
+@ActiveProfiles("fast-startup")
+@AutoConfigureMockMvc
+class FastStartupProfileTest {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private StartupMetrics startupMetrics;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void defersControllersUntilTheFirstRequestAndRecordsIt() throws Exception {
+        assertThat(userRepository.findByUsername("admin1")).isEmpty();
+        assertThat(context.getBeanFactory().containsSingleton("tokenVersionRegistry")).isTrue();
+        assertThat(context.getBeanFactory().containsSingleton("customerRestController")).isFalse();
+
+        mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"usernameOrEmail\":\"nobody\",\"password\":\"nothing\"}"));
+
+        assertThat(startupMetrics.snapshot())
+                .containsEntry("lazyInitialization", true)
+                .containsEntry("firstRequestUrl", "/api/auth/login");
+        assertThat((Long) startupMetrics.snapshot().get("firstRequestMillis"))
+                .isGreaterThanOrEqualTo((Long) startupMetrics.snapshot().get("readyMillis"));
+    }
+}
@@ -0,0 +1,138 @@
+package org.springmvc.ebanking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springmvc.ebanking.dtos.CustomerDTO;
+import org.springmvc.ebanking.dtos.DashboardDTO;
+import org.springmvc.ebanking.entities.User;
+import org.springmvc.ebanking.repositories.UserRepository;
+import org.springmvc.ebanking.security.CustomUserDetailsService;
+import org.springmvc.ebanking.services.BankAccountsService;
+import org.springframework.data.domain.PageRequest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two H2 databases; replicate() copies the primary onto the replica, so anything written after it is primary-only
+@SpringBootTest(properties = {
+        "ebanking.datasource.replica.jdbc-url=jdbc:h2:mem:ebank-replica-${random.uuid};MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "ebanking.datasource.replica.username=sa",
+        "ebanking.datasource.replica.pin-after-write=1h"
+})
+class ReadReplicaRoutingTest {
+
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    @BeforeEach
+    void replicateBaseline() throws Exception {
+        replicate();
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void writersReadTheirOwnWritesOthersReadTheReplica() throws Exception {
+        authenticate("writer-" + UUID.randomUUID());
+        CustomerDTO customer = bankAccountsService.saveCustomer(customer("Routed " + UUID.randomUUID()));
+        assertThat(customerIds()).contains(customer.getId());
+
+        authenticate("reader-" + UUID.randomUUID());
+        assertThat(customerIds()).doesNotContain(customer.getId());
+
+        replicate();
+        assertThat(customerIds()).contains(customer.getId());
+    }
+
+    @Test
+    void dashboardOnTheReplicaBuildsAMissingSummaryOnThePrimary() throws Exception {
+        String username = "replica-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("x");
+        userRepository.save(user);
+        CustomerDTO request = customer("Replica dashboard");
+        request.setEmail(user.getEmail());
+        bankAccountsService.saveCustomer(request);
+        replicate();
+
+        authenticate(username);
+        DashboardDTO dashboard = bankAccountsService.getDashboardData(username, PageRequest.of(0, 10));
+
+        assertThat(dashboard.getTotalAccounts()).isZero();
+        assertThat(new JdbcTemplate(primaryDataSource).queryForObject(
+                "select count(*) from customer_summary s join customer c on c.id = s.customer_id where c.email = ?",
+                Long.class, user.getEmail())).isEqualTo(1);
+    }
+
+    @Test
+    void loginRightAfterRegisteringFindsTheUserOnThePrimary() {
+        String username = "registered-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("hash");
+        userRepository.save(user);
+
+        UserDetails details = userDetailsService.loadUserByUsername(username);
+
+        assertThat(details.getPassword()).isEqualTo("hash");
+    }
+
+    private List<Long> customerIds() {
+        return bankAccountsService.listCustomers().stream().map(CustomerDTO::getId).toList();
+    }
+
+    private static CustomerDTO customer(String name) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName(name);
+        customer.setEmail(UUID.randomUUID() + "@example.com");
+        customer.setCreatedBy("admin1");
+        return customer;
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+    }
+
+    private void replicate() throws Exception {
+        Path script = Files.createTempFile("replica", ".sql");
+        try {
+            new JdbcTemplate(primaryDataSource).execute("SCRIPT TO '" + script + "'");
+            JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+            replica.execute("DROP ALL OBJECTS");
+            replica.execute("RUNSCRIPT FROM '" + script + "'");
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+}
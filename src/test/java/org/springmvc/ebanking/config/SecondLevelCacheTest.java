@@ -0,0 +1,110 @@
+package org.springmvc.ebanking.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.entities.User;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+import org.springmvc.ebanking.repositories.RoleRepository;
+import org.springmvc.ebanking.repositories.UserRepository;
+import org.springmvc.ebanking.security.CustomUserDetailsService;
+import org.springmvc.ebanking.services.EntityCacheMetrics;
+import org.springmvc.ebanking.support.QueryBudget;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private RoleRepository roleRepository;
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+    @Autowired
+    private EntityCacheMetrics entityCacheMetrics;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void naturalIdLookupsAreServedFromTheCache() throws Exception {
+        User user = createUser();
+        Customer customer = new Customer();
+        customer.setName("Cached");
+        customer.setEmail(user.getEmail());
+        customerRepository.save(customer);
+        QueryBudget queryBudget = new QueryBudget(entityManagerFactory);
+
+        userRepository.findByUsername(user.getUsername());
+        customerRepository.findByEmail(customer.getEmail());
+        assertThat(queryBudget.exactly(0, () -> userRepository.findByUsername(user.getUsername()))).isPresent();
+        assertThat(queryBudget.exactly(0, () -> customerRepository.findByEmail(customer.getEmail())))
+                .get().extracting(Customer::getName).isEqualTo("Cached");
+        userRepository.findByUsername(user.getUsername());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> regions = (Map<String, Map<String, Object>>) entityCacheMetrics.snapshot().get("regions");
+        assertThat(regions.get("users-by-username").get("hits")).isNotEqualTo(0L);
+        assertThat(regions.get("customers-by-email").get("hits")).isNotEqualTo(0L);
+    }
+
+    @Test
+    void renamesAndEmailChangesAreSeenByTheLookups() {
+        User user = createUser();
+        userRepository.findByUsername(user.getUsername());
+        String oldUsername = user.getUsername();
+        user.setUsername("renamed-" + UUID.randomUUID());
+        userRepository.save(user);
+
+        assertThat(userRepository.findByUsername(oldUsername)).isEmpty();
+        assertThat(userRepository.findByUsername(user.getUsername())).get().extracting(User::getId).isEqualTo(user.getId());
+
+        Customer customer = new Customer();
+        customer.setName("Moving");
+        customer.setEmail("before-" + UUID.randomUUID() + "@example.com");
+        customer = customerRepository.save(customer);
+        String oldEmail = customer.getEmail();
+        customerRepository.findByEmail(oldEmail);
+        customer.setEmail("after-" + UUID.randomUUID() + "@example.com");
+        customerRepository.save(customer);
+
+        assertThat(customerRepository.findByEmail(oldEmail)).isEmpty();
+        assertThat(customerRepository.findByEmail(customer.getEmail())).get().extracting(Customer::getId).isEqualTo(customer.getId());
+    }
+
+    @Test
+    void authenticationReadsUserAndRolesFromTheCache() throws Exception {
+        User user = createUser();
+        user.setRoles(List.of(roleRepository.findByName("USER").orElseThrow()));
+        userRepository.save(user);
+        userDetailsService.loadUserByUsername(user.getUsername());
+        userDetailsService.loadUserByUsername(user.getEmail());
+
+        QueryBudget queryBudget = new QueryBudget(entityManagerFactory);
+        UserDetails byUsername = queryBudget.exactly(0, () -> userDetailsService.loadUserByUsername(user.getUsername()));
+        // The username lookup tried first misses, and misses are not cached; the email query itself is
+        UserDetails byEmail = queryBudget.exactly(1, () -> userDetailsService.loadUserByUsername(user.getEmail()));
+
+        assertThat(byUsername.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+        assertThat(byEmail.getUsername()).isEqualTo(user.getUsername());
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("cache-" + UUID.randomUUID());
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("x");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,44 @@
+package org.springmvc.ebanking.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AccountIdsTest {
+
+    @Test
+    void newIdsAreVersion7AndStrictlyIncreasing() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(AccountIds.newId());
+        }
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+        UUID uuid = UUID.fromString(ids.get(0));
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isCloseTo(System.currentTimeMillis(), within(60_000L));
+    }
+
+    @Test
+    void bytesRoundTripToTheSameString() {
+        String id = AccountIds.newId();
+        assertThat(AccountIds.toBytes(id)).hasSize(16);
+        assertThat(AccountIds.fromBytes(AccountIds.toBytes(id))).isEqualTo(id);
+        String legacy = UUID.randomUUID().toString();
+        assertThat(AccountIds.fromBytes(AccountIds.toBytes(legacy))).isEqualTo(legacy);
+    }
+
+    @Test
+    void malformedIdsMapToAValueNeverIssued() {
+        byte[] unknown = AccountIds.toBytes("not-an-account");
+        assertThat(AccountIds.toBytes("")).isEqualTo(unknown);
+        assertThat(AccountIds.fromBytes(unknown)).isEqualTo("ffffffff-ffff-ffff-ffff-ffffffffffff");
+        assertThat(new HashSet<>(List.of(AccountIds.newId(), AccountIds.fromBytes(unknown)))).hasSize(2);
+    }
+}
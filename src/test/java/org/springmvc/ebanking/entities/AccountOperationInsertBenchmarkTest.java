@@ -0,0 +1,110 @@
+package org.springmvc.ebanking.entities;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springmvc.ebanking.enums.OperationType;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserts/sec for AccountOperation with the old IDENTITY id versus the pooled sequence, JDBC batching on in both.
+ * Opt-in: mvn test -Dtest=AccountOperationInsertBenchmarkTest -Dbenchmarks=true
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+@Slf4j
+class AccountOperationInsertBenchmarkTest {
+
+    private static final int WARMUP_ROWS = 5_000;
+    private static final int MEASURED_ROWS = 50_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Test
+    void h2() {
+        report("H2", "jdbc:h2:mem:insert-bench;DB_CLOSE_DELAY=-1");
+    }
+
+    @Test
+    void h2MySqlMode() {
+        report("H2 (MySQL mode)", "jdbc:h2:mem:insert-bench-mysql;MODE=MySQL;DB_CLOSE_DELAY=-1");
+    }
+
+    private void report(String database, String url) {
+        double identity = insertsPerSecond(url, true);
+        double pooled = insertsPerSecond(url, false);
+        log.info("{}: IDENTITY {} inserts/s, pooled sequence {} inserts/s (x{})", database, Math.round(identity),
+                Math.round(pooled), String.format("%.2f", pooled / identity));
+    }
+
+    private double insertsPerSecond(String url, boolean identity) {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.JAKARTA_JDBC_URL, url)
+                .applySetting(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .applySetting(AvailableSettings.JAKARTA_JDBC_PASSWORD, "")
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .applySetting(AvailableSettings.STATEMENT_BATCH_SIZE, BATCH_SIZE)
+                .applySetting(AvailableSettings.ORDER_INSERTS, true)
+                .build();
+        MetadataSources sources = new MetadataSources(registry)
+                .addAnnotatedClasses(AccountOperation.class, BankAccount.class, CurrentAccount.class, SavingAccount.class,
+                        Customer.class, User.class, Role.class);
+        if (identity) {
+            sources.addResource("benchmarks/account-operation-identity-orm.xml");
+        }
+        try (SessionFactory sessionFactory = sources.buildMetadata().buildSessionFactory()) {
+            String accountId = createAccount(sessionFactory);
+            insert(sessionFactory, accountId, WARMUP_ROWS);
+            long start = System.nanoTime();
+            insert(sessionFactory, accountId, MEASURED_ROWS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Long rows = sessionFactory.fromSession(session ->
+                    session.createQuery("select count(o) from AccountOperation o", Long.class).getSingleResult());
+            assertThat(rows).isEqualTo(WARMUP_ROWS + MEASURED_ROWS);
+            return MEASURED_ROWS / seconds;
+        } finally {
+            StandardServiceRegistryBuilder.destroy(registry);
+        }
+    }
+
+    private String createAccount(SessionFactory sessionFactory) {
+        return sessionFactory.fromTransaction(session -> {
+            Customer customer = new Customer();
+            customer.setName("Benchmark");
+            customer.setEmail("benchmark@example.com");
+            session.persist(customer);
+            CurrentAccount account = new CurrentAccount();
+            account.setId(UUID.randomUUID().toString());
+            account.setCustomer(customer);
+            session.persist(account);
+            return account.getId();
+        });
+    }
+
+    private void insert(SessionFactory sessionFactory, String accountId, int rows) {
+        sessionFactory.inTransaction(session -> {
+            BankAccount account = session.getReference(BankAccount.class, accountId);
+            for (int i = 0; i < rows; i++) {
+                AccountOperation operation = new AccountOperation();
+                operation.setBankAccount(account);
+                operation.setAmount(i);
+                operation.setType(OperationType.CREDIT);
+                operation.setOperationDate(new Date());
+                operation.setDescription("Benchmark " + i);
+                session.persist(operation);
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                    account = session.getReference(BankAccount.class, accountId);
+                }
+            }
+        });
+    }
+}
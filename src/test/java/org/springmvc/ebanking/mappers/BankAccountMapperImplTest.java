@@ -0,0 +1,88 @@
+package org.springmvc.ebanking.mappers;
+
+import org.junit.jupiter.api.Test;
+import org.springmvc.ebanking.dtos.BankAccountDTO;
+import org.springmvc.ebanking.dtos.CurrentBankAccountDTO;
+import org.springmvc.ebanking.dtos.SavingBankAccountDTO;
+import org.springmvc.ebanking.dtos.UserProfileDTO;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.CurrentAccount;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.entities.SavingAccount;
+import org.springmvc.ebanking.entities.User;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BankAccountMapperImplTest {
+
+    private final BankAccountMapperImpl mapper = new BankAccountMapperImpl();
+
+    @Test
+    void accountsAreMappedFieldByField() {
+        CurrentAccount current = fill(new CurrentAccount());
+        current.setOverDraft(500);
+        SavingAccount saving = fill(new SavingAccount());
+        saving.setInterestRate(2.5);
+
+        CurrentBankAccountDTO currentDTO = mapper.fromCurrentBankAccount(current);
+        assertAccount(currentDTO, current, "CurrentAccount");
+        assertThat(currentDTO.getOverDraft()).isEqualTo(500);
+
+        SavingBankAccountDTO savingDTO = mapper.fromSavingBankAccount(saving);
+        assertAccount(savingDTO, saving, "SavingAccount");
+        assertThat(savingDTO.getInterestRate()).isEqualTo(2.5);
+
+        assertThat(mapper.fromBankAccount(current)).isInstanceOf(CurrentBankAccountDTO.class);
+        CurrentAccount back = mapper.fromCurrentBankAccountDTO(currentDTO);
+        assertThat(back.getId()).isEqualTo(current.getId());
+        assertThat(back.getBalance()).isEqualTo(current.getBalance());
+        assertThat(back.getOverDraft()).isEqualTo(500);
+    }
+
+    @Test
+    void profileNameJoinsTheNonBlankParts() {
+        assertThat(UserMapper.fullName("Meryem", "Admin")).isEqualTo("Meryem Admin");
+        assertThat(UserMapper.fullName("Meryem", null)).isEqualTo("Meryem");
+        assertThat(UserMapper.fullName(null, "Admin")).isEqualTo("Admin");
+        assertThat(UserMapper.fullName(null, "")).isEmpty();
+
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("john");
+        user.setFirstName("John");
+        UserProfileDTO profile = new UserMapper().toProfileDTO(user);
+        assertThat(profile.getUserId()).isEqualTo(7L);
+        assertThat(profile.getName()).isEqualTo("John");
+    }
+
+    private static void assertAccount(BankAccountDTO dto, BankAccount account, String type) {
+        assertThat(dto.getId()).isEqualTo(account.getId());
+        assertThat(dto.getBalance()).isEqualTo(account.getBalance());
+        assertThat(dto.getCreatedAt()).isEqualTo(account.getCreatedAt());
+        assertThat(dto.getUpdatedAt()).isEqualTo(account.getUpdatedAt());
+        assertThat(dto.getCustomerId()).isEqualTo(1L);
+        assertThat(dto.getCustomerName()).isEqualTo("Meryem");
+        assertThat(dto.getCreatedBy()).isEqualTo("admin1");
+        assertThat(dto.getUpdatedBy()).isEqualTo("admin1");
+        assertThat(dto.getType()).isEqualTo(type);
+    }
+
+    private static <T extends BankAccount> T fill(T account) {
+        User user = new User();
+        user.setUsername("admin1");
+        Customer customer = new Customer();
+        customer.setId(1L);
+        customer.setName("Meryem");
+        account.setId(AccountIds.newId());
+        account.setBalance(1000);
+        account.setCreatedAt(new Date(1_000));
+        account.setUpdatedAt(new Date(2_000));
+        account.setCustomer(customer);
+        account.setCreatedBy(user);
+        account.setUpdatedBy(user);
+        return account;
+    }
+}
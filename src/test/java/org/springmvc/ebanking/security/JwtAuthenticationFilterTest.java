@@ -0,0 +1,96 @@
+package org.springmvc.ebanking.security;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springmvc.ebanking.entities.User;
+import org.springmvc.ebanking.repositories.UserRepository;
+import org.springmvc.ebanking.support.QueryBudget;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class JwtAuthenticationFilterTest {
+
+    @Autowired
+    private JwtAuthenticationFilter filter;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesFromClaimsWithoutQueries() throws Exception {
+        User user = createUser();
+        String token = login(user.getUsername());
+        authenticate(token); // first sight of the user may load its version
+
+        Authentication authentication = new QueryBudget(entityManagerFactory).exactly(0, () -> authenticate(token));
+
+        assertThat(authentication).isNotNull();
+        assertThat(authentication.getName()).isEqualTo(user.getUsername());
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void revokedAndDisabledUsersAreRejected() throws Exception {
+        User user = createUser();
+        String token = login(user.getUsername());
+        assertThat(authenticate(token)).isNotNull();
+
+        tokenVersionRegistry.revoke(user.getUsername());
+        assertThat(authenticate(token)).isNull();
+
+        String fresh = login(user.getUsername());
+        assertThat(authenticate(fresh)).isNotNull();
+
+        user = userRepository.findByUsername(user.getUsername()).orElseThrow();
+        user.setEnabled(false);
+        userRepository.save(user);
+        tokenVersionRegistry.refresh();
+        assertThat(authenticate(fresh)).isNull();
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setUsername("jwt-" + UUID.randomUUID());
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("x");
+        return userRepository.save(user);
+    }
+
+    private String login(String username) {
+        return jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+    }
+
+    private Authentication authenticate(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/accounts");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
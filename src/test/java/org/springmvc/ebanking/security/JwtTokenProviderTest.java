@@ -0,0 +1,46 @@
+package org.springmvc.ebanking.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtTokenProviderTest {
+
+    private static final String SECRET = "unit-test-secret-unit-test-secret-unit-test-secret-0123456789";
+
+    private final JwtTokenProvider provider = new JwtTokenProvider(SECRET, 60_000, 100, null);
+
+    @Test
+    void cachedClaimsAreReturnedForTheSameToken() {
+        String token = token(SECRET, 60_000);
+        assertThat(provider.parseValidClaims(token)).isNotNull();
+        assertThat(provider.parseValidClaims(token)).isSameAs(provider.parseValidClaims(token));
+        assertThat(provider.getUsernameFromJWT(token)).isEqualTo("john");
+    }
+
+    @Test
+    void tamperedExpiredAndForeignTokensAreRejected() {
+        String token = token(SECRET, 60_000);
+        provider.parseValidClaims(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        assertThat(provider.validateToken(tampered)).isFalse();
+        assertThat(provider.validateToken(token(SECRET, -1_000))).isFalse();
+        assertThat(provider.validateToken(token("another-secret-another-secret-another-secret-0123456789", 60_000))).isFalse();
+        assertThat(provider.validateToken("")).isFalse();
+    }
+
+    private static String token(String secret, long ttlMillis) {
+        return Jwts.builder()
+                .setSubject("john")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + ttlMillis))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
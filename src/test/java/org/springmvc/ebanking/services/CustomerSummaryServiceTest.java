@@ -0,0 +1,146 @@
+package org.springmvc.ebanking.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.entities.AccountOperation;
+import org.springmvc.ebanking.entities.CurrentAccount;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.entities.CustomerSummary;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.repositories.AccountOperationRepository;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+import org.springmvc.ebanking.repositories.CustomerSummaryRepository;
+
+import java.util.Date;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest
+class CustomerSummaryServiceTest {
+
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private CustomerSummaryService customerSummaryService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private CustomerSummaryRepository customerSummaryRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private AccountOperationRepository accountOperationRepository;
+
+    @Test
+    void summaryFollowsAccountsAndOperations() throws Exception {
+        Long alice = createCustomer("alice");
+        Long bob = createCustomer("bob");
+        String aliceAccount = bankAccountsService.saveCurrentBankAccount(1000, 100, alice, "admin1").getId();
+        String aliceSavings = bankAccountsService.saveSavingBankAccount(500, 2.5, alice, "admin1").getId();
+        String bobAccount = bankAccountsService.saveCurrentBankAccount(200, 100, bob, "admin1").getId();
+
+        bankAccountsService.credit(aliceAccount, 50, "Deposit", "admin1");
+        bankAccountsService.debit(aliceSavings, 20, "Withdrawal", "admin1");
+        bankAccountsService.transfer(aliceAccount, bobAccount, 300, "admin1");
+
+        assertSummary(alice, 2, 1230, 3);
+        assertSummary(bob, 1, 500, 1);
+        assertMatchesTables(alice);
+        assertMatchesTables(bob);
+
+        String unused = bankAccountsService.saveCurrentBankAccount(60, 0, alice, "admin1").getId();
+        assertSummary(alice, 3, 1290, 3);
+        bankAccountsService.deleteBankAccount(unused);
+        assertSummary(alice, 2, 1230, 3);
+    }
+
+    @Test
+    void rebuildReproducesMaintainedTotals() throws Exception {
+        Long carol = createCustomer("carol");
+        String account = bankAccountsService.saveCurrentBankAccount(100, 0, carol, "admin1").getId();
+        bankAccountsService.credit(account, 40, "Deposit", "admin1");
+        CustomerSummary maintained = customerSummaryService.summaryOf(carol);
+
+        assertThat(customerSummaryService.rebuildAll()).isGreaterThanOrEqualTo(1);
+
+        CustomerSummary rebuilt = customerSummaryService.summaryOf(carol);
+        assertThat(rebuilt.getAccountCount()).isEqualTo(maintained.getAccountCount());
+        assertThat(rebuilt.getTotalBalance()).isEqualTo(maintained.getTotalBalance());
+        assertThat(rebuilt.getOperationCount()).isEqualTo(maintained.getOperationCount());
+    }
+
+    @Test
+    void missingSummaryIsBuiltOnFirstRead() {
+        // Data written around the service, as it would be before summaries existed
+        Customer customer = new Customer();
+        customer.setName("Legacy");
+        customer.setEmail("legacy-" + UUID.randomUUID() + "@example.com");
+        customer = customerRepository.save(customer);
+        CurrentAccount account = new CurrentAccount();
+        account.setId(AccountIds.newId());
+        account.setBalance(75);
+        account.setCreatedAt(new Date());
+        account.setCustomer(customer);
+        account = bankAccountRepository.save(account);
+        AccountOperation operation = new AccountOperation();
+        operation.setType(OperationType.CREDIT);
+        operation.setAmount(75);
+        operation.setOperationDate(new Date());
+        operation.setBankAccount(account);
+        accountOperationRepository.save(operation);
+        assertThat(customerSummaryRepository.findById(customer.getId())).isEmpty();
+
+        assertSummary(customer.getId(), 1, 75, 1);
+        assertThat(customerSummaryRepository.findById(customer.getId())).isPresent();
+    }
+
+    @Test
+    void moneyMovesOnAccountsWithoutCustomer() throws Exception {
+        Long dave = createCustomer("dave");
+        String daveAccount = bankAccountsService.saveCurrentBankAccount(100, 0, dave, "admin1").getId();
+        CurrentAccount orphan = new CurrentAccount();
+        orphan.setId(AccountIds.newId());
+        orphan.setBalance(500);
+        orphan.setCreatedAt(new Date());
+        String orphanId = bankAccountRepository.save(orphan).getId();
+
+        bankAccountsService.credit(orphanId, 50, "Deposit", "admin1");
+        bankAccountsService.debit(orphanId, 20, "Withdrawal", "admin1");
+        bankAccountsService.transfer(orphanId, daveAccount, 30, "admin1");
+        bankAccountsService.transfer(daveAccount, orphanId, 10, "admin1");
+
+        assertThat(bankAccountRepository.findBalanceById(orphanId)).contains(510.0);
+        assertSummary(dave, 1, 120, 2);
+        bankAccountsService.deleteBankAccount(bankAccountsService.saveCurrentBankAccount(0, 0, dave, "admin1").getId());
+        assertSummary(dave, 1, 120, 2);
+    }
+
+    private void assertSummary(Long customerId, int accounts, double balance, long operations) {
+        CustomerSummary summary = customerSummaryService.summaryOf(customerId);
+        assertThat(summary.getAccountCount()).isEqualTo(accounts);
+        assertThat(summary.getTotalBalance()).isCloseTo(balance, within(1e-9));
+        assertThat(summary.getOperationCount()).isEqualTo(operations);
+    }
+
+    private void assertMatchesTables(Long customerId) {
+        CustomerSummary summary = customerSummaryService.summaryOf(customerId);
+        Object[] accounts = customerSummaryRepository.aggregateAccounts(customerId).get(0);
+        Object[] operations = customerSummaryRepository.aggregateOperations(customerId).get(0);
+        assertThat(summary.getAccountCount()).isEqualTo(((Number) accounts[1]).intValue());
+        assertThat(summary.getTotalBalance()).isCloseTo(((Number) accounts[2]).doubleValue(), within(1e-9));
+        assertThat(summary.getOperationCount()).isEqualTo(((Number) operations[1]).longValue());
+        assertThat(summary.getLastActivity()).isEqualTo(operations[2]);
+    }
+
+    private Long createCustomer(String name) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(name + "-" + UUID.randomUUID() + "@example.com");
+        return customerRepository.save(customer).getId();
+    }
+}
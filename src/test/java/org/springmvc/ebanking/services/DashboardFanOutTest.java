@@ -0,0 +1,114 @@
+package org.springmvc.ebanking.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springmvc.ebanking.dtos.CustomerDTO;
+import org.springmvc.ebanking.dtos.DashboardDTO;
+import org.springmvc.ebanking.entities.User;
+import org.springmvc.ebanking.repositories.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "ebanking.dashboard.parallelism=2",
+        "ebanking.dashboard.deadline=2s"
+})
+class DashboardFanOutTest {
+
+    @Autowired
+    private DashboardFanOut dashboardFanOut;
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void dashboardPartsComeBackTogether() throws Exception {
+        String username = "dashboard-" + UUID.randomUUID();
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("x");
+        userRepository.save(user);
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName("Dashboard");
+        customer.setEmail(user.getEmail());
+        customer.setCreatedBy("admin1");
+        customer = bankAccountsService.saveCustomer(customer);
+        String accountId = bankAccountsService.saveCurrentBankAccount(100, 0, customer.getId(), "admin1").getId();
+        for (int i = 0; i < 3; i++) {
+            bankAccountsService.credit(accountId, 10, "Dashboard " + i, "admin1");
+        }
+
+        DashboardDTO dashboard = bankAccountsService.getDashboardData(username, PageRequest.of(0, 1));
+        assertThat(dashboard.isPartial()).isFalse();
+        assertThat(dashboard.getTimedOut()).isEmpty();
+        assertThat(dashboard.getTotalAccounts()).isEqualTo(1);
+        assertThat(dashboard.getTotalBalance()).isEqualTo(130);
+        assertThat(dashboard.getTotalTransactions()).isEqualTo(3);
+        assertThat(dashboard.getTotalPages()).isEqualTo(3);
+        assertThat(dashboard.getRecentTransactions()).extracting("description").containsExactly("Dashboard 2");
+
+        DashboardDTO scrolled = bankAccountsService.getDashboardData(username, null, 1);
+        assertThat(scrolled.isPartial()).isFalse();
+        assertThat(scrolled.getRecentTransactions()).hasSize(1);
+        assertThat(scrolled.isHasMore()).isTrue();
+    }
+
+    @Test
+    void aPartPastTheDeadlineIsCancelledAndReported() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("john", null, List.of()));
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        DashboardFanOut.Call call = dashboardFanOut.start();
+        Future<String> fast = call.submit(() -> SecurityContextHolder.getContext().getAuthentication().getName()
+                + (TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? ":read-only" : ""));
+        Future<String> slow = call.submit(() -> {
+            try {
+                Thread.sleep(30_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "late";
+        });
+
+        // The part runs as the requesting user, in a read-only transaction
+        assertThat(call.await("fast", fast)).isEqualTo("john:read-only");
+        assertThat(call.await("slow", slow)).isNull();
+        assertThat(call.isPartial()).isTrue();
+        assertThat(call.timedOut()).containsExactly("slow");
+        assertThat(slow.isCancelled()).isTrue();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Long> timeouts = (Map<String, Long>) dashboardFanOut.stats().get("timeouts");
+        assertThat(timeouts).containsEntry("slow", 1L);
+        assertThat(awaitQuietly(interrupted)).isTrue();
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
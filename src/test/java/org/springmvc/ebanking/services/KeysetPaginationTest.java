@@ -0,0 +1,106 @@
+package org.springmvc.ebanking.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springmvc.ebanking.dtos.AccountOperationDTO;
+import org.springmvc.ebanking.dtos.OperationSliceDTO;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.entities.AccountOperation;
+import org.springmvc.ebanking.entities.CurrentAccount;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.repositories.AccountOperationRepository;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class KeysetPaginationTest {
+
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private AccountOperationRepository accountOperationRepository;
+
+    @Test
+    void scrollingVisitsEveryOperationOnceNewestFirst() throws Exception {
+        CurrentAccount account = createAccount();
+        long base = System.currentTimeMillis();
+        List<AccountOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            // Groups of three share a timestamp, so the id tie-breaker matters
+            operations.add(operation(account, new Date(base + (i / 3) * 1000L), i));
+        }
+        accountOperationRepository.saveAll(operations);
+
+        List<AccountOperationDTO> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            OperationSliceDTO slice = bankAccountsService.scrollAccountHistory(account.getId(), cursor, 5);
+            assertThat(slice.getOperations()).hasSizeLessThanOrEqualTo(5);
+            seen.addAll(slice.getOperations());
+            cursor = slice.getNextCursor();
+            assertThat(slice.isHasMore()).isEqualTo(cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(seen).extracting(AccountOperationDTO::getId)
+                .doesNotHaveDuplicates()
+                .containsExactlyInAnyOrderElementsOf(operations.stream().map(AccountOperation::getId).toList());
+        assertThat(seen).isSortedAccordingTo(Comparator.comparing(AccountOperationDTO::getOperationDate)
+                .thenComparing(AccountOperationDTO::getId).reversed());
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        CurrentAccount account = createAccount();
+        assertThatThrownBy(() -> bankAccountsService.scrollAccountHistory(account.getId(), "not a cursor", 5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void outOfRangeSizeIsRejected() throws Exception {
+        CurrentAccount account = createAccount();
+        for (int size : new int[]{0, -1, 101}) {
+            assertThatThrownBy(() -> bankAccountsService.scrollAccountHistory(account.getId(), null, size))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+        assertThat(bankAccountsService.scrollAccountHistory(account.getId(), null, 100).isHasMore()).isFalse();
+    }
+
+    private CurrentAccount createAccount() {
+        Customer customer = new Customer();
+        customer.setName("Keyset");
+        customer.setEmail("keyset-" + UUID.randomUUID() + "@example.com");
+        customer = customerRepository.save(customer);
+        CurrentAccount account = new CurrentAccount();
+        account.setId(AccountIds.newId());
+        account.setCustomer(customer);
+        return bankAccountRepository.save(account);
+    }
+
+    private static AccountOperation operation(CurrentAccount account, Date date, int i) {
+        AccountOperation operation = new AccountOperation();
+        operation.setBankAccount(account);
+        operation.setOperationDate(date);
+        operation.setAmount(i + 1);
+        operation.setType(OperationType.CREDIT);
+        operation.setDescription("Operation " + i);
+        return operation;
+    }
+}
@@ -0,0 +1,122 @@
+package org.springmvc.ebanking.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.entities.AccountOperation;
+import org.springmvc.ebanking.entities.CurrentAccount;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.exceptions.BankAccountNotFoundException;
+import org.springmvc.ebanking.repositories.AccountOperationRepository;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class OperationExportServiceTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private OperationExportService exportService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private AccountOperationRepository accountOperationRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String accountId;
+
+    @BeforeEach
+    void createAccountWithTenDaysOfHistory() {
+        Customer customer = new Customer();
+        customer.setName("Export");
+        customer.setEmail("export-" + UUID.randomUUID() + "@example.com");
+        customer = customerRepository.save(customer);
+        CurrentAccount account = new CurrentAccount();
+        account.setId(AccountIds.newId());
+        account.setCustomer(customer);
+        account = bankAccountRepository.save(account);
+        accountId = account.getId();
+
+        List<AccountOperation> operations = new ArrayList<>();
+        for (int day = 0; day < 10; day++) {
+            for (int i = 0; i < 3; i++) {
+                AccountOperation operation = new AccountOperation();
+                operation.setBankAccount(account);
+                operation.setOperationDate(Date.from(FIRST_DAY.plusDays(day).atTime(10 + i, 0).atZone(ZoneId.systemDefault()).toInstant()));
+                operation.setType(OperationType.CREDIT);
+                operation.setAmount(day * 10 + i);
+                operation.setDescription(i == 0 ? "Rent, \"March\"" : "Credit " + day);
+                operations.add(operation);
+            }
+        }
+        accountOperationRepository.saveAll(operations);
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerOperationInDateOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.export(accountId, null, null, OperationExportService.Format.NDJSON, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(30);
+        assertThat(lines).hasSize(30);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("amount").asDouble()).isZero();
+        assertThat(first.get("description").asText()).isEqualTo("Rent, \"March\"");
+        assertThat(objectMapper.readTree(lines[29]).get("amount").asDouble()).isEqualTo(92);
+    }
+
+    @Test
+    void csvIsQuotedAndFilteredByInclusiveDayRange() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.export(accountId, FIRST_DAY.plusDays(2), FIRST_DAY.plusDays(4),
+                OperationExportService.Format.CSV, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(9);
+        assertThat(lines[0]).isEqualTo("id,operationDate,type,amount,description,performedBy");
+        assertThat(lines).hasSize(10);
+        assertThat(lines[1]).contains(",CREDIT,20.0,\"Rent, \"\"March\"\"\",");
+    }
+
+    @Test
+    void gzipOutputDecompressesToTheSameExport() throws Exception {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        exportService.export(accountId, null, null, OperationExportService.Format.CSV, false, plain);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        exportService.export(accountId, null, null, OperationExportService.Format.CSV, true, compressed);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain.toByteArray());
+        }
+    }
+
+    @Test
+    void unknownAccountIsReportedBeforeStreaming() {
+        assertThatThrownBy(() -> exportService.checkAccount(AccountIds.newId()))
+                .isInstanceOf(BankAccountNotFoundException.class);
+    }
+}
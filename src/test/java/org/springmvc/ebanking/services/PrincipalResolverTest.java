@@ -0,0 +1,70 @@
+package org.springmvc.ebanking.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springmvc.ebanking.dtos.CustomerDTO;
+import org.springmvc.ebanking.entities.User;
+import org.springmvc.ebanking.exceptions.BankAccountNotFoundException;
+import org.springmvc.ebanking.exceptions.CustomerNotFoundException;
+import org.springmvc.ebanking.repositories.UserRepository;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class PrincipalResolverTest {
+
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private PrincipalResolver principalResolver;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void cachedResolutionFollowsCustomerAndAccountChanges() throws Exception {
+        String username = "principal-" + UUID.randomUUID();
+        String email = username + "@example.com";
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setPassword("x");
+        user.setEnabled(true);
+        userRepository.save(user);
+
+        assertThatThrownBy(() -> bankAccountsService.userCredit(username, 10, "Deposit"))
+                .isInstanceOf(CustomerNotFoundException.class);
+
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName("Principal");
+        customer.setEmail(email);
+        customer.setCreatedBy("admin1");
+        customer = bankAccountsService.saveCustomer(customer);
+        assertThatThrownBy(() -> bankAccountsService.userCredit(username, 10, "Deposit"))
+                .isInstanceOf(BankAccountNotFoundException.class);
+
+        String accountId = bankAccountsService.saveCurrentBankAccount(100, 0, customer.getId(), "admin1").getId();
+        long hits = (long) principalResolver.stats().get("hits");
+        bankAccountsService.userCredit(username, 50, "Deposit");
+        bankAccountsService.userDebit(username, 30, "Withdrawal");
+        assertThat(bankAccountsService.getBankAccount(accountId).getBalance()).isEqualTo(120);
+        assertThat((long) principalResolver.stats().get("hits")).isGreaterThan(hits);
+        assertThat(principalResolver.find(username)).get()
+                .extracting(PrincipalResolver.ResolvedPrincipal::primaryAccountId)
+                .isEqualTo(accountId);
+
+        customer.setEmail("moved-" + email);
+        customer.setUpdatedBy("admin1");
+        bankAccountsService.updateCustomer(customer);
+        assertThatThrownBy(() -> bankAccountsService.userCredit(username, 10, "Deposit"))
+                .isInstanceOf(CustomerNotFoundException.class);
+    }
+
+    @Test
+    void unknownUserIsNotCached() {
+        assertThat(principalResolver.find("nobody-" + UUID.randomUUID())).isEmpty();
+    }
+}
@@ -0,0 +1,120 @@
+package org.springmvc.ebanking.services;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springmvc.ebanking.dtos.BankAccountDTO;
+import org.springmvc.ebanking.dtos.CurrentBankAccountDTO;
+import org.springmvc.ebanking.dtos.CustomerDTO;
+import org.springmvc.ebanking.dtos.SavingBankAccountDTO;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.CurrentAccount;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.entities.SavingAccount;
+import org.springmvc.ebanking.entities.User;
+import org.springmvc.ebanking.mappers.BankAccountMapperImpl;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+import org.springmvc.ebanking.repositories.UserRepository;
+import org.springmvc.ebanking.support.QueryBudget;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProjectionQueryTest {
+
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BankAccountMapperImpl dtoMapper;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void accountPagesCostTheSameStatementsWhateverTheirSize() throws Exception {
+        Customer customer = createCustomerWithAccounts("Proj_" + UUID.randomUUID(), 12);
+
+        for (int size : new int[]{2, 5, 10}) {
+            Page<BankAccountDTO> page = queryBudget().exactly(2, () -> bankAccountsService.bankAccountList(PageRequest.of(0, size)));
+            assertThat(page.getContent()).hasSize(size);
+
+            Page<BankAccountDTO> search = queryBudget().exactly(2, () -> bankAccountsService.searchBankAccounts(customer.getName(), PageRequest.of(0, size)));
+            assertThat(search.getContent()).hasSize(size);
+            assertThat(search.getTotalElements()).isEqualTo(12);
+        }
+    }
+
+    @Test
+    void projectedRowsMatchTheEntityMapping() {
+        Customer customer = createCustomerWithAccounts("Proj_" + UUID.randomUUID(), 4);
+        List<BankAccountDTO> rows = bankAccountsService.searchBankAccounts(customer.getName(), PageRequest.of(0, 10)).getContent();
+
+        assertThat(rows).hasSize(4);
+        assertThat(rows).hasAtLeastOneElementOfType(CurrentBankAccountDTO.class).hasAtLeastOneElementOfType(SavingBankAccountDTO.class);
+        for (BankAccountDTO row : rows) {
+            BankAccount entity = bankAccountRepository.findWithOwnersById(row.getId()).orElseThrow();
+            assertThat(row).usingRecursiveComparison().isEqualTo(dtoMapper.fromBankAccount(entity));
+        }
+        // The underscore is matched literally, not as a single-character wildcard
+        assertThat(bankAccountsService.searchBankAccounts(customer.getName().replace('_', 'x'), PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void customersAreListedInOneStatement() throws Exception {
+        Customer customer = createCustomerWithAccounts("Proj_" + UUID.randomUUID(), 0);
+
+        List<CustomerDTO> customers = queryBudget().exactly(1, () -> bankAccountsService.listCustomers());
+
+        assertThat(customers).filteredOn(dto -> dto.getId().equals(customer.getId()))
+                .singleElement()
+                .satisfies(dto -> {
+                    assertThat(dto.getName()).isEqualTo(customer.getName());
+                    assertThat(dto.getCreatedBy()).isEqualTo(customer.getCreatedBy().getUsername());
+                    assertThat(dto.getUpdatedBy()).isEqualTo("Unknown");
+                });
+    }
+
+    private QueryBudget queryBudget() {
+        return new QueryBudget(entityManagerFactory);
+    }
+
+    private Customer createCustomerWithAccounts(String name, int accounts) {
+        User creator = userRepository.findByUsername("admin1").orElseThrow();
+        Customer customer = new Customer();
+        customer.setName(name);
+        customer.setEmail(name + "@example.com");
+        customer.setCreatedBy(creator);
+        customer = customerRepository.save(customer);
+        for (int i = 0; i < accounts; i++) {
+            BankAccount account;
+            if (i % 2 == 0) {
+                CurrentAccount current = new CurrentAccount();
+                current.setOverDraft(100 * i);
+                account = current;
+            } else {
+                SavingAccount saving = new SavingAccount();
+                saving.setInterestRate(i / 2.0);
+                account = saving;
+            }
+            account.setId(AccountIds.newId());
+            account.setBalance(1000 + i);
+            account.setCustomer(customer);
+            account.setCreatedBy(creator);
+            bankAccountRepository.save(account);
+        }
+        return customer;
+    }
+}
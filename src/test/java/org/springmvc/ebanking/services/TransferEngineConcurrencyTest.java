@@ -0,0 +1,119 @@
+package org.springmvc.ebanking.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springmvc.ebanking.entities.AccountOperation;
+import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.CurrentAccount;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.exceptions.BalanceNotSufficientException;
+import org.springmvc.ebanking.repositories.AccountOperationRepository;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TransferEngineConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int TRANSFERS_PER_THREAD = 25;
+    private static final int ACCOUNTS = 8;
+    private static final double INITIAL_BALANCE = 1000;
+
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private TransferMetrics transferMetrics;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private AccountOperationRepository accountOperationRepository;
+
+    @Test
+    void parallelTransfersKeepBalancesConsistent() throws Exception {
+        List<String> accountIds = createAccounts();
+        long transfersBefore = transferMetrics.getTransfers();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int completed = 0;
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    String source = accountIds.get(random.nextInt(ACCOUNTS));
+                    String destination = accountIds.get(random.nextInt(ACCOUNTS));
+                    if (source.equals(destination)) {
+                        continue;
+                    }
+                    try {
+                        bankAccountsService.transfer(source, destination, random.nextInt(1, 300), "admin1");
+                        completed++;
+                    } catch (BalanceNotSufficientException expected) {
+                        // Overdrawn source: the transfer must leave both accounts untouched
+                    }
+                }
+                return completed;
+            }));
+        }
+        start.countDown();
+        int completed = 0;
+        for (Future<Integer> result : results) {
+            completed += result.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertThat(completed).isPositive();
+        assertThat(transferMetrics.getTransfers() - transfersBefore).isEqualTo(completed);
+
+        double total = 0;
+        for (String accountId : accountIds) {
+            BankAccount account = bankAccountRepository.findById(accountId).orElseThrow();
+            assertThat(account.getBalance()).isGreaterThanOrEqualTo(0);
+            assertThat(account.getBalance()).isEqualTo(INITIAL_BALANCE + netOfOperations(accountId));
+            total += account.getBalance();
+        }
+        assertThat(total).isEqualTo(INITIAL_BALANCE * ACCOUNTS);
+    }
+
+    private List<String> createAccounts() {
+        Customer customer = new Customer();
+        customer.setName("Concurrency");
+        customer.setEmail("concurrency-" + UUID.randomUUID() + "@example.com");
+        customer = customerRepository.save(customer);
+        List<String> accountIds = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            CurrentAccount account = new CurrentAccount();
+            account.setId(UUID.randomUUID().toString());
+            account.setBalance(INITIAL_BALANCE);
+            account.setCustomer(customer);
+            accountIds.add(bankAccountRepository.save(account).getId());
+        }
+        return accountIds;
+    }
+
+    private double netOfOperations(String accountId) {
+        double net = 0;
+        for (AccountOperation operation : accountOperationRepository.findByBankAccountId(accountId)) {
+            net += operation.getType() == OperationType.CREDIT ? operation.getAmount() : -operation.getAmount();
+        }
+        return net;
+    }
+}
@@ -0,0 +1,119 @@
+package org.springmvc.ebanking.services.interest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.CurrentAccount;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.entities.SavingAccount;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+import org.springmvc.ebanking.services.CustomerSummaryService;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Small chunks and several partitions so a few dozen accounts exercise the chunking, the ranges and the resume
+@SpringBootTest(properties = {
+        "ebanking.interest.partitions=4",
+        "ebanking.interest.parallelism=3",
+        "ebanking.interest.chunk-size=7"
+})
+class InterestAccrualJobTest {
+
+    private static final LocalDate DATE = LocalDate.of(2001, 2, 3);
+    private static final String DESCRIPTION = "Interest " + DATE;
+
+    @Autowired
+    private InterestAccrualJob job;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private CustomerSummaryService customerSummaryService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void everySavingAccountIsCreditedOnceAcrossAFailedAndAResumedRun() {
+        Customer customer = new Customer();
+        customer.setName("Saver " + UUID.randomUUID());
+        customer.setEmail(UUID.randomUUID() + "@example.com");
+        customer = customerRepository.save(customer);
+        // 36500 at 1% is exactly 1.00 a day
+        List<String> savers = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            savers.add(saving(customer, 36_500, 1).getId());
+        }
+        String whale = saving(customer, 3_650_000_000.0, 1).getId();
+        String noRate = saving(customer, 36_500, 0).getId();
+        String current = account(new CurrentAccount(), customer, 36_500).getId();
+        double before = customerSummaryService.summaryOf(customer.getId()).getTotalBalance();
+
+        // The whale's 100000 credit violates this constraint, so its chunk rolls back and its range stops there
+        jdbcTemplate.execute("ALTER TABLE account_operation ADD CONSTRAINT interest_test_limit "
+                + "CHECK (description IS NULL OR description <> '" + DESCRIPTION + "' OR amount < 50000)");
+        try {
+            assertThatThrownBy(() -> job.accrue(DATE)).isInstanceOf(IllegalStateException.class);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE account_operation DROP CONSTRAINT interest_test_limit");
+        }
+        assertThat(credits(whale)).isZero();
+        assertThat(savers.stream().mapToInt(this::credits).sum()).isPositive();
+
+        InterestAccrualJob.AccrualReport resumed = job.accrue(DATE);
+        assertThat(resumed.partitions()).hasSizeGreaterThan(1);
+
+        for (String id : savers) {
+            assertThat(credits(id)).as("credits of %s", id).isEqualTo(1);
+            assertThat(balance(id)).isEqualTo(36_501);
+        }
+        assertThat(credits(whale)).isEqualTo(1);
+        assertThat(balance(whale)).isEqualTo(3_650_100_000.0);
+        assertThat(credits(noRate)).isZero();
+        assertThat(credits(current)).isZero();
+        assertThat(customerSummaryService.summaryOf(customer.getId()).getTotalBalance()).isEqualTo(before + 40 + 100_000);
+
+        InterestAccrualJob.AccrualReport again = job.accrue(DATE);
+        assertThat(again.credited()).isZero();
+        assertThat(job.stats()).containsEntry("lastRun", again);
+    }
+
+    @Test
+    void dailyInterestIsRoundedToCents() {
+        assertThat(job.dailyInterest(1000, 5.5)).isEqualTo(0.15);
+        assertThat(job.dailyInterest(-100, 5.5)).isZero();
+        assertThat(job.dailyInterest(1000, 0)).isZero();
+    }
+
+    private SavingAccount saving(Customer customer, double balance, double rate) {
+        SavingAccount account = new SavingAccount();
+        account.setInterestRate(rate);
+        return account(account, customer, balance);
+    }
+
+    private <T extends BankAccount> T account(T account, Customer customer, double balance) {
+        account.setId(AccountIds.newId());
+        account.setBalance(balance);
+        account.setCustomer(customer);
+        return bankAccountRepository.save(account);
+    }
+
+    private int credits(String accountId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM account_operation WHERE bank_account_id = ? AND description = ?",
+                Integer.class, AccountIds.toBytes(accountId), DESCRIPTION);
+    }
+
+    private double balance(String accountId) {
+        return bankAccountRepository.findBalanceById(accountId).orElseThrow();
+    }
+}
@@ -0,0 +1,72 @@
+package org.springmvc.ebanking.services.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springmvc.ebanking.entities.CurrentAccount;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+import org.springmvc.ebanking.services.BankAccountsService;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "ebanking.ledger.engine=sharded",
+        "ebanking.ledger.journal.enabled=true",
+        "ebanking.ledger.journal.directory=target/test-journal/${random.uuid}",
+        "ebanking.ledger.journal.max-apply-attempts=2"
+})
+class JournalApplierTest {
+
+    @Autowired
+    private LedgerJournal journal;
+    @Autowired
+    private JournalApplier applier;
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Test
+    void entryThatNeverAppliesStopsTheApplier() {
+        String accountId = createAccount(100);
+        long before = applier.appliedSequence();
+
+        // No such account: every attempt fails on the foreign key
+        journal.append(List.of(new JournalEntry(0, UUID.randomUUID().toString(), OperationType.CREDIT, 1, 1,
+                "Poison", null, System.currentTimeMillis())));
+
+        assertThatThrownBy(() -> applier.awaitApplied(journal.durableSequence(), 60_000))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("stopped at sequence " + before);
+        assertThat(applier.isHealthy()).isFalse();
+        assertThat(applier.stats()).containsEntry("healthy", false).containsEntry("failedAttempts", 2L);
+        assertThat(applier.appliedSequence()).isEqualTo(before);
+
+        // Nothing more is journaled behind the entry it stopped at
+        long durable = journal.durableSequence();
+        assertThatThrownBy(() -> bankAccountsService.credit(accountId, 10, "Credit", "admin1"))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(journal.durableSequence()).isEqualTo(durable);
+    }
+
+    private String createAccount(double balance) {
+        Customer customer = new Customer();
+        customer.setName("Applier");
+        customer.setEmail("applier-" + UUID.randomUUID() + "@example.com");
+        customer = customerRepository.save(customer);
+        CurrentAccount account = new CurrentAccount();
+        account.setId(UUID.randomUUID().toString());
+        account.setBalance(balance);
+        account.setCustomer(customer);
+        return bankAccountRepository.save(account).getId();
+    }
+}
@@ -0,0 +1,84 @@
+package org.springmvc.ebanking.services.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springmvc.ebanking.entities.CurrentAccount;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.repositories.AccountOperationRepository;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+import org.springmvc.ebanking.repositories.LedgerJournalCheckpointRepository;
+import org.springmvc.ebanking.services.BankAccountsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "ebanking.ledger.engine=sharded",
+        "ebanking.ledger.journal.enabled=true",
+        "ebanking.ledger.journal.directory=target/test-journal/${random.uuid}",
+        "ebanking.ledger.journal.segment-size=1MB"
+})
+class JournaledLedgerBankServiceTest {
+
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private ShardedLedger ledger;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private AccountOperationRepository accountOperationRepository;
+    @Autowired
+    private LedgerJournalCheckpointRepository checkpointRepository;
+
+    @Test
+    void journaledOperationsReachTheDatabase() throws Exception {
+        String accountId = createAccount(0);
+        String otherAccountId = createAccount(0);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    bankAccountsService.credit(accountId, 10, "Credit", "admin1");
+                    bankAccountsService.transfer(accountId, otherAccountId, 4, "admin1");
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        ledger.awaitPersisted();
+
+        assertThat(bankAccountRepository.findById(accountId).orElseThrow().getBalance()).isEqualTo(16 * 50 * 6);
+        assertThat(bankAccountRepository.findById(otherAccountId).orElseThrow().getBalance()).isEqualTo(16 * 50 * 4);
+        assertThat(accountOperationRepository.findByBankAccountId(accountId)).hasSize(16 * 50 * 2);
+        assertThat(checkpointRepository.findById(JournalApplier.CHECKPOINT).orElseThrow().getAppliedSequence())
+                .isGreaterThanOrEqualTo(16 * 50 * 3);
+    }
+
+    private String createAccount(double balance) {
+        Customer customer = new Customer();
+        customer.setName("Journal");
+        customer.setEmail("journal-" + UUID.randomUUID() + "@example.com");
+        customer = customerRepository.save(customer);
+        CurrentAccount account = new CurrentAccount();
+        account.setId(UUID.randomUUID().toString());
+        account.setBalance(balance);
+        account.setCustomer(customer);
+        return bankAccountRepository.save(account).getId();
+    }
+}
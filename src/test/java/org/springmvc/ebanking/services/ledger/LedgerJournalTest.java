@@ -0,0 +1,175 @@
+package org.springmvc.ebanking.services.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import org.springmvc.ebanking.enums.OperationType;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LedgerJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void concurrentAppendsAreRecoveredInSequenceOrderAcrossSegments() throws Exception {
+        LedgerJournal journal = open();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String accountId = "account-" + t;
+            results.add(executor.submit(() -> {
+                for (int i = 1; i <= 100; i++) {
+                    journal.append(List.of(entry(accountId, i)));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(1, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+        assertThat(journal.durableSequence()).isEqualTo(800);
+        // Appenders that arrive while an fsync is running share the next one
+        assertThat((long) journal.stats().get("forces")).isLessThanOrEqualTo(800);
+        journal.close();
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+
+        LedgerJournal reopened = open();
+        List<JournalEntry> recovered = reopened.recoveredEntries();
+        assertThat(recovered).hasSize(800);
+        for (int i = 0; i < recovered.size(); i++) {
+            assertThat(recovered.get(i).sequence()).isEqualTo(i + 1);
+        }
+        // Per account, the balances come back in the order they were written
+        List<Double> account3 = recovered.stream().filter(e -> e.accountId().equals("account-3")).map(JournalEntry::balanceAfter).toList();
+        assertThat(account3).hasSize(100).isSorted();
+        reopened.append(List.of(entry("account-0", 101)));
+        assertThat(reopened.durableSequence()).isEqualTo(801);
+        reopened.close();
+    }
+
+    @Test
+    void tornRecordEndsRecovery() throws Exception {
+        LedgerJournal journal = open();
+        journal.append(List.of(entry("a", 1), entry("a", 2), entry("a", 3)));
+        journal.close();
+
+        // Flip a payload byte of the last record, as if the crash happened mid-write
+        Path segment = segmentFiles().get(0);
+        int recordSize = 16 + entry("a", 3).encode().length;
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long offset = 2L * recordSize + 20;
+            file.seek(offset);
+            int value = file.read();
+            file.seek(offset);
+            file.write(value ^ 0xFF);
+        }
+
+        LedgerJournal reopened = open();
+        assertThat(reopened.recoveredEntries()).extracting(JournalEntry::sequence).containsExactly(1L, 2L);
+        reopened.close();
+    }
+
+    @Test
+    void releaseDeletesFullyAppliedSegments() throws Exception {
+        LedgerJournal journal = open();
+        for (int i = 1; i <= 200; i++) {
+            journal.append(List.of(entry("a", i)));
+        }
+        int before = segmentFiles().size();
+        journal.release(200);
+        assertThat(segmentFiles()).hasSizeLessThan(before).isNotEmpty();
+        journal.close();
+    }
+
+    @Test
+    void recordLargerThanASegmentIsRejectedBeforeAnythingIsWritten() throws Exception {
+        LedgerJournal journal = open();
+        journal.append(List.of(entry("a", 1)));
+        JournalEntry oversized = new JournalEntry(0, "a", OperationType.CREDIT, 1, 2, "x".repeat(5000), 1L,
+                System.currentTimeMillis());
+
+        assertThatThrownBy(() -> journal.append(List.of(entry("a", 2), oversized)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("exceeds");
+        assertThat(journal.durableSequence()).isEqualTo(1);
+        assertThat(segmentFiles()).hasSize(1);
+        journal.append(List.of(entry("a", 2)));
+        assertThat(journal.durableSequence()).isEqualTo(2);
+        journal.close();
+    }
+
+    @Test
+    void segmentRolledWhileItIsBeingForcedIsForcedAgain() throws Exception {
+        LedgerJournal journal = open();
+        CountDownLatch forcing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<Path>> forced = new CopyOnWriteArrayList<>();
+        journal.beforeForce = paths -> {
+            forced.add(paths);
+            if (forced.size() == 1) {
+                forcing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<?> first = executor.submit(() -> journal.append(List.of(entry("a", 1))));
+        assertThat(forcing.await(10, TimeUnit.SECONDS)).isTrue();
+        Path firstSegment = forced.get(0).get(0);
+
+        // Written past the first force's target into the segment being forced, which fills up and rolls
+        List<JournalEntry> batch = new ArrayList<>();
+        for (int i = 2; i <= 101; i++) {
+            batch.add(entry("a", i));
+        }
+        Future<?> second = executor.submit(() -> journal.append(batch));
+        while ((long) journal.stats().get("lastSequence") < 101) {
+            Thread.sleep(5);
+        }
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+        release.countDown();
+        first.get(1, TimeUnit.MINUTES);
+        second.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+
+        assertThat(journal.durableSequence()).isEqualTo(101);
+        assertThat(forced.subList(1, forced.size())).anySatisfy(paths -> assertThat(paths).contains(firstSegment));
+        journal.close();
+    }
+
+    private LedgerJournal open() throws Exception {
+        LedgerJournal journal = new LedgerJournal(directory.toString(), DataSize.ofKilobytes(4));
+        journal.open();
+        return journal;
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static JournalEntry entry(String accountId, int i) {
+        return new JournalEntry(0, accountId, OperationType.CREDIT, 1, i, "Credit " + i, 1L, System.currentTimeMillis());
+    }
+}
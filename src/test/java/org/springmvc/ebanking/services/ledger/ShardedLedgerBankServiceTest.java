@@ -0,0 +1,156 @@
+package org.springmvc.ebanking.services.ledger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springmvc.ebanking.entities.CurrentAccount;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.entities.InDoubtTransfer;
+import org.springmvc.ebanking.enums.InDoubtTransferStatus;
+import org.springmvc.ebanking.exceptions.BalanceNotSufficientException;
+import org.springmvc.ebanking.exceptions.BankAccountNotFoundException;
+import org.springmvc.ebanking.repositories.AccountOperationRepository;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+import org.springmvc.ebanking.repositories.InDoubtTransferRepository;
+import org.springmvc.ebanking.services.BankAccountsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "ebanking.ledger.engine=sharded")
+class ShardedLedgerBankServiceTest {
+
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private AccountOperationRepository accountOperationRepository;
+    @Autowired
+    private InDoubtTransfers inDoubtTransfers;
+    @Autowired
+    private InDoubtTransferRepository inDoubtTransferRepository;
+
+    @Test
+    void shardedEngineIsSelectedByProperty() {
+        assertThat(bankAccountsService).isInstanceOf(ShardedLedgerBankService.class);
+    }
+
+    @Test
+    void concurrentOperationsOnHotAccountAreSerialized() throws Exception {
+        String accountId = createAccount(0);
+        String otherAccountId = createAccount(0);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    bankAccountsService.credit(accountId, 10, "Credit", "admin1");
+                    bankAccountsService.debit(accountId, 5, "Debit", "admin1");
+                    bankAccountsService.transfer(accountId, otherAccountId, 1, "admin1");
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertThat(bankAccountRepository.findById(accountId).orElseThrow().getBalance()).isEqualTo(16 * 50 * 4);
+        assertThat(bankAccountRepository.findById(otherAccountId).orElseThrow().getBalance()).isEqualTo(16 * 50);
+        assertThat(accountOperationRepository.findByBankAccountId(accountId)).hasSize(16 * 50 * 3);
+    }
+
+    @Test
+    void debitBeyondBalanceIsRejected() throws Exception {
+        String accountId = createAccount(100);
+        assertThatThrownBy(() -> bankAccountsService.debit(accountId, 150, "Debit", "admin1"))
+                .isInstanceOf(BalanceNotSufficientException.class);
+        bankAccountsService.debit(accountId, 100, "Debit", "admin1");
+        assertThat(bankAccountRepository.findById(accountId).orElseThrow().getBalance()).isZero();
+    }
+
+    @Test
+    void creditLegWithoutAnOutcomeIsSettledWhenItsResultArrives() throws Exception {
+        String accountId = createAccount(100);
+        String otherAccountId = createAccount(0);
+
+        // Timed out, then rejected: only now is it safe to give the debit back
+        bankAccountsService.debit(accountId, 40, "Transfer to " + otherAccountId, "admin1");
+        CompletableFuture<Void> rejected = new CompletableFuture<>();
+        inDoubtTransfers.record(accountId, otherAccountId, 40, null, rejected, new IllegalStateException("Ledger operation timed out"));
+        InDoubtTransfer transfer = openTransfer(accountId);
+        assertThat(transfer.getStatus()).isEqualTo(InDoubtTransferStatus.PENDING);
+        assertThat(bankAccountRepository.findById(accountId).orElseThrow().getBalance()).isEqualTo(60);
+        rejected.completeExceptionally(new BankAccountNotFoundException("BankAccount not found"));
+        assertThat(eventually(transfer.getId(), InDoubtTransferStatus.REVERSED)).isTrue();
+        assertThat(bankAccountRepository.findById(accountId).orElseThrow().getBalance()).isEqualTo(100);
+
+        // Timed out, then applied: nothing to give back
+        bankAccountsService.debit(accountId, 30, "Transfer to " + otherAccountId, "admin1");
+        CompletableFuture<Void> applied = new CompletableFuture<>();
+        inDoubtTransfers.record(accountId, otherAccountId, 30, null, applied, new IllegalStateException("Ledger operation timed out"));
+        transfer = openTransfer(accountId);
+        applied.complete(null);
+        assertThat(eventually(transfer.getId(), InDoubtTransferStatus.CREDITED)).isTrue();
+        assertThat(bankAccountRepository.findById(accountId).orElseThrow().getBalance()).isEqualTo(70);
+    }
+
+    @Test
+    void failedReversalIsRecordedAndKeepsTheOriginalFailure() throws Exception {
+        String missingAccountId = UUID.randomUUID().toString();
+        String otherAccountId = createAccount(0);
+        BankAccountNotFoundException rejection = new BankAccountNotFoundException("BankAccount not found");
+
+        inDoubtTransfers.reverse(missingAccountId, otherAccountId, 25, null, rejection);
+
+        assertThat(rejection.getSuppressed()).hasSize(1);
+        InDoubtTransfer transfer = openTransfer(missingAccountId);
+        assertThat(transfer.getStatus()).isEqualTo(InDoubtTransferStatus.REVERSAL_FAILED);
+        assertThat(transfer.getAmount()).isEqualTo(25);
+        assertThat(inDoubtTransfers.settle(transfer.getId(), false).getStatus()).isEqualTo(InDoubtTransferStatus.REVERSED);
+        assertThatThrownBy(() -> inDoubtTransfers.settle(transfer.getId(), true)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private InDoubtTransfer openTransfer(String sourceAccountId) {
+        return inDoubtTransfers.open().stream()
+                .filter(transfer -> transfer.getSourceAccountId().equals(sourceAccountId))
+                .findFirst().orElseThrow();
+    }
+
+    // Results are settled by another thread
+    private boolean eventually(Long id, InDoubtTransferStatus status) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            if (inDoubtTransferRepository.findById(id).orElseThrow().getStatus() == status) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return false;
+    }
+
+    private String createAccount(double balance) {
+        Customer customer = new Customer();
+        customer.setName("Ledger");
+        customer.setEmail("ledger-" + UUID.randomUUID() + "@example.com");
+        customer = customerRepository.save(customer);
+        CurrentAccount account = new CurrentAccount();
+        account.setId(UUID.randomUUID().toString());
+        account.setBalance(balance);
+        account.setCustomer(customer);
+        return bankAccountRepository.save(account).getId();
+    }
+}
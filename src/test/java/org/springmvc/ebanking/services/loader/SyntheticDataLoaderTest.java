@@ -0,0 +1,77 @@
+package org.springmvc.ebanking.services.loader;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.services.BankAccountsService;
+import org.springmvc.ebanking.services.reconciliation.LedgerReconciliation;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Batches of 10 customers over 3 threads; the second load extends the dataset across a partly loaded batch
+@SpringBootTest(properties = {
+        "ebanking.loader.synthetic.batch-size=10",
+        "ebanking.loader.synthetic.insert-batch-size=64",
+        "ebanking.loader.synthetic.parallelism=3"
+})
+class SyntheticDataLoaderTest {
+
+    private static final String EMAILS = "%@loader-test.synthetic";
+
+    @Autowired
+    private SyntheticDataLoader loader;
+    @Autowired
+    private LedgerReconciliation reconciliation;
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void loadsAReconciledDatasetOnceAndExtendsIt() throws Exception {
+        SyntheticDataLoader.Report first = loader.load(new SyntheticDataLoader.Spec("loader-test", 37, 2, 20, 30, 7));
+        assertThat(first.customersLoaded()).isEqualTo(37);
+        assertThat(first.accounts()).isGreaterThanOrEqualTo(37);
+        assertThat(first.operations()).isPositive();
+
+        SyntheticDataLoader.Report extended = loader.load(new SyntheticDataLoader.Spec("loader-test", 55, 2, 20, 30, 7));
+        assertThat(extended.customersLoaded()).isEqualTo(18);
+        SyntheticDataLoader.Report again = loader.load(new SyntheticDataLoader.Spec("loader-test", 55, 2, 20, 30, 7));
+        assertThat(again.customersLoaded()).isZero();
+
+        assertThat(count("SELECT count(*) FROM customer WHERE email LIKE ?")).isEqualTo(55);
+        assertThat(count("SELECT count(*) FROM bank_account a JOIN customer c ON c.id = a.customer_id WHERE c.email LIKE ?"))
+                .isEqualTo(first.accounts() + extended.accounts());
+        assertThat(count("SELECT count(*) FROM account_operation o JOIN bank_account a ON a.id = o.bank_account_id "
+                + "JOIN customer c ON c.id = a.customer_id WHERE c.email LIKE ?"))
+                .isEqualTo(first.operations() + extended.operations());
+
+        // Summary rows match the accounts they were written with
+        List<Map<String, Object>> mismatched = jdbcTemplate.queryForList(
+                "SELECT s.customer_id FROM customer_summary s JOIN customer c ON c.id = s.customer_id "
+                        + "WHERE c.email LIKE ? AND (s.account_count <> (SELECT count(*) FROM bank_account a WHERE a.customer_id = s.customer_id) "
+                        + "OR abs(s.total_balance - (SELECT sum(a.balance) FROM bank_account a WHERE a.customer_id = s.customer_id)) > 0.001)",
+                EMAILS);
+        assertThat(mismatched).isEmpty();
+
+        // Balances equal opening balance + operations, including the demo data's
+        assertThat(reconciliation.run().discrepancies()).isZero();
+
+        // Operation ids came from Hibernate's generator, so the application's next operations do not collide
+        byte[] accountId = jdbcTemplate.queryForObject("SELECT a.id FROM bank_account a JOIN customer c ON c.id = a.customer_id "
+                + "WHERE c.email LIKE ? ORDER BY a.id LIMIT 1", byte[].class, EMAILS);
+        for (int i = 0; i < 60; i++) {
+            bankAccountsService.credit(AccountIds.fromBytes(accountId), 1, "After load", "admin1");
+        }
+        assertThat(reconciliation.run().discrepancies()).isZero();
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class, EMAILS);
+    }
+}
@@ -0,0 +1,72 @@
+package org.springmvc.ebanking.services.reconciliation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springmvc.ebanking.dtos.CustomerDTO;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.services.BankAccountsService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Chunks of 5 accounts over 3 shards, so a few dozen accounts cross chunk and shard boundaries
+@SpringBootTest(properties = {
+        "ebanking.reconciliation.shards=3",
+        "ebanking.reconciliation.parallelism=2",
+        "ebanking.reconciliation.chunk-size=5",
+        "ebanking.reconciliation.fetch-size=7"
+})
+class LedgerReconciliationTest {
+
+    @Autowired
+    private LedgerReconciliation reconciliation;
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reportsExactlyTheAccountsWhoseBalanceDriftedFromTheirOperations() throws Exception {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName("Reconciled " + UUID.randomUUID());
+        customer.setEmail(UUID.randomUUID() + "@example.com");
+        customer.setCreatedBy("admin1");
+        Long customerId = bankAccountsService.saveCustomer(customer).getId();
+
+        List<String> accounts = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            String id = i % 2 == 0
+                    ? bankAccountsService.saveCurrentBankAccount(1000 + i, 500, customerId, "admin1").getId()
+                    : bankAccountsService.saveSavingBankAccount(1000 + i, 2.5, customerId, "admin1").getId();
+            bankAccountsService.credit(id, 100.10, "Deposit", "admin1");
+            bankAccountsService.debit(id, 0.30 * i, "Fee", "admin1");
+            accounts.add(id);
+        }
+        String overstated = accounts.get(3);
+        String missingOperation = accounts.get(17);
+        jdbcTemplate.update("UPDATE bank_account SET balance = balance + 12.34 WHERE id = ?", AccountIds.toBytes(overstated));
+        jdbcTemplate.update("DELETE FROM account_operation WHERE bank_account_id = ? AND type = 'CREDIT'", AccountIds.toBytes(missingOperation));
+
+        LedgerReconciliation.Report report = reconciliation.run();
+
+        Map<String, LedgerReconciliation.Discrepancy> ours = report.details().stream()
+                .filter(discrepancy -> accounts.contains(discrepancy.accountId()))
+                .collect(Collectors.toMap(LedgerReconciliation.Discrepancy::accountId, discrepancy -> discrepancy));
+        assertThat(ours).containsOnlyKeys(overstated, missingOperation);
+        assertThat(ours.get(overstated).difference()).isEqualTo(12.34);
+        assertThat(ours.get(overstated).operations()).isEqualTo(2);
+        assertThat(ours.get(missingOperation).difference()).isEqualTo(100.10);
+        assertThat(ours.get(missingOperation).operations()).isEqualTo(1);
+
+        assertThat(report.accounts()).isGreaterThanOrEqualTo(accounts.size());
+        assertThat(report.operations()).isGreaterThanOrEqualTo(2L * accounts.size() - 1);
+        assertThat(reconciliation.stats()).containsEntry("running", false).containsEntry("lastReport", report);
+    }
+}
@@ -0,0 +1,102 @@
+package org.springmvc.ebanking.services.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springmvc.ebanking.dtos.CustomerDTO;
+import org.springmvc.ebanking.services.BankAccountsService;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CustomerSearchIndexTest {
+
+    @Autowired
+    private CustomerSearchIndex index;
+    @Autowired
+    private BankAccountsService bankAccountsService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String tag;
+
+    @BeforeEach
+    void indexReady() throws InterruptedException {
+        for (int i = 0; i < 200 && !index.isReady(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(index.isReady()).isTrue();
+        tag = "k" + UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+    }
+
+    @Test
+    void ranksExactNamePrefixWordStartContainsThenEmail() throws Exception {
+        CustomerDTO exact = save(tag, "a");
+        CustomerDTO prefix = save(tag + "ström", "b");
+        CustomerDTO wordStart = save("Anna " + tag, "c");
+        CustomerDTO inside = save("x" + tag + "y", "d");
+        CustomerDTO byEmail = save("Other", tag);
+
+        assertThat(names(bankAccountsService.searchCustomers(tag.toUpperCase(), PageRequest.of(0, 10))))
+                .containsExactly(exact.getName(), prefix.getName(), wordStart.getName(), inside.getName(), byEmail.getName());
+
+        Page<CustomerDTO> second = bankAccountsService.searchCustomers(tag, PageRequest.of(1, 2));
+        assertThat(second.getTotalElements()).isEqualTo(5);
+        assertThat(names(second)).containsExactly(wordStart.getName(), inside.getName());
+
+        // Accents and punctuation are ignored; every word must match, in the name or the email, short ones at the start of a word
+        assertThat(names(bankAccountsService.searchCustomers(tag + "strom", PageRequest.of(0, 10)))).containsExactly(prefix.getName());
+        assertThat(names(bankAccountsService.searchCustomers("an " + tag, PageRequest.of(0, 10)))).containsExactly(wordStart.getName());
+        assertThat(names(bankAccountsService.searchCustomers("other " + tag + "@", PageRequest.of(0, 10)))).containsExactly(byEmail.getName());
+        assertThat(bankAccountsService.searchCustomers(tag + "zz", PageRequest.of(0, 10))).isEmpty();
+    }
+
+    @Test
+    void followsUpdatesDeletesAndOnlyCommittedWrites() throws Exception {
+        CustomerDTO customer = save(tag + " Before", "e");
+        customer.setName(tag + " After");
+        customer.setUpdatedBy("admin1");
+        bankAccountsService.updateCustomer(customer);
+        assertThat(names(bankAccountsService.searchCustomers(tag + " before", PageRequest.of(0, 10)))).isEmpty();
+        assertThat(names(bankAccountsService.searchCustomers(tag + " after", PageRequest.of(0, 10)))).containsExactly(tag + " After");
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            try {
+                save(tag + " Rolledback", "f");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+        });
+        assertThat(names(bankAccountsService.searchCustomers(tag + " rolledback", PageRequest.of(0, 10)))).isEmpty();
+
+        bankAccountsService.deleteCustomer(customer.getId());
+        assertThat(bankAccountsService.searchCustomers(tag, PageRequest.of(0, 10))).isEmpty();
+
+        // A rebuild from the database finds the same customers
+        CustomerDTO kept = save(tag + " Kept", "g");
+        assertThat(index.rebuild()).isTrue();
+        assertThat(names(bankAccountsService.searchCustomers(tag, PageRequest.of(0, 10)))).containsExactly(kept.getName());
+    }
+
+    private CustomerDTO save(String name, String emailPrefix) throws Exception {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName(name);
+        customer.setEmail(emailPrefix + "." + UUID.randomUUID() + "@example.com");
+        customer.setCreatedBy("admin1");
+        return bankAccountsService.saveCustomer(customer);
+    }
+
+    private static List<String> names(Page<CustomerDTO> page) {
+        return page.getContent().stream().map(CustomerDTO::getName).toList();
+    }
+}
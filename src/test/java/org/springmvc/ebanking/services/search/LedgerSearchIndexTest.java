@@ -0,0 +1,122 @@
+package org.springmvc.ebanking.services.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springmvc.ebanking.dtos.CustomerDTO;
+import org.springmvc.ebanking.services.BankAccountsService;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class LedgerSearchIndexTest {
+
+    private static final PageRequest FIRST_PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    private LedgerSearchIndex index;
+    @Autowired
+    private BankAccountsService bankAccountsService;
+
+    private String tag;
+
+    @BeforeEach
+    void indexReady() throws InterruptedException {
+        assertThat(eventually(index::isReady)).isTrue();
+        tag = "q" + UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+    }
+
+    @Test
+    void operationsAreSearchableWithFacetsAfterTheyCommit() throws Exception {
+        CustomerDTO customer = save(tag + " Ledger");
+        String current = bankAccountsService.saveCurrentBankAccount(100, 0, customer.getId(), "admin1").getId();
+        String saving = bankAccountsService.saveSavingBankAccount(100, 2, customer.getId(), "admin1").getId();
+        bankAccountsService.credit(current, 10, "Rent " + tag + " refund", "admin1");
+        bankAccountsService.credit(current, 2000, "Salary " + tag, "admin1");
+        bankAccountsService.debit(current, 700, "Rent " + tag, "admin1");
+        bankAccountsService.credit(saving, 5, "Interest " + tag, "admin1");
+
+        assertThat(eventually(() -> operations(tag, null, null, null).total() == 4)).isTrue();
+        LedgerSearchIndex.Result<LedgerSearchIndex.Operation> all = operations(tag, null, null, null);
+        assertThat(all.facets().get("type")).containsEntry("CREDIT", 3L).containsEntry("DEBIT", 1L);
+        assertThat(all.facets().get("date")).containsEntry("last24Hours", 4L).containsEntry("older", 0L);
+
+        // A whole word ranks before a prefix; the type facet still counts the type that was filtered out
+        LedgerSearchIndex.Result<LedgerSearchIndex.Operation> debits = operations("rent " + tag, "DEBIT", null, null);
+        assertThat(debits.hits()).extracting(LedgerSearchIndex.Operation::amount).containsExactly(700.0);
+        assertThat(debits.facets().get("type")).containsEntry("CREDIT", 1L).containsEntry("DEBIT", 1L);
+        assertThat(operations("ren " + tag.substring(0, 7), null, null, null).total()).isEqualTo(2);
+        assertThat(operations("rent " + tag + " refund", null, null, null).hits())
+                .extracting(LedgerSearchIndex.Operation::description).containsExactly("Rent " + tag + " refund");
+
+        Date tomorrow = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1));
+        LedgerSearchIndex.Result<LedgerSearchIndex.Operation> later = operations(tag, null, tomorrow, null);
+        assertThat(later.hits()).isEmpty();
+        assertThat(later.facets().get("date")).containsEntry("last24Hours", 4L);
+
+        LedgerSearchIndex.Result<LedgerSearchIndex.Operation> ofSaving = index.searchOperations(
+                new LedgerSearchIndex.OperationQuery(tag, null, null, null, null, null, saving), FIRST_PAGE);
+        assertThat(ofSaving.hits()).extracting(LedgerSearchIndex.Operation::description).containsExactly("Interest " + tag);
+        LedgerSearchIndex.Result<LedgerSearchIndex.Operation> large = index.searchOperations(
+                new LedgerSearchIndex.OperationQuery(tag, null, null, null, 500.0, null, null), FIRST_PAGE);
+        assertThat(large.hits()).extracting(LedgerSearchIndex.Operation::amount).containsExactly(700.0, 2000.0);
+    }
+
+    @Test
+    void accountsFollowTheirCustomerAndDeletes() throws Exception {
+        CustomerDTO customer = save(tag + " Before");
+        String current = bankAccountsService.saveCurrentBankAccount(100, 0, customer.getId(), "admin1").getId();
+        String saving = bankAccountsService.saveSavingBankAccount(100, 2, customer.getId(), "admin1").getId();
+
+        assertThat(eventually(() -> accounts(tag, null).total() == 2)).isTrue();
+        LedgerSearchIndex.Result<LedgerSearchIndex.Account> all = accounts(tag + " before", null);
+        assertThat(all.facets().get("type")).containsEntry("CurrentAccount", 1L).containsEntry("SavingAccount", 1L);
+        assertThat(accounts(tag, "SavingAccount").hits()).extracting(LedgerSearchIndex.Account::id).containsExactly(saving);
+        assertThat(accounts(saving.substring(0, 8) + " " + tag, null).hits()).extracting(LedgerSearchIndex.Account::id)
+                .contains(saving);
+
+        customer.setName(tag + " After");
+        customer.setUpdatedBy("admin1");
+        bankAccountsService.updateCustomer(customer);
+        assertThat(eventually(() -> accounts(tag + " after", null).total() == 2)).isTrue();
+        assertThat(accounts(tag + " before", null).hits()).isEmpty();
+
+        bankAccountsService.deleteBankAccount(current);
+        assertThat(eventually(() -> accounts(tag, null).total() == 1)).isTrue();
+        assertThat(accounts(tag, null).hits()).extracting(LedgerSearchIndex.Account::customerName).containsExactly(tag + " After");
+    }
+
+    private LedgerSearchIndex.Result<LedgerSearchIndex.Operation> operations(String text, String type, Date from, Date to) {
+        return index.searchOperations(new LedgerSearchIndex.OperationQuery(text, type, from, to, null, null, null), FIRST_PAGE);
+    }
+
+    private LedgerSearchIndex.Result<LedgerSearchIndex.Account> accounts(String text, String type) {
+        return index.searchAccounts(new LedgerSearchIndex.AccountQuery(text, type), FIRST_PAGE);
+    }
+
+    private CustomerDTO save(String name) throws Exception {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setName(name);
+        customer.setEmail("ledger." + UUID.randomUUID() + "@example.com");
+        customer.setCreatedBy("admin1");
+        return bankAccountsService.saveCustomer(customer);
+    }
+
+    // The index is updated after the commit, by another thread
+    private static boolean eventually(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(50);
+        }
+        return condition.getAsBoolean();
+    }
+}
@@ -0,0 +1,50 @@
+package org.springmvc.ebanking.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the JDBC statements a call prepares (Hibernate statistics) and fails when it goes over
+ * its budget. Wrap a service call or a MockMvc request with it; a count that grows with the number
+ * of rows returned is an N+1, which a fixed budget turns into a test failure.
+ */
+public class QueryBudget {
+
+    private final Statistics statistics;
+
+    public QueryBudget(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public <T> T atMost(long statements, Callable<T> call) throws Exception {
+        Counted<T> counted = count(call);
+        assertThat(counted.statements()).as("statements prepared").isLessThanOrEqualTo(statements);
+        return counted.result();
+    }
+
+    public <T> T exactly(long statements, Callable<T> call) throws Exception {
+        Counted<T> counted = count(call);
+        assertThat(counted.statements()).as("statements prepared").isEqualTo(statements);
+        return counted.result();
+    }
+
+    public <T> Counted<T> count(Callable<T> call) throws Exception {
+        boolean enabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            T result = call.call();
+            return new Counted<>(result, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(enabled);
+        }
+    }
+
+    public record Counted<T>(T result, long statements) {
+    }
+}
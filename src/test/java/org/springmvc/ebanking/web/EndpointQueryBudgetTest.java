@@ -0,0 +1,184 @@
+package org.springmvc.ebanking.web;
+
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springmvc.ebanking.entities.AccountIds;
+import org.springmvc.ebanking.entities.AccountOperation;
+import org.springmvc.ebanking.entities.BankAccount;
+import org.springmvc.ebanking.entities.CurrentAccount;
+import org.springmvc.ebanking.entities.Customer;
+import org.springmvc.ebanking.entities.SavingAccount;
+import org.springmvc.ebanking.entities.User;
+import org.springmvc.ebanking.enums.OperationType;
+import org.springmvc.ebanking.repositories.AccountOperationRepository;
+import org.springmvc.ebanking.repositories.BankAccountRepository;
+import org.springmvc.ebanking.repositories.CustomerRepository;
+import org.springmvc.ebanking.repositories.UserRepository;
+import org.springmvc.ebanking.security.JwtTokenProvider;
+import org.springmvc.ebanking.support.QueryBudget;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Read endpoints keep a fixed statement budget however many rows, accounts and distinct users they return
+@SpringBootTest
+@AutoConfigureMockMvc
+class EndpointQueryBudgetTest {
+
+    private static final int OPERATIONS = 24;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+    @Autowired
+    private AccountOperationRepository accountOperationRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private QueryBudget queryBudget;
+    private String adminToken;
+    private String userToken;
+    private Customer customer;
+    private String accountId;
+
+    @BeforeEach
+    void seed() {
+        queryBudget = new QueryBudget(entityManagerFactory);
+        String suffix = UUID.randomUUID().toString();
+        User owner = user("owner-" + suffix);
+        List<User> performers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            performers.add(user("teller" + i + "-" + suffix));
+        }
+
+        customer = new Customer();
+        customer.setName("Budget " + suffix);
+        customer.setEmail(owner.getEmail());
+        customer.setCreatedBy(performers.get(0));
+        customer.setUpdatedBy(performers.get(1));
+        customer = customerRepository.save(customer);
+
+        List<BankAccount> accounts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            BankAccount account = i % 2 == 0 ? new CurrentAccount() : new SavingAccount();
+            account.setId(AccountIds.newId());
+            account.setBalance(1000);
+            account.setCustomer(customer);
+            account.setCreatedBy(performers.get(i));
+            account.setUpdatedBy(performers.get(i + 1));
+            accounts.add(bankAccountRepository.save(account));
+        }
+        accountId = accounts.get(0).getId();
+
+        List<AccountOperation> operations = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            AccountOperation operation = new AccountOperation();
+            operation.setOperationDate(new Date(System.currentTimeMillis() - i * 1000L));
+            operation.setAmount(10 + i);
+            operation.setType(i % 2 == 0 ? OperationType.CREDIT : OperationType.DEBIT);
+            operation.setDescription("op " + i);
+            // Every account gets operations from every teller
+            operation.setBankAccount(i < OPERATIONS / 2 ? accounts.get(0) : accounts.get(i % accounts.size()));
+            operation.setPerformedBy(performers.get(i % performers.size()));
+            operations.add(operation);
+        }
+        accountOperationRepository.saveAll(operations);
+
+        adminToken = token("admin1", "ROLE_ADMIN");
+        userToken = token(owner.getUsername(), "ROLE_USER");
+    }
+
+    @Test
+    void accountEndpointsStayWithinBudget() throws Exception {
+        expectBudget(1, adminToken, "/api/accounts/" + accountId);
+        expectBudget(1, adminToken, "/api/accounts/" + accountId + "/operations");
+        expectBudget(2, adminToken, "/api/accounts/" + accountId + "/pageOperations?size=20");
+        expectBudget(2, adminToken, "/api/accounts/" + accountId + "/operations/scroll?size=20");
+        expectBudget(1, adminToken, "/api/accounts?size=20");
+        expectBudget(2, adminToken, "/api/customers/" + customer.getId());
+        expectBudget(1, adminToken, "/api/customers");
+    }
+
+    @Test
+    void userEndpointsStayWithinBudget() throws Exception {
+        expectBudget(1, userToken, "/api/accounts/user");
+        expectBudget(5, userToken, "/api/transactions/history?size=20");
+        expectBudget(5, userToken, "/api/dashboard/dashboard?size=20");
+        expectBudget(5, userToken, "/api/dashboard/dashboard/scroll?size=20");
+    }
+
+    @Test
+    void scrollEndpointsRejectOutOfRangeSizes() throws Exception {
+        for (String size : List.of("0", "-1", "101")) {
+            mockMvc.perform(get("/api/accounts/" + accountId + "/operations/scroll?size=" + size)
+                    .header("Authorization", "Bearer " + adminToken)).andExpect(status().isBadRequest());
+            mockMvc.perform(get("/api/transactions/history/scroll?size=" + size)
+                    .header("Authorization", "Bearer " + userToken)).andExpect(status().isBadRequest());
+            mockMvc.perform(get("/api/dashboard/dashboard/scroll?size=" + size)
+                    .header("Authorization", "Bearer " + userToken)).andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void customerWithATakenEmailIsRejected() throws Exception {
+        String taken = customer.getEmail();
+        mockMvc.perform(post("/api/customers").header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Copy\",\"email\":\"" + taken + "\"}"))
+                .andExpect(status().isBadRequest());
+
+        String free = "free-" + UUID.randomUUID() + "@example.com";
+        String created = mockMvc.perform(post("/api/customers").header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Other\",\"email\":\"" + free + "\"}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        Number otherId = JsonPath.read(created, "$.id");
+        mockMvc.perform(put("/api/customers/" + otherId).header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Other\",\"email\":\"" + taken + "\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void expectBudget(long statements, String token, String url) throws Exception {
+        // The first call warms the token version and principal caches; the budget is for the steady state
+        mockMvc.perform(get(url).header("Authorization", "Bearer " + token)).andExpect(status().isOk());
+        queryBudget.atMost(statements, () -> mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk()));
+    }
+
+    private User user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("x");
+        return userRepository.save(user);
+    }
+
+    private String token(String username, String role) {
+        return jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority(role))));
+    }
+}